@@ -0,0 +1,375 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.michelin.avroxmlmapper.cli;
+
+import static com.michelin.avroxmlmapper.constants.AvroXmlMapperConstants.XML_NAMESPACE_SELECTOR_DEFAULT;
+import static com.michelin.avroxmlmapper.constants.AvroXmlMapperConstants.XPATH_DEFAULT;
+
+import com.michelin.avroxmlmapper.mapper.AvroXmlMapper;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+import org.apache.avro.Schema;
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.apache.avro.specific.SpecificRecordBase;
+
+/**
+ * Command-line tool converting files in bulk, from XML to an Avro container file or from Avro container files to XML,
+ * for backfills and for measuring the conversion throughput on real data. The conversions are run by a thread pool,
+ * with a bounded number of files or records in flight, and the throughput and latency are printed at the end.
+ *
+ * <p>Each XML file holds one record. The inputs are files, directories, whose files with the extension of the input
+ * format are converted, or glob patterns such as {@code data/**}{@code /*.xml}.
+ */
+public final class BulkConversion {
+    private static final String USAGE = """
+            Usage: BulkConversion <xml-to-avro|avro-to-xml> --class <record class> --output <path> [options] <input>...
+
+              --class <name>                The generated SpecificRecord class of the root record
+              --output <path>               The Avro container file to write (xml-to-avro),
+                                            or the directory to write the XML files to (avro-to-xml)
+              --jar <path>                  The jar of the generated classes, if they are not on the classpath
+              --xpath-selector <name>       The xpath property of the schema (default: xpath)
+              --namespaces-selector <name>  The XML namespaces property of the schema (default: xmlNamespaces)
+              --threads <n>                 The number of conversion threads (default: number of processors)
+              --in-flight <n>               The maximum number of conversions in flight (default: 4 per thread)
+            """;
+
+    private BulkConversion() {}
+
+    /**
+     * Run the tool and exit with its status.
+     *
+     * @param args The command-line arguments
+     */
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * Run the tool.
+     *
+     * @param args The command-line arguments
+     * @param out The stream the statistics are printed to
+     * @param err The stream the errors are printed to
+     * @return The exit status: 0 on success, 1 if a conversion failed, 2 if the arguments are invalid
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.print(USAGE);
+            return 2;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(options.threads());
+        try (URLClassLoader classLoader = new URLClassLoader(
+                options.jar() != null ? new URL[] {options.jar().toUri().toURL()} : new URL[0],
+                BulkConversion.class.getClassLoader())) {
+            Class<? extends SpecificRecordBase> clazz =
+                    Class.forName(options.recordClass(), true, classLoader).asSubclass(SpecificRecordBase.class);
+            ThroughputStatistics statistics = new ThroughputStatistics();
+
+            if (options.toAvro()) {
+                convertXmlToAvro(options, clazz, executor, statistics);
+            } else {
+                convertAvroToXml(options, clazz, executor, statistics);
+            }
+
+            statistics.report(out);
+            return 0;
+        } catch (ExecutionException e) {
+            err.println("Conversion failed: " + e.getCause());
+            return 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            err.println("Conversion interrupted");
+            return 1;
+        } catch (Exception e) {
+            err.println("Conversion failed: " + e);
+            return 1;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static <T extends SpecificRecordBase> void convertXmlToAvro(
+            Options options, Class<T> clazz, ExecutorService executor, ThroughputStatistics statistics)
+            throws IOException, ExecutionException, InterruptedException {
+        SpecificData specificData = specificData(clazz);
+        Schema schema = specificData.getSchema(clazz);
+        List<Path> files = inputFiles(options.inputs(), ".xml");
+
+        try (DataFileWriter<T> writer = new DataFileWriter<>(new SpecificDatumWriter<>(schema, specificData))) {
+            writer.create(schema, options.output().toFile());
+
+            // The records are written in the order of the files
+            InFlightWindow<Converted<T>> window = new InFlightWindow<>(executor, options.inFlight(), converted -> {
+                writer.append(converted.value());
+                statistics.record(converted.latencyNanos());
+            });
+
+            for (Path file : files) {
+                statistics.addBytes(Files.size(file));
+                window.submit(() -> {
+                    byte[] bytes = Files.readAllBytes(file);
+                    long start = System.nanoTime();
+                    T record = AvroXmlMapper.convertXmlBytesToAvro(
+                            bytes, clazz, options.xpathSelector(), options.namespacesSelector());
+                    return new Converted<>(record, System.nanoTime() - start);
+                });
+            }
+            window.drain();
+        }
+    }
+
+    private static <T extends SpecificRecordBase> void convertAvroToXml(
+            Options options, Class<T> clazz, ExecutorService executor, ThroughputStatistics statistics)
+            throws IOException, ExecutionException, InterruptedException {
+        SpecificData specificData = specificData(clazz);
+        Schema schema = specificData.getSchema(clazz);
+        List<Path> files = inputFiles(options.inputs(), ".avro");
+        Files.createDirectories(options.output());
+
+        InFlightWindow<Converted<Path>> window = new InFlightWindow<>(
+                executor, options.inFlight(), converted -> statistics.record(converted.latencyNanos()));
+
+        for (Path file : files) {
+            statistics.addBytes(Files.size(file));
+            String baseName = baseName(file);
+
+            try (DataFileReader<T> reader =
+                    new DataFileReader<>(file.toFile(), new SpecificDatumReader<>(schema, schema, specificData))) {
+                int index = 0;
+                while (reader.hasNext()) {
+                    T record = reader.next();
+                    Path target = options.output().resolve(baseName + "-" + ++index + ".xml");
+                    window.submit(() -> {
+                        long start = System.nanoTime();
+                        String xml = AvroXmlMapper.convertAvroToXmlString(
+                                record, options.xpathSelector(), options.namespacesSelector());
+                        long latency = System.nanoTime() - start;
+                        Files.writeString(target, xml, StandardCharsets.UTF_8);
+                        return new Converted<>(target, latency);
+                    });
+                }
+            }
+        }
+        window.drain();
+    }
+
+    /**
+     * Get the data model of a generated class, resolving the classes of the nested records with the class loader of the
+     * generated jar and converting the logical types as the generated classes do.
+     *
+     * @param clazz The generated class
+     * @return The data model
+     */
+    private static SpecificData specificData(Class<? extends SpecificRecordBase> clazz) {
+        SpecificData specificData = new SpecificData(clazz.getClassLoader());
+        SpecificData.getForClass(clazz).getConversions().forEach(specificData::addLogicalTypeConversion);
+        return specificData;
+    }
+
+    /**
+     * Resolve the input arguments to the files to convert, in a deterministic order.
+     *
+     * @param inputs The files, directories or glob patterns
+     * @param extension The extension of the files to take from the directories
+     * @return The files
+     * @throws IOException If a directory cannot be listed
+     */
+    static List<Path> inputFiles(List<String> inputs, String extension) throws IOException {
+        List<Path> files = new ArrayList<>();
+
+        for (String input : inputs) {
+            int glob = firstGlobCharacter(input);
+            if (glob == -1) {
+                Path path = Path.of(input);
+                if (Files.isDirectory(path)) {
+                    try (Stream<Path> children = Files.list(path)) {
+                        children.filter(Files::isRegularFile)
+                                .filter(child -> child.getFileName().toString().endsWith(extension))
+                                .sorted()
+                                .forEach(files::add);
+                    }
+                } else {
+                    files.add(path);
+                }
+                continue;
+            }
+
+            // The files are searched from the deepest directory without glob characters
+            int separator = input.lastIndexOf('/', glob);
+            boolean relative = separator == -1;
+            Path base = relative ? Path.of(".") : Path.of(separator == 0 ? "/" : input.substring(0, separator));
+            PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + input);
+            try (Stream<Path> descendants = Files.walk(base)) {
+                descendants
+                        .filter(Files::isRegularFile)
+                        .map(path -> relative ? base.relativize(path) : path)
+                        .filter(matcher::matches)
+                        .sorted()
+                        .forEach(files::add);
+            }
+        }
+
+        return files;
+    }
+
+    private static int firstGlobCharacter(String input) {
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (c == '*' || c == '?' || c == '[' || c == '{') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String baseName(Path file) {
+        String name = file.getFileName().toString();
+        int extension = name.lastIndexOf('.');
+        return extension > 0 ? name.substring(0, extension) : name;
+    }
+
+    /**
+     * The result of a conversion.
+     *
+     * @param value The converted record, or the file it was written to
+     * @param latencyNanos The conversion time, in nanoseconds
+     * @param <V> The type of the result
+     */
+    private record Converted<V>(V value, long latencyNanos) {}
+
+    /**
+     * The command-line options.
+     *
+     * @param toAvro Whether XML files are converted to Avro, rather than Avro files to XML
+     * @param recordClass The name of the generated class of the root record
+     * @param output The Avro file or the XML directory to write
+     * @param jar The jar of the generated classes, null if they are on the classpath
+     * @param xpathSelector The xpath property of the schema
+     * @param namespacesSelector The XML namespaces property of the schema
+     * @param threads The number of conversion threads
+     * @param inFlight The maximum number of conversions in flight
+     * @param inputs The files, directories or glob patterns to convert
+     */
+    record Options(
+            boolean toAvro,
+            String recordClass,
+            Path output,
+            Path jar,
+            String xpathSelector,
+            String namespacesSelector,
+            int threads,
+            int inFlight,
+            List<String> inputs) {
+
+        /**
+         * Parse the command-line arguments.
+         *
+         * @param args The arguments
+         * @return The options
+         * @throws IllegalArgumentException If the arguments are invalid
+         */
+        static Options parse(String[] args) {
+            if (args.length == 0 || !(args[0].equals("xml-to-avro") || args[0].equals("avro-to-xml"))) {
+                throw new IllegalArgumentException("Missing or unknown command");
+            }
+
+            String recordClass = null;
+            Path output = null;
+            Path jar = null;
+            String xpathSelector = XPATH_DEFAULT;
+            String namespacesSelector = XML_NAMESPACE_SELECTOR_DEFAULT;
+            int threads = Runtime.getRuntime().availableProcessors();
+            Integer inFlight = null;
+            List<String> inputs = new ArrayList<>();
+
+            for (int i = 1; i < args.length; i++) {
+                String arg = args[i];
+                if (!arg.startsWith("--")) {
+                    inputs.add(arg);
+                    continue;
+                }
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException("Missing value of " + arg);
+                }
+
+                String value = args[++i];
+                switch (arg) {
+                    case "--class" -> recordClass = value;
+                    case "--output" -> output = Path.of(value);
+                    case "--jar" -> jar = Path.of(value);
+                    case "--xpath-selector" -> xpathSelector = value;
+                    case "--namespaces-selector" -> namespacesSelector = value;
+                    case "--threads" -> threads = positive(arg, value);
+                    case "--in-flight" -> inFlight = positive(arg, value);
+                    default -> throw new IllegalArgumentException("Unknown option " + arg);
+                }
+            }
+
+            if (recordClass == null || output == null || inputs.isEmpty()) {
+                throw new IllegalArgumentException("The record class, the output and an input are required");
+            }
+
+            return new Options(
+                    args[0].equals("xml-to-avro"),
+                    recordClass,
+                    output,
+                    jar,
+                    xpathSelector,
+                    namespacesSelector,
+                    threads,
+                    inFlight != null ? inFlight : threads * 4,
+                    List.copyOf(inputs));
+        }
+
+        private static int positive(String option, String value) {
+            try {
+                int number = Integer.parseInt(value);
+                if (number > 0) {
+                    return number;
+                }
+            } catch (NumberFormatException e) {
+                // Reported below
+            }
+            throw new IllegalArgumentException("The value of " + option + " must be a positive number: " + value);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.michelin.avroxmlmapper.cli;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * A bounded window of tasks submitted to an executor, whose results are handled in submission order by the submitting
+ * thread. Submitting a task to a full window first waits for the oldest one, so that the tasks do not pile up in the
+ * memory when the input is read faster than it is converted.
+ *
+ * @param <R> The type of the results
+ */
+final class InFlightWindow<R> {
+    private final ExecutorService executor;
+    private final int capacity;
+    private final ResultHandler<R> handler;
+    private final Deque<Future<R>> futures = new ArrayDeque<>();
+
+    /**
+     * Constructor.
+     *
+     * @param executor The executor running the tasks
+     * @param capacity The maximum number of tasks submitted and not handled yet
+     * @param handler The handler of the results
+     */
+    InFlightWindow(ExecutorService executor, int capacity, ResultHandler<R> handler) {
+        this.executor = executor;
+        this.capacity = capacity;
+        this.handler = handler;
+    }
+
+    /**
+     * Submit a task, after handling the result of the oldest one if the window is full.
+     *
+     * @param task The task
+     * @throws IOException If the handler fails
+     * @throws ExecutionException If the oldest task failed
+     * @throws InterruptedException If the thread is interrupted while waiting for the oldest task
+     */
+    void submit(Callable<R> task) throws IOException, ExecutionException, InterruptedException {
+        if (futures.size() == capacity) {
+            handler.handle(futures.removeFirst().get());
+        }
+        futures.addLast(executor.submit(task));
+    }
+
+    /**
+     * Wait for all the tasks submitted, and handle their results.
+     *
+     * @throws IOException If the handler fails
+     * @throws ExecutionException If a task failed
+     * @throws InterruptedException If the thread is interrupted while waiting for a task
+     */
+    void drain() throws IOException, ExecutionException, InterruptedException {
+        while (!futures.isEmpty()) {
+            handler.handle(futures.removeFirst().get());
+        }
+    }
+
+    /**
+     * Handler of the results of the tasks.
+     *
+     * @param <R> The type of the results
+     */
+    @FunctionalInterface
+    interface ResultHandler<R> {
+        /**
+         * Handle the result of a task.
+         *
+         * @param result The result
+         * @throws IOException If the result cannot be written
+         */
+        void handle(R result) throws IOException;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.michelin.avroxmlmapper.cli;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Throughput and latency of a bulk conversion. The latencies are the conversion times of each record, without the
+ * reading and writing of the files, while the throughput covers the whole run.
+ *
+ * <p>An instance is not thread-safe: the results are recorded by the thread collecting them.
+ */
+final class ThroughputStatistics {
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final double NANOS_PER_MILLI = 1e6;
+    private static final double BYTES_PER_MEGABYTE = 1024 * 1024;
+
+    private final long start = System.nanoTime();
+    private long[] latencies = new long[1024];
+    private int records;
+    private long bytes;
+
+    /**
+     * Record the conversion of a record.
+     *
+     * @param latencyNanos The conversion time of the record, in nanoseconds
+     */
+    void record(long latencyNanos) {
+        if (records == latencies.length) {
+            latencies = Arrays.copyOf(latencies, records * 2);
+        }
+        latencies[records++] = latencyNanos;
+    }
+
+    /**
+     * Add the size of an input file.
+     *
+     * @param size The size of the file, in bytes
+     */
+    void addBytes(long size) {
+        bytes += size;
+    }
+
+    /**
+     * Print the throughput since the creation of the statistics, and the latency percentiles.
+     *
+     * @param out The stream to print to
+     */
+    void report(PrintStream out) {
+        double seconds = (System.nanoTime() - start) / NANOS_PER_SECOND;
+        long[] sorted = Arrays.copyOf(latencies, records);
+        Arrays.sort(sorted);
+
+        out.printf(
+                Locale.ROOT,
+                "Converted %d records (%.1f MB) in %.3f s%n",
+                records,
+                bytes / BYTES_PER_MEGABYTE,
+                seconds);
+        out.printf(
+                Locale.ROOT,
+                "Throughput: %.1f records/s, %.2f MB/s%n",
+                records / seconds,
+                bytes / BYTES_PER_MEGABYTE / seconds);
+        out.printf(
+                Locale.ROOT,
+                "Latency: p50 %.3f ms, p99 %.3f ms%n",
+                percentile(sorted, 0.50) / NANOS_PER_MILLI,
+                percentile(sorted, 0.99) / NANOS_PER_MILLI);
+    }
+
+    /**
+     * Get a percentile of sorted values, with the nearest-rank method.
+     *
+     * @param sorted The values, sorted
+     * @param percentile The percentile, between 0 and 1
+     * @return The value, 0 if there is none
+     */
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+}
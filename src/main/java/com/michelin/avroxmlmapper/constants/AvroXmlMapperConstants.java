@@ -60,6 +60,21 @@ public final class AvroXmlMapperConstants {
     /** Key to retrieve the scaleOut properties on decimal Avro attributes. */
     public static final String SCALEOUT_PROPERTIES_KEY = "scaleOut";
 
+    /**
+     * Property name enabling the deduplication of the values of a string field, or of an array of strings, when set to
+     * true.
+     */
+    public static final String INTERN_PROPERTY_NAME = "intern";
+
+    /**
+     * Property name of the number of elements from which an array of records is converted in parallel, from XML as well
+     * as to XML, with the common fork-join pool. Arrays without this property are always converted sequentially.
+     */
+    public static final String PARALLEL_THRESHOLD_PROPERTY_NAME = "parallelThreshold";
+
+    /** Property name allowing the value of an enum field to match its symbols ignoring case, when set to true. */
+    public static final String CASE_INSENSITIVE_PROPERTY_NAME = "caseInsensitive";
+
     /** Constant for the XML prefix "noprefixns". */
     public static final String NO_PREFIX_NS = "noprefixns";
 
@@ -0,0 +1,294 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.michelin.avroxmlmapper.flow;
+
+import static com.michelin.avroxmlmapper.constants.AvroXmlMapperConstants.XML_NAMESPACE_SELECTOR_DEFAULT;
+import static com.michelin.avroxmlmapper.constants.AvroXmlMapperConstants.XPATH_DEFAULT;
+
+import com.michelin.avroxmlmapper.exception.AvroXmlMapperException;
+import com.michelin.avroxmlmapper.mapper.AvroXmlMapper;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.avro.specific.SpecificRecordBase;
+
+/**
+ * A {@link Flow.Processor} converting XML payloads into SpecificRecordBase objects.
+ *
+ * <p>The payloads are converted on an executor, with at most {@code parallelism} conversions running at the same time,
+ * and the records are published downstream in the order of the payloads.
+ *
+ * <p>At most {@code bufferSize} payloads are requested from upstream and not yet published downstream, whether they are
+ * waiting for a conversion, being converted or waiting for downstream demand. When the subscriber is slower than the
+ * publisher the processor stops requesting payloads, so that the memory used stays flat.
+ *
+ * <p>A conversion failure cancels the upstream subscription and is signalled downstream with {@code onError}, while an
+ * upstream failure is signalled once the payloads received before it have been published. Only one subscriber is
+ * supported.
+ *
+ * @param <T> The type of the Avro objects
+ */
+public final class XmlToAvroProcessor<T extends SpecificRecordBase> implements Flow.Processor<byte[], T> {
+    private final Class<T> clazz;
+    private final String xpathSelector;
+    private final String xmlNamespacesSelector;
+    private final Executor executor;
+    private final int parallelism;
+    private final int bufferSize;
+
+    private final Queue<byte[]> payloads = new ConcurrentLinkedQueue<>();
+    private final Queue<CompletableFuture<T>> conversions = new ArrayDeque<>();
+    private final AtomicInteger drainRequests = new AtomicInteger();
+    private final AtomicLong demand = new AtomicLong();
+    private final AtomicReference<Flow.Subscriber<? super T>> subscriber = new AtomicReference<>();
+
+    private volatile Flow.Subscription upstream;
+    private volatile boolean upstreamDone;
+    private volatile Throwable error;
+    private volatile Throwable requestError;
+    private volatile boolean cancelled;
+    private boolean terminated;
+
+    /**
+     * Constructor using the default "xpath" and "xmlNamespaces" properties, the default executor of
+     * {@link AvroXmlMapper#defaultExecutor()}, a parallelism equal to the number of processors and a buffer of
+     * {@link Flow#defaultBufferSize()} payloads.
+     *
+     * @param clazz The Avro object to convert to
+     */
+    public XmlToAvroProcessor(Class<T> clazz) {
+        this(
+                clazz,
+                XPATH_DEFAULT,
+                XML_NAMESPACE_SELECTOR_DEFAULT,
+                AvroXmlMapper.defaultExecutor(),
+                Runtime.getRuntime().availableProcessors(),
+                Math.max(Flow.defaultBufferSize(), Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param clazz The Avro object to convert to
+     * @param xpathSelector The xpathSelector property used to search for the xpathMapping in the Avro definition
+     * @param xmlNamespacesSelector Name of the variable defining the xmlNamespaces of the avsc file that needs to be
+     *     used for unifying namespace definitions
+     * @param executor The executor running the conversions
+     * @param parallelism The maximum number of conversions running at the same time
+     * @param bufferSize The maximum number of payloads requested from upstream and not yet published downstream. It
+     *     cannot be lower than the parallelism
+     */
+    public XmlToAvroProcessor(
+            Class<T> clazz,
+            String xpathSelector,
+            String xmlNamespacesSelector,
+            Executor executor,
+            int parallelism,
+            int bufferSize) {
+        if (parallelism <= 0 || bufferSize < parallelism) {
+            throw new IllegalArgumentException("Expected 0 < parallelism <= bufferSize, got parallelism " + parallelism
+                    + " and bufferSize " + bufferSize);
+        }
+
+        this.clazz = clazz;
+        this.xpathSelector = xpathSelector;
+        this.xmlNamespacesSelector = xmlNamespacesSelector;
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> newSubscriber) {
+        if (!subscriber.compareAndSet(null, newSubscriber)) {
+            newSubscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {}
+
+                @Override
+                public void cancel() {}
+            });
+            newSubscriber.onError(new IllegalStateException("Only one subscriber is supported"));
+            return;
+        }
+
+        newSubscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                if (n <= 0) {
+                    requestError = new IllegalArgumentException("Non-positive request " + n);
+                    cancelUpstream();
+                } else {
+                    demand.getAndAccumulate(
+                            n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+                }
+                drain();
+            }
+
+            @Override
+            public void cancel() {
+                cancelled = true;
+                cancelUpstream();
+                drain();
+            }
+        });
+        drain();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (upstream != null) {
+            subscription.cancel();
+            return;
+        }
+
+        upstream = subscription;
+        if (cancelled) {
+            subscription.cancel();
+        } else {
+            subscription.request(bufferSize);
+        }
+    }
+
+    @Override
+    public void onNext(byte[] payload) {
+        payloads.add(payload);
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        error = throwable;
+        upstreamDone = true;
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        upstreamDone = true;
+        drain();
+    }
+
+    private void cancelUpstream() {
+        Flow.Subscription subscription = upstream;
+        if (subscription != null) {
+            subscription.cancel();
+        }
+    }
+
+    /**
+     * Publish the converted records and start the next conversions. The work is serialized: a thread calling this
+     * method while another one is draining only tells it to loop once more.
+     */
+    private void drain() {
+        if (drainRequests.getAndIncrement() != 0) {
+            return;
+        }
+
+        int missed = 1;
+        do {
+            if (!terminated) {
+                drainOnce();
+            }
+            missed = drainRequests.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void drainOnce() {
+        Flow.Subscriber<? super T> downstream = subscriber.get();
+
+        if (cancelled) {
+            terminated = true;
+            payloads.clear();
+            conversions.clear();
+            return;
+        }
+
+        if (requestError != null) {
+            terminate(downstream, requestError);
+            return;
+        }
+
+        if (downstream != null) {
+            // Publish the completed conversions, in order
+            while (!conversions.isEmpty() && conversions.peek().isDone()) {
+                T record;
+                try {
+                    record = conversions.peek().join();
+                } catch (CompletionException e) {
+                    cancelUpstream();
+                    terminate(downstream, e.getCause());
+                    return;
+                }
+
+                if (demand.get() == 0) {
+                    break;
+                }
+
+                conversions.poll();
+                demand.decrementAndGet();
+                downstream.onNext(record);
+
+                Flow.Subscription subscription = upstream;
+                if (subscription != null && !upstreamDone) {
+                    subscription.request(1);
+                }
+            }
+        }
+
+        // Start the next conversions
+        while (conversions.size() < parallelism && !payloads.isEmpty()) {
+            byte[] payload = payloads.poll();
+            CompletableFuture<T> conversion = CompletableFuture.supplyAsync(() -> convert(payload), executor);
+            conversions.add(conversion);
+            conversion.whenComplete((record, throwable) -> drain());
+        }
+
+        if (downstream != null && upstreamDone && payloads.isEmpty() && conversions.isEmpty()) {
+            terminate(downstream, error);
+        }
+    }
+
+    private void terminate(Flow.Subscriber<? super T> downstream, Throwable throwable) {
+        terminated = true;
+        payloads.clear();
+        conversions.clear();
+
+        if (throwable != null) {
+            downstream.onError(throwable);
+        } else {
+            downstream.onComplete();
+        }
+    }
+
+    private T convert(byte[] payload) {
+        try {
+            return AvroXmlMapper.convertXmlBytesToAvro(payload, clazz, xpathSelector, xmlNamespacesSelector);
+        } catch (ReflectiveOperationException e) {
+            throw new AvroXmlMapperException("Failed to get the schema of " + clazz.getName(), e);
+        }
+    }
+}
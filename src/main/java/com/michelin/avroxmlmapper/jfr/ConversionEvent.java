@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.michelin.avroxmlmapper.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event emitted for each conversion going through
+ * {@link com.michelin.avroxmlmapper.mapper.AvroXmlMapper}. The event duration is the time spent converting the
+ * document. For a lazy conversion, it is the time spent parsing the document and building the view, the fields being
+ * converted later when they are read.
+ */
+@Name(ConversionEvent.NAME)
+@Label("Avro XML Conversion")
+@Category("Avro XML Mapper")
+@Description("A conversion between an XML document and an Avro record")
+@StackTrace(false)
+public class ConversionEvent extends jdk.jfr.Event {
+    /** Name of the event, as seen in the recordings. */
+    public static final String NAME = "com.michelin.avroxmlmapper.Conversion";
+
+    /** Direction of an XML to Avro conversion. */
+    public static final String XML_TO_AVRO = "XML_TO_AVRO";
+
+    /** Direction of an Avro to XML conversion. */
+    public static final String AVRO_TO_XML = "AVRO_TO_XML";
+
+    @Label("Record Type")
+    @Description("Full name of the Avro record")
+    String recordType;
+
+    @Label("Direction")
+    @Description("XML_TO_AVRO or AVRO_TO_XML")
+    String direction;
+
+    @Label("Input Size")
+    @Description("Size of the XML input in bytes, UTF-8 encoded for strings, 0 when converting from Avro")
+    @DataAmount(DataAmount.BYTES)
+    long inputSize;
+
+    @Label("Field Count")
+    @Description("Number of fields of the Avro record")
+    int fieldCount;
+
+    /**
+     * Fill the event attributes.
+     *
+     * @param recordType The full name of the Avro record
+     * @param direction The direction of the conversion
+     * @param inputSize The size of the XML input, in bytes
+     * @param fieldCount The number of fields of the Avro record
+     */
+    public void set(String recordType, String direction, long inputSize, int fieldCount) {
+        this.recordType = recordType;
+        this.direction = direction;
+        this.inputSize = inputSize;
+        this.fieldCount = fieldCount;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.michelin.avroxmlmapper.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Java Flight Recorder event emitted when the conversion of a single field from XML to Avro exceeds the threshold.
+ *
+ * <p>The duration covers the conversion of the nodes matched by the xpath of the field, and the evaluation of the xpath
+ * when it is evaluated on its own. The xpaths matched together in a single traversal of the record element are
+ * evaluated before its fields are converted: that traversal is only counted in the {@link ConversionEvent} of the
+ * document.
+ *
+ * <p>The default threshold is 10 ms. It can be changed through the recording settings, e.g. {@code jfr configure
+ * com.michelin.avroxmlmapper.SlowField#threshold=1ms}.
+ */
+@Name(SlowFieldEvent.NAME)
+@Label("Avro XML Slow Field")
+@Category("Avro XML Mapper")
+@Description("The conversion of a field, from the nodes matched by its xpath, took longer than the threshold")
+@Threshold("10 ms")
+@StackTrace(false)
+public class SlowFieldEvent extends jdk.jfr.Event {
+    /** Name of the event, as seen in the recordings. */
+    public static final String NAME = "com.michelin.avroxmlmapper.SlowField";
+
+    @Label("Record Type")
+    @Description("Full name of the Avro record owning the field")
+    String recordType;
+
+    @Label("Field Name")
+    String fieldName;
+
+    @Label("XPath")
+    @Description("Raw xpath of the field for the xpath selector in use")
+    String xpath;
+
+    /**
+     * Fill the event attributes.
+     *
+     * @param recordType The full name of the Avro record owning the field
+     * @param fieldName The name of the field
+     * @param xpath The xpath of the field
+     */
+    public void set(String recordType, String fieldName, String xpath) {
+        this.recordType = recordType;
+        this.fieldName = fieldName;
+        this.xpath = xpath;
+    }
+}
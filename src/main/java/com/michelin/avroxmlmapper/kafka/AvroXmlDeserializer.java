@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.michelin.avroxmlmapper.kafka;
+
+import static com.michelin.avroxmlmapper.constants.AvroXmlMapperConstants.XML_NAMESPACE_SELECTOR_DEFAULT;
+import static com.michelin.avroxmlmapper.constants.AvroXmlMapperConstants.XPATH_DEFAULT;
+
+import com.michelin.avroxmlmapper.exception.AvroXmlMapperException;
+import com.michelin.avroxmlmapper.mapper.AvroXmlMapper;
+import java.util.Map;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+/**
+ * Kafka deserializer converting XML payloads into SpecificRecordBase objects. The payload is parsed from the bytes,
+ * without being decoded to a String first.
+ *
+ * <p>The record class and the selectors are either given to the constructor, or read from the
+ * {@link AvroXmlSerdeConfig} properties when the deserializer is created by Kafka.
+ *
+ * @param <T> The type of the Avro object
+ */
+public class AvroXmlDeserializer<T extends SpecificRecordBase> implements Deserializer<T> {
+    private Class<T> clazz;
+    private String xpathSelector;
+    private String xmlNamespacesSelector;
+
+    /** Constructor used by Kafka, the deserializer being configured with {@link #configure(Map, boolean)}. */
+    public AvroXmlDeserializer() {}
+
+    /**
+     * Constructor using the default "xpath" and "xmlNamespaces" properties.
+     *
+     * @param clazz The Avro object to convert to
+     */
+    public AvroXmlDeserializer(Class<T> clazz) {
+        this(clazz, XPATH_DEFAULT, XML_NAMESPACE_SELECTOR_DEFAULT);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param clazz The Avro object to convert to
+     * @param xpathSelector The xpathSelector property used to search for the xpathMapping in the Avro definition
+     * @param xmlNamespacesSelector Name of the variable defining the xmlNamespaces of the avsc file that needs to be
+     *     used for unifying namespace definitions
+     */
+    public AvroXmlDeserializer(Class<T> clazz, String xpathSelector, String xmlNamespacesSelector) {
+        this.clazz = clazz;
+        this.xpathSelector = xpathSelector;
+        this.xmlNamespacesSelector = xmlNamespacesSelector;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        if (clazz == null) {
+            clazz = AvroXmlSerdeConfig.recordClass(configs, isKey);
+            xpathSelector = AvroXmlSerdeConfig.xpathSelector(configs);
+            xmlNamespacesSelector = AvroXmlSerdeConfig.xmlNamespacesSelector(configs);
+        }
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+
+        try {
+            return AvroXmlMapper.convertXmlBytesToAvro(data, clazz, xpathSelector, xmlNamespacesSelector);
+        } catch (AvroXmlMapperException | ReflectiveOperationException e) {
+            throw new SerializationException("Failed to convert XML to " + clazz.getName() + " for topic " + topic, e);
+        }
+    }
+}
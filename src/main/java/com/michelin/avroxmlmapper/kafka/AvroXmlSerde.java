@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.michelin.avroxmlmapper.kafka;
+
+import java.util.Map;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Kafka serde converting between UTF-8 encoded XML payloads and SpecificRecordBase objects, made of an
+ * {@link AvroXmlSerializer} and an {@link AvroXmlDeserializer}.
+ *
+ * @param <T> The type of the Avro object
+ */
+public class AvroXmlSerde<T extends SpecificRecordBase> implements Serde<T> {
+    private final AvroXmlSerializer<T> serializer;
+    private final AvroXmlDeserializer<T> deserializer;
+
+    /** Constructor used by Kafka, the serde being configured with {@link #configure(Map, boolean)}. */
+    public AvroXmlSerde() {
+        this.serializer = new AvroXmlSerializer<>();
+        this.deserializer = new AvroXmlDeserializer<>();
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param clazz The Avro object to convert to
+     * @param xpathSelector The xpathSelector property used to search for the xpathMapping in the Avro definition
+     * @param xmlNamespacesSelector Name of the variable defining the xmlNamespaces of the avsc file that needs to be
+     *     used
+     */
+    public AvroXmlSerde(Class<T> clazz, String xpathSelector, String xmlNamespacesSelector) {
+        this.serializer = new AvroXmlSerializer<>(xpathSelector, xmlNamespacesSelector);
+        this.deserializer = new AvroXmlDeserializer<>(clazz, xpathSelector, xmlNamespacesSelector);
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        serializer.configure(configs, isKey);
+        deserializer.configure(configs, isKey);
+    }
+
+    @Override
+    public Serializer<T> serializer() {
+        return serializer;
+    }
+
+    @Override
+    public Deserializer<T> deserializer() {
+        return deserializer;
+    }
+}
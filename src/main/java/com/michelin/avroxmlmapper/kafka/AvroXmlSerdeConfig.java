@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.michelin.avroxmlmapper.kafka;
+
+import static com.michelin.avroxmlmapper.constants.AvroXmlMapperConstants.XML_NAMESPACE_SELECTOR_DEFAULT;
+import static com.michelin.avroxmlmapper.constants.AvroXmlMapperConstants.XPATH_DEFAULT;
+
+import java.util.Map;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.apache.kafka.common.config.ConfigException;
+
+/** Configuration properties of {@link AvroXmlSerializer}, {@link AvroXmlDeserializer} and {@link AvroXmlSerde}. */
+public final class AvroXmlSerdeConfig {
+
+    /** SpecificRecordBase class of the record values, as a Class or a fully qualified class name. */
+    public static final String VALUE_RECORD_CLASS_CONFIG = "avro.xml.mapper.value.record.class";
+
+    /** SpecificRecordBase class of the record keys, as a Class or a fully qualified class name. */
+    public static final String KEY_RECORD_CLASS_CONFIG = "avro.xml.mapper.key.record.class";
+
+    /** Name of the xpath property of the avsc to use. Defaults to "xpath". */
+    public static final String XPATH_SELECTOR_CONFIG = "avro.xml.mapper.xpath.selector";
+
+    /** Name of the xml namespaces property of the avsc to use. Defaults to "xmlNamespaces". */
+    public static final String XML_NAMESPACES_SELECTOR_CONFIG = "avro.xml.mapper.xml.namespaces.selector";
+
+    private AvroXmlSerdeConfig() {}
+
+    /**
+     * Get the record class from the configuration.
+     *
+     * @param configs The configuration
+     * @param isKey Whether the class of the keys or of the values is wanted
+     * @param <T> The type of the Avro object
+     * @return The record class
+     */
+    @SuppressWarnings("unchecked")
+    static <T extends SpecificRecordBase> Class<T> recordClass(Map<String, ?> configs, boolean isKey) {
+        String name = isKey ? KEY_RECORD_CLASS_CONFIG : VALUE_RECORD_CLASS_CONFIG;
+        Object value = configs.get(name);
+
+        if (value instanceof Class<?> clazz && SpecificRecordBase.class.isAssignableFrom(clazz)) {
+            return (Class<T>) clazz;
+        }
+
+        if (value instanceof String className) {
+            try {
+                Class<?> clazz =
+                        Class.forName(className, true, Thread.currentThread().getContextClassLoader());
+                if (SpecificRecordBase.class.isAssignableFrom(clazz)) {
+                    return (Class<T>) clazz;
+                }
+            } catch (ClassNotFoundException e) {
+                throw new ConfigException(name, value, "Class not found");
+            }
+        }
+
+        throw new ConfigException(name, value, "Expected a SpecificRecordBase class");
+    }
+
+    /**
+     * Get the xpath selector from the configuration.
+     *
+     * @param configs The configuration
+     * @return The xpath selector
+     */
+    static String xpathSelector(Map<String, ?> configs) {
+        return stringConfig(configs, XPATH_SELECTOR_CONFIG, XPATH_DEFAULT);
+    }
+
+    /**
+     * Get the xml namespaces selector from the configuration.
+     *
+     * @param configs The configuration
+     * @return The xml namespaces selector
+     */
+    static String xmlNamespacesSelector(Map<String, ?> configs) {
+        return stringConfig(configs, XML_NAMESPACES_SELECTOR_CONFIG, XML_NAMESPACE_SELECTOR_DEFAULT);
+    }
+
+    private static String stringConfig(Map<String, ?> configs, String name, String defaultValue) {
+        Object value = configs.get(name);
+        return value != null ? value.toString() : defaultValue;
+    }
+}
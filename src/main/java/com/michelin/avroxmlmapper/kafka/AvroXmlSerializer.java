@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.michelin.avroxmlmapper.kafka;
+
+import static com.michelin.avroxmlmapper.constants.AvroXmlMapperConstants.XML_NAMESPACE_SELECTOR_DEFAULT;
+import static com.michelin.avroxmlmapper.constants.AvroXmlMapperConstants.XPATH_DEFAULT;
+
+import com.michelin.avroxmlmapper.exception.AvroXmlMapperException;
+import com.michelin.avroxmlmapper.mapper.AvroXmlMapper;
+import com.michelin.avroxmlmapper.utility.GenericUtils;
+import com.michelin.avroxmlmapper.utility.ObjectPool;
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+import javax.xml.transform.TransformerException;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Kafka serializer converting SpecificRecordBase objects into UTF-8 encoded XML payloads. The XML document is written
+ * straight to a pooled byte buffer, without building an intermediate String.
+ *
+ * <p>The selectors are either given to the constructor, or read from the {@link AvroXmlSerdeConfig} properties when the
+ * serializer is created by Kafka.
+ *
+ * @param <T> The type of the Avro object
+ */
+public class AvroXmlSerializer<T extends SpecificRecordBase> implements Serializer<T> {
+    private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+
+    /** Buffers grown above this size by a large record are dropped instead of being kept in the pool. */
+    private static final int MAX_POOLED_BUFFER_SIZE = 1024 * 1024;
+
+    private static final ObjectPool<ByteArrayOutputStream> BUFFERS = new ObjectPool<>(
+            Runtime.getRuntime().availableProcessors() * 2,
+            () -> new ByteArrayOutputStream(INITIAL_BUFFER_SIZE),
+            ByteArrayOutputStream::reset);
+
+    private String xpathSelector;
+    private String xmlNamespacesSelector;
+
+    /** Constructor using the default "xpath" and "xmlNamespaces" properties, unless configured otherwise by Kafka. */
+    public AvroXmlSerializer() {}
+
+    /**
+     * Constructor.
+     *
+     * @param xpathSelector Name of the variable defining the xpath of the avsc file that needs to be used
+     * @param xmlNamespacesSelector Name of the variable defining the xmlNamespaces of the avsc file that needs to be
+     *     used
+     */
+    public AvroXmlSerializer(String xpathSelector, String xmlNamespacesSelector) {
+        this.xpathSelector = xpathSelector;
+        this.xmlNamespacesSelector = xmlNamespacesSelector;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        if (xpathSelector == null) {
+            xpathSelector = AvroXmlSerdeConfig.xpathSelector(configs);
+            xmlNamespacesSelector = AvroXmlSerdeConfig.xmlNamespacesSelector(configs);
+        }
+    }
+
+    @Override
+    public byte[] serialize(String topic, T data) {
+        if (data == null) {
+            return null;
+        }
+
+        ByteArrayOutputStream buffer = BUFFERS.acquire();
+        try {
+            GenericUtils.writeDocument(
+                    AvroXmlMapper.convertAvroToXmlDocument(
+                            data,
+                            xpathSelector != null ? xpathSelector : XPATH_DEFAULT,
+                            xmlNamespacesSelector != null ? xmlNamespacesSelector : XML_NAMESPACE_SELECTOR_DEFAULT),
+                    buffer);
+            return buffer.toByteArray();
+        } catch (AvroXmlMapperException | TransformerException e) {
+            throw new SerializationException(
+                    "Failed to convert " + data.getSchema().getFullName() + " to XML for topic " + topic, e);
+        } finally {
+            if (buffer.size() <= MAX_POOLED_BUFFER_SIZE) {
+                BUFFERS.release(buffer);
+            }
+        }
+    }
+}
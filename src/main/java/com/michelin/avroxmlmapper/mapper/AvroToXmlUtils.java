@@ -30,9 +30,6 @@ import java.text.DecimalFormatSymbols;
 import java.text.SimpleDateFormat;
 import java.time.Instant;
 import java.util.*;
-import javax.xml.XMLConstants;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import org.apache.avro.JsonProperties;
 import org.apache.avro.Schema;
 import org.apache.avro.specific.SpecificRecordBase;
@@ -58,13 +55,7 @@ public final class AvroToXmlUtils {
         Document document;
 
         try {
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            factory.setNamespaceAware(true);
-            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
-            factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
-            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            document = builder.newDocument();
+            document = newDocument();
             Map<String, String> mapNamespaces;
 
             if (namespaceSelector != null) {
@@ -111,7 +102,7 @@ public final class AvroToXmlUtils {
      * @param xpathSelector Name of the variable defining the xpath of the avsc file that needs to be used
      * @return the list of all child nodes built
      */
-    private static List<Node> buildChildNodes(
+    static List<Node> buildChildNodes(
             SpecificRecordBase message, Document document, Map<String, String> namespaces, String xpathSelector) {
         List<Node> childNodes = new ArrayList<>();
 
@@ -124,7 +115,7 @@ public final class AvroToXmlUtils {
 
             String xpath;
             switch (fieldType.get().getType()) {
-                case NULL, UNION, ENUM:
+                case NULL, UNION:
                     break;
                 case RECORD:
                     xpath = field.getProp(xpathSelector);
@@ -154,14 +145,29 @@ public final class AvroToXmlUtils {
 
                             if (schema.isPresent()
                                     && schema.get().getType() == Schema.Type.RECORD) { // An array of records
-                                for (SpecificRecordBase item : (List<SpecificRecordBase>) list) {
-                                    Node node = createNode(xpath, childNodes, document, namespaces);
-                                    buildChildNodes(item, document, namespaces, xpathSelector)
-                                            .forEach(n -> {
-                                                if (n.getNodeType() == Node.ATTRIBUTE_NODE)
-                                                    ((Element) node).setAttributeNode((Attr) n);
-                                                else node.appendChild(n);
-                                            });
+                                int parallelThreshold = RecordPlan.parallelThreshold(field);
+                                if (parallelThreshold > 0 && list.size() >= parallelThreshold) {
+                                    // The items are built in other documents, then imported in order
+                                    for (List<Node> fragment :
+                                            RecordArrayBuilder.build(list, namespaces, xpathSelector)) {
+                                        Node node = createNode(xpath, childNodes, document, namespaces);
+                                        fragment.forEach(n -> {
+                                            Node importedNode = document.importNode(n, true);
+                                            if (importedNode.getNodeType() == Node.ATTRIBUTE_NODE)
+                                                ((Element) node).setAttributeNode((Attr) importedNode);
+                                            else node.appendChild(importedNode);
+                                        });
+                                    }
+                                } else {
+                                    for (SpecificRecordBase item : (List<SpecificRecordBase>) list) {
+                                        Node node = createNode(xpath, childNodes, document, namespaces);
+                                        buildChildNodes(item, document, namespaces, xpathSelector)
+                                                .forEach(n -> {
+                                                    if (n.getNodeType() == Node.ATTRIBUTE_NODE)
+                                                        ((Element) node).setAttributeNode((Attr) n);
+                                                    else node.appendChild(n);
+                                                });
+                                    }
                                 }
                             } else if (schema.isPresent()
                                     && schema.get().getType() == Schema.Type.STRING) { // An array of string
@@ -495,6 +501,9 @@ public final class AvroToXmlUtils {
                             }
                         }
                     }
+                    case ENUM ->
+                        result = EnumSymbols.of(extractRealType(schema).orElseThrow(), value.getClass())
+                                .text(value);
                     case BOOLEAN -> result = value.toString().toLowerCase();
                     case DOUBLE, FLOAT -> {
                         // it is not very elegant, but the most common case is an integer value, in this case the value
@@ -23,7 +23,23 @@ import static com.michelin.avroxmlmapper.constants.AvroXmlMapperConstants.XPATH_
 import static com.michelin.avroxmlmapper.mapper.AvroToXmlUtils.createDocumentFromAvro;
 import static com.michelin.avroxmlmapper.utility.GenericUtils.*;
 
+import com.michelin.avroxmlmapper.exception.AvroXmlMapperException;
+import com.michelin.avroxmlmapper.jfr.ConversionEvent;
+import com.michelin.avroxmlmapper.utility.MappedFileInputStream;
+import com.michelin.avroxmlmapper.utility.XPathEvaluationContext;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import javax.xml.namespace.NamespaceContext;
 import javax.xml.transform.TransformerException;
 import org.apache.avro.Schema;
 import org.apache.avro.specific.SpecificRecordBase;
@@ -32,6 +48,7 @@ import org.w3c.dom.Document;
 /** Utility Class for XML parsing (Xpath) */
 public final class AvroXmlMapper {
     private static final String GET_CLASS_SCHEMA_METHOD = "getClassSchema";
+    private static final Executor DEFAULT_EXECUTOR = createDefaultExecutor();
 
     private AvroXmlMapper() {}
 
@@ -51,16 +68,7 @@ public final class AvroXmlMapper {
      */
     public static <T extends SpecificRecordBase> T convertXmlStringToAvro(String stringDocument, Class<T> clazz)
             throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
-        Schema schema =
-                (Schema) (clazz.getDeclaredMethod(GET_CLASS_SCHEMA_METHOD).invoke(null));
-        var document = stringToDocument(stringDocument, xmlNamespaces(schema));
-        return XmlToAvroUtils.convert(
-                document.getDocumentElement(),
-                document.getDocumentElement(),
-                clazz,
-                getNamespaceContext(document),
-                schema.getNamespace(),
-                XPATH_DEFAULT);
+        return convertXmlStringToAvro(stringDocument, clazz, XPATH_DEFAULT, XML_NAMESPACE_SELECTOR_DEFAULT);
     }
 
     /**
@@ -79,16 +87,7 @@ public final class AvroXmlMapper {
     public static <T extends SpecificRecordBase> T convertXmlStringToAvro(
             String stringDocument, Class<T> clazz, String xpathSelector)
             throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
-        Schema schema =
-                (Schema) (clazz.getDeclaredMethod(GET_CLASS_SCHEMA_METHOD).invoke(null));
-        var document = stringToDocument(stringDocument, xmlNamespaces(schema));
-        return XmlToAvroUtils.convert(
-                document.getDocumentElement(),
-                document.getDocumentElement(),
-                clazz,
-                getNamespaceContext(document),
-                schema.getNamespace(),
-                xpathSelector);
+        return convertXmlStringToAvro(stringDocument, clazz, xpathSelector, XML_NAMESPACE_SELECTOR_DEFAULT);
     }
 
     /**
@@ -109,16 +108,470 @@ public final class AvroXmlMapper {
     public static <T extends SpecificRecordBase> T convertXmlStringToAvro(
             String stringDocument, Class<T> clazz, String xpathSelector, String xmlNamespacesSelector)
             throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
+        return convertXmlStringToAvro(stringDocument, clazz, xpathSelector, xmlNamespacesSelector, null);
+    }
+
+    /**
+     * Converts the projected fields of an XML string into a SpecificRecordBase object, using default "xpath" and
+     * "xmlNamespaces" properties. The fields left out of the projection are set to their default value, without
+     * evaluating their xpath nor building their sub-records.
+     *
+     * @param stringDocument The XML string to convert
+     * @param clazz The Avro object to convert to
+     * @param projection The fields to convert
+     * @param <T> The type of the Avro object
+     * @return the SpecificRecordBase object.
+     * @throws NoSuchMethodException If the method getClassSchema is not found
+     * @throws InvocationTargetException If the method getClassSchema cannot be invoked
+     * @throws IllegalAccessException If the method getClassSchema cannot be accessed
+     * @throws IllegalArgumentException If a path of the projection does not designate a field of the record
+     */
+    public static <T extends SpecificRecordBase> T convertXmlStringToAvro(
+            String stringDocument, Class<T> clazz, Projection projection)
+            throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
+        return convertXmlStringToAvro(stringDocument, clazz, XPATH_DEFAULT, XML_NAMESPACE_SELECTOR_DEFAULT, projection);
+    }
+
+    /**
+     * Converts the projected fields of an XML string into a SpecificRecordBase object, using the chosen xpathSelector
+     * and xmlNamespacesSelector properties. The fields left out of the projection are set to their default value,
+     * without evaluating their xpath nor building their sub-records.
+     *
+     * @param stringDocument The XML string to convert
+     * @param clazz The Avro object to convert to
+     * @param xpathSelector The xpathSelector property used to search for the xpathMapping in the Avro definition
+     * @param xmlNamespacesSelector Name of the variable defining the xmlNamespaces of the avsc file that needs to be
+     *     used for unifying namespace definitions
+     * @param projection The fields to convert, null to convert all of them
+     * @param <T> The type of the Avro object
+     * @return the SpecificRecordBase object.
+     * @throws NoSuchMethodException If the method getClassSchema is not found
+     * @throws InvocationTargetException If the method getClassSchema cannot be invoked
+     * @throws IllegalAccessException If the method getClassSchema cannot be accessed
+     * @throws IllegalArgumentException If a path of the projection does not designate a field of the record
+     */
+    public static <T extends SpecificRecordBase> T convertXmlStringToAvro(
+            String stringDocument,
+            Class<T> clazz,
+            String xpathSelector,
+            String xmlNamespacesSelector,
+            Projection projection)
+            throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
+        return convertXmlStringToAvro(stringDocument, clazz, xpathSelector, xmlNamespacesSelector, projection, null);
+    }
+
+    /**
+     * Converts an XML string into a SpecificRecordBase object, using default "xpath" and "xmlNamespaces" properties,
+     * and collects the values which could not be converted, such as malformed numbers. These values are replaced by the
+     * default value of their field, like without collector.
+     *
+     * @param stringDocument The XML string to convert
+     * @param clazz The Avro object to convert to
+     * @param diagnostics The collector of the values which could not be converted
+     * @param <T> The type of the Avro object
+     * @return the SpecificRecordBase object.
+     * @throws NoSuchMethodException If the method getClassSchema is not found
+     * @throws InvocationTargetException If the method getClassSchema cannot be invoked
+     * @throws IllegalAccessException If the method getClassSchema cannot be accessed
+     */
+    public static <T extends SpecificRecordBase> T convertXmlStringToAvro(
+            String stringDocument, Class<T> clazz, ConversionDiagnostics diagnostics)
+            throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
+        return convertXmlStringToAvro(
+                stringDocument, clazz, XPATH_DEFAULT, XML_NAMESPACE_SELECTOR_DEFAULT, null, diagnostics);
+    }
+
+    /**
+     * Converts the projected fields of an XML string into a SpecificRecordBase object, using the chosen xpathSelector
+     * and xmlNamespacesSelector properties, and collects the values which could not be converted.
+     *
+     * @param stringDocument The XML string to convert
+     * @param clazz The Avro object to convert to
+     * @param xpathSelector The xpathSelector property used to search for the xpathMapping in the Avro definition
+     * @param xmlNamespacesSelector Name of the variable defining the xmlNamespaces of the avsc file that needs to be
+     *     used for unifying namespace definitions
+     * @param projection The fields to convert, null to convert all of them
+     * @param diagnostics The collector of the values which could not be converted, null to not collect them
+     * @param <T> The type of the Avro object
+     * @return the SpecificRecordBase object.
+     * @throws NoSuchMethodException If the method getClassSchema is not found
+     * @throws InvocationTargetException If the method getClassSchema cannot be invoked
+     * @throws IllegalAccessException If the method getClassSchema cannot be accessed
+     * @throws IllegalArgumentException If a path of the projection does not designate a field of the record
+     */
+    public static <T extends SpecificRecordBase> T convertXmlStringToAvro(
+            String stringDocument,
+            Class<T> clazz,
+            String xpathSelector,
+            String xmlNamespacesSelector,
+            Projection projection,
+            ConversionDiagnostics diagnostics)
+            throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
         Schema schema =
                 (Schema) (clazz.getDeclaredMethod(GET_CLASS_SCHEMA_METHOD).invoke(null));
+        if (projection != null) {
+            projection.validate(schema);
+        }
+        ConversionEvent event = new ConversionEvent();
+        event.begin();
         var document = stringToDocument(stringDocument, xmlNamespaces(schema, xmlNamespacesSelector));
+        T result = convertDocumentToAvro(
+                document, clazz, null, schema, xpathSelector, xmlNamespacesSelector, projection, diagnostics);
+        commitEvent(event, schema, stringDocument);
+        return result;
+    }
+
+    /**
+     * Converts an XML string into an existing SpecificRecordBase object, using default "xpath" and "xmlNamespaces"
+     * properties. The fields of the record are overwritten, and the sub-records, ArrayLists and HashMaps it holds are
+     * reused for the same fields, which saves their allocation when records are converted and processed one at a time.
+     * The result is equal to the one of {@link #convertXmlStringToAvro(String, Class)}.
+     *
+     * @param stringDocument The XML string to convert
+     * @param reuse The record to overwrite, which must not be used elsewhere
+     * @param <T> The type of the Avro object
+     * @return The reused SpecificRecordBase object.
+     * @throws NoSuchMethodException If the method getClassSchema is not found
+     * @throws InvocationTargetException If the method getClassSchema cannot be invoked
+     * @throws IllegalAccessException If the method getClassSchema cannot be accessed
+     */
+    public static <T extends SpecificRecordBase> T convertXmlStringToAvro(String stringDocument, T reuse)
+            throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
+        return convertXmlStringToAvro(stringDocument, reuse, XPATH_DEFAULT, XML_NAMESPACE_SELECTOR_DEFAULT);
+    }
+
+    /**
+     * Converts an XML string into an existing SpecificRecordBase object, using the chosen xpathSelector and
+     * xmlNamespacesSelector properties. The fields of the record are overwritten, and the sub-records, ArrayLists and
+     * HashMaps it holds are reused for the same fields.
+     *
+     * @param stringDocument The XML string to convert
+     * @param reuse The record to overwrite, which must not be used elsewhere
+     * @param xpathSelector The xpathSelector property used to search for the xpathMapping in the Avro definition
+     * @param xmlNamespacesSelector Name of the variable defining the xmlNamespaces of the avsc file that needs to be
+     *     used for unifying namespace definitions
+     * @param <T> The type of the Avro object
+     * @return The reused SpecificRecordBase object.
+     * @throws NoSuchMethodException If the method getClassSchema is not found
+     * @throws InvocationTargetException If the method getClassSchema cannot be invoked
+     * @throws IllegalAccessException If the method getClassSchema cannot be accessed
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends SpecificRecordBase> T convertXmlStringToAvro(
+            String stringDocument, T reuse, String xpathSelector, String xmlNamespacesSelector)
+            throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
+        Class<T> clazz = (Class<T>) reuse.getClass();
+        Schema schema =
+                (Schema) (clazz.getDeclaredMethod(GET_CLASS_SCHEMA_METHOD).invoke(null));
+        ConversionEvent event = new ConversionEvent();
+        event.begin();
+        var document = stringToDocument(stringDocument, xmlNamespaces(schema, xmlNamespacesSelector));
+        T result =
+                convertDocumentToAvro(document, clazz, reuse, schema, xpathSelector, xmlNamespacesSelector, null, null);
+        commitEvent(event, schema, stringDocument);
+        return result;
+    }
+
+    /**
+     * Parses an XML string into a lazy view of a SpecificRecordBase object, using default "xpath" and "xmlNamespaces"
+     * properties. The fields are converted only when they are read, which saves the conversion of the fields that are
+     * never looked at.
+     *
+     * @param stringDocument The XML string to convert
+     * @param clazz The Avro object to convert to
+     * @param <T> The type of the Avro object
+     * @return The lazy view of the SpecificRecordBase object.
+     * @throws NoSuchMethodException If the method getClassSchema is not found
+     * @throws InvocationTargetException If the method getClassSchema cannot be invoked
+     * @throws IllegalAccessException If the method getClassSchema cannot be accessed
+     */
+    public static <T extends SpecificRecordBase> LazyRecord<T> convertXmlStringToLazyAvro(
+            String stringDocument, Class<T> clazz)
+            throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
+        return convertXmlStringToLazyAvro(stringDocument, clazz, XPATH_DEFAULT, XML_NAMESPACE_SELECTOR_DEFAULT);
+    }
+
+    /**
+     * Parses an XML string into a lazy view of a SpecificRecordBase object, using the chosen xpathSelector and
+     * xmlNamespacesSelector properties. The fields are converted only when they are read, which saves the conversion of
+     * the fields that are never looked at.
+     *
+     * @param stringDocument The XML string to convert
+     * @param clazz The Avro object to convert to
+     * @param xpathSelector The xpathSelector property used to search for the xpathMapping in the Avro definition
+     * @param xmlNamespacesSelector Name of the variable defining the xmlNamespaces of the avsc file that needs to be
+     *     used for unifying namespace definitions
+     * @param <T> The type of the Avro object
+     * @return The lazy view of the SpecificRecordBase object.
+     * @throws NoSuchMethodException If the method getClassSchema is not found
+     * @throws InvocationTargetException If the method getClassSchema cannot be invoked
+     * @throws IllegalAccessException If the method getClassSchema cannot be accessed
+     */
+    public static <T extends SpecificRecordBase> LazyRecord<T> convertXmlStringToLazyAvro(
+            String stringDocument, Class<T> clazz, String xpathSelector, String xmlNamespacesSelector)
+            throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
+        Schema schema =
+                (Schema) (clazz.getDeclaredMethod(GET_CLASS_SCHEMA_METHOD).invoke(null));
+        ConversionEvent event = new ConversionEvent();
+        event.begin();
+        var document = stringToDocument(stringDocument, xmlNamespaces(schema, xmlNamespacesSelector));
+        LazyRecord<T> result = new LazyRecord<>(
+                clazz,
+                document.getDocumentElement(),
+                document.getDocumentElement(),
+                getNamespaceContext(schema, xmlNamespacesSelector),
+                schema.getNamespace(),
+                xpathSelector);
+        commitEvent(event, schema, stringDocument);
+        return result;
+    }
+
+    /**
+     * Converts an XML payload into a SpecificRecordBase object, using default "xpath" and "xmlNamespaces" properties.
+     * The payload is parsed as bytes, its encoding being detected from the XML declaration, without being decoded to a
+     * String first.
+     *
+     * @param bytesDocument The XML payload to convert
+     * @param clazz The Avro object to convert to
+     * @param <T> The type of the Avro object
+     * @return The SpecificRecordBase object.
+     * @throws NoSuchMethodException If the method getClassSchema is not found
+     * @throws InvocationTargetException If the method getClassSchema cannot be invoked
+     * @throws IllegalAccessException If the method getClassSchema cannot be accessed
+     */
+    public static <T extends SpecificRecordBase> T convertXmlBytesToAvro(byte[] bytesDocument, Class<T> clazz)
+            throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
+        return convertXmlBytesToAvro(bytesDocument, clazz, XPATH_DEFAULT, XML_NAMESPACE_SELECTOR_DEFAULT);
+    }
+
+    /**
+     * Converts an XML payload into a SpecificRecordBase object, using the chosen xpathSelector and
+     * xmlNamespacesSelector properties. The payload is parsed as bytes, its encoding being detected from the XML
+     * declaration, without being decoded to a String first.
+     *
+     * @param bytesDocument The XML payload to convert
+     * @param clazz The Avro object to convert to
+     * @param xpathSelector The xpathSelector property used to search for the xpathMapping in the Avro definition
+     * @param xmlNamespacesSelector Name of the variable defining the xmlNamespaces of the avsc file that needs to be
+     *     used for unifying namespace definitions
+     * @param <T> The type of the Avro object
+     * @return the SpecificRecordBase object.
+     * @throws NoSuchMethodException If the method getClassSchema is not found
+     * @throws InvocationTargetException If the method getClassSchema cannot be invoked
+     * @throws IllegalAccessException If the method getClassSchema cannot be accessed
+     */
+    public static <T extends SpecificRecordBase> T convertXmlBytesToAvro(
+            byte[] bytesDocument, Class<T> clazz, String xpathSelector, String xmlNamespacesSelector)
+            throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
+        Schema schema =
+                (Schema) (clazz.getDeclaredMethod(GET_CLASS_SCHEMA_METHOD).invoke(null));
+        ConversionEvent event = new ConversionEvent();
+        event.begin();
+        var document = inputStreamToDocument(
+                new ByteArrayInputStream(bytesDocument), xmlNamespaces(schema, xmlNamespacesSelector));
+        T result =
+                convertDocumentToAvro(document, clazz, null, schema, xpathSelector, xmlNamespacesSelector, null, null);
+        commitEvent(event, schema, ConversionEvent.XML_TO_AVRO, bytesDocument.length);
+        return result;
+    }
+
+    /**
+     * Converts an XML payload into an existing SpecificRecordBase object, using default "xpath" and "xmlNamespaces"
+     * properties. The fields of the record are overwritten, and the sub-records, ArrayLists and HashMaps it holds are
+     * reused for the same fields, which saves their allocation when records are converted and processed one at a time.
+     *
+     * @param bytesDocument The XML payload to convert
+     * @param reuse The record to overwrite, which must not be used elsewhere
+     * @param <T> The type of the Avro object
+     * @return The reused SpecificRecordBase object.
+     * @throws NoSuchMethodException If the method getClassSchema is not found
+     * @throws InvocationTargetException If the method getClassSchema cannot be invoked
+     * @throws IllegalAccessException If the method getClassSchema cannot be accessed
+     */
+    public static <T extends SpecificRecordBase> T convertXmlBytesToAvro(byte[] bytesDocument, T reuse)
+            throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
+        return convertXmlBytesToAvro(bytesDocument, reuse, XPATH_DEFAULT, XML_NAMESPACE_SELECTOR_DEFAULT);
+    }
+
+    /**
+     * Converts an XML payload into an existing SpecificRecordBase object, using the chosen xpathSelector and
+     * xmlNamespacesSelector properties. The fields of the record are overwritten, and the sub-records, ArrayLists and
+     * HashMaps it holds are reused for the same fields.
+     *
+     * @param bytesDocument The XML payload to convert
+     * @param reuse The record to overwrite, which must not be used elsewhere
+     * @param xpathSelector The xpathSelector property used to search for the xpathMapping in the Avro definition
+     * @param xmlNamespacesSelector Name of the variable defining the xmlNamespaces of the avsc file that needs to be
+     *     used for unifying namespace definitions
+     * @param <T> The type of the Avro object
+     * @return The reused SpecificRecordBase object.
+     * @throws NoSuchMethodException If the method getClassSchema is not found
+     * @throws InvocationTargetException If the method getClassSchema cannot be invoked
+     * @throws IllegalAccessException If the method getClassSchema cannot be accessed
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends SpecificRecordBase> T convertXmlBytesToAvro(
+            byte[] bytesDocument, T reuse, String xpathSelector, String xmlNamespacesSelector)
+            throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
+        Class<T> clazz = (Class<T>) reuse.getClass();
+        Schema schema =
+                (Schema) (clazz.getDeclaredMethod(GET_CLASS_SCHEMA_METHOD).invoke(null));
+        ConversionEvent event = new ConversionEvent();
+        event.begin();
+        var document = inputStreamToDocument(
+                new ByteArrayInputStream(bytesDocument), xmlNamespaces(schema, xmlNamespacesSelector));
+        T result =
+                convertDocumentToAvro(document, clazz, reuse, schema, xpathSelector, xmlNamespacesSelector, null, null);
+        commitEvent(event, schema, ConversionEvent.XML_TO_AVRO, bytesDocument.length);
+        return result;
+    }
+
+    /**
+     * Converts an XML file into a SpecificRecordBase object, using default "xpath" and "xmlNamespaces" properties. The
+     * file is memory-mapped and parsed from the mapped regions, without being read into a String first.
+     *
+     * @param path The XML file to convert
+     * @param clazz The Avro object to convert to
+     * @param <T> The type of the Avro object
+     * @return The SpecificRecordBase object.
+     * @throws IOException If the file cannot be read
+     * @throws NoSuchMethodException If the method getClassSchema is not found
+     * @throws InvocationTargetException If the method getClassSchema cannot be invoked
+     * @throws IllegalAccessException If the method getClassSchema cannot be accessed
+     */
+    public static <T extends SpecificRecordBase> T convertXmlFileToAvro(Path path, Class<T> clazz)
+            throws IOException, NoSuchMethodException, InvocationTargetException, IllegalAccessException {
+        return convertXmlFileToAvro(path, clazz, XPATH_DEFAULT, XML_NAMESPACE_SELECTOR_DEFAULT);
+    }
+
+    /**
+     * Converts an XML file into a SpecificRecordBase object, using the chosen xpathSelector and xmlNamespacesSelector
+     * properties. The file is memory-mapped and parsed from the mapped regions, without being read into a String first.
+     *
+     * @param path The XML file to convert
+     * @param clazz The Avro object to convert to
+     * @param xpathSelector The xpathSelector property used to search for the xpathMapping in the Avro definition
+     * @param xmlNamespacesSelector Name of the variable defining the xmlNamespaces of the avsc file that needs to be
+     *     used for unifying namespace definitions
+     * @param <T> The type of the Avro object
+     * @return The SpecificRecordBase object.
+     * @throws IOException If the file cannot be read
+     * @throws NoSuchMethodException If the method getClassSchema is not found
+     * @throws InvocationTargetException If the method getClassSchema cannot be invoked
+     * @throws IllegalAccessException If the method getClassSchema cannot be accessed
+     */
+    public static <T extends SpecificRecordBase> T convertXmlFileToAvro(
+            Path path, Class<T> clazz, String xpathSelector, String xmlNamespacesSelector)
+            throws IOException, NoSuchMethodException, InvocationTargetException, IllegalAccessException {
+        Schema schema =
+                (Schema) (clazz.getDeclaredMethod(GET_CLASS_SCHEMA_METHOD).invoke(null));
+        ConversionEvent event = new ConversionEvent();
+        event.begin();
+        try (MappedFileInputStream inputStream = new MappedFileInputStream(path)) {
+            var document = inputStreamToDocument(inputStream, xmlNamespaces(schema, xmlNamespacesSelector));
+            T result = convertDocumentToAvro(
+                    document, clazz, null, schema, xpathSelector, xmlNamespacesSelector, null, null);
+            commitEvent(event, schema, ConversionEvent.XML_TO_AVRO, inputStream.size());
+            return result;
+        }
+    }
+
+    /**
+     * Converts an XML file whose bulk is an array of records into a SpecificRecordBase object, using default "xpath"
+     * and "xmlNamespaces" properties. The elements of the array are located by a byte-level scan of the file, then
+     * parsed and converted in parallel by the executor, and set back in their original order.
+     *
+     * <p>The xpath of the array field must be a path of element names relative to the root element, such as
+     * {@code recordList/listItem}, and the file must be encoded in UTF-8 or another ASCII-compatible charset. Files
+     * which cannot be split, because of their encoding or because the array is empty, are converted sequentially.
+     *
+     * @param path The XML file to convert
+     * @param clazz The Avro object to convert to
+     * @param arrayField The name of the array field holding the bulk of the document
+     * @param executor The executor parsing the elements of the array
+     * @param <T> The type of the Avro object
+     * @return The SpecificRecordBase object.
+     * @throws IOException If the file cannot be read
+     * @throws NoSuchMethodException If the method getClassSchema is not found
+     * @throws InvocationTargetException If the method getClassSchema cannot be invoked
+     * @throws IllegalAccessException If the method getClassSchema cannot be accessed
+     * @throws IllegalArgumentException If the field is not an array of records mapped to a path of element names
+     */
+    public static <T extends SpecificRecordBase> T convertXmlFileToAvroInParallel(
+            Path path, Class<T> clazz, String arrayField, Executor executor)
+            throws IOException, NoSuchMethodException, InvocationTargetException, IllegalAccessException {
+        return convertXmlFileToAvroInParallel(
+                path, clazz, XPATH_DEFAULT, XML_NAMESPACE_SELECTOR_DEFAULT, arrayField, executor);
+    }
+
+    /**
+     * Converts an XML file whose bulk is an array of records into a SpecificRecordBase object, using the chosen
+     * xpathSelector and xmlNamespacesSelector properties. The elements of the array are located by a byte-level scan of
+     * the file, then parsed and converted in parallel by the executor, and set back in their original order.
+     *
+     * <p>The xpath of the array field must be a path of element names relative to the root element, such as
+     * {@code recordList/listItem}, and the file must be encoded in UTF-8 or another ASCII-compatible charset. Files
+     * which cannot be split, because of their encoding or because the array is empty, are converted sequentially.
+     *
+     * @param path The XML file to convert
+     * @param clazz The Avro object to convert to
+     * @param xpathSelector The xpathSelector property used to search for the xpathMapping in the Avro definition
+     * @param xmlNamespacesSelector Name of the variable defining the xmlNamespaces of the avsc file that needs to be
+     *     used for unifying namespace definitions
+     * @param arrayField The name of the array field holding the bulk of the document
+     * @param executor The executor parsing the elements of the array
+     * @param <T> The type of the Avro object
+     * @return The SpecificRecordBase object.
+     * @throws IOException If the file cannot be read
+     * @throws NoSuchMethodException If the method getClassSchema is not found
+     * @throws InvocationTargetException If the method getClassSchema cannot be invoked
+     * @throws IllegalAccessException If the method getClassSchema cannot be accessed
+     * @throws IllegalArgumentException If the field is not an array of records mapped to a path of element names
+     */
+    public static <T extends SpecificRecordBase> T convertXmlFileToAvroInParallel(
+            Path path,
+            Class<T> clazz,
+            String xpathSelector,
+            String xmlNamespacesSelector,
+            String arrayField,
+            Executor executor)
+            throws IOException, NoSuchMethodException, InvocationTargetException, IllegalAccessException {
+        Schema schema =
+                (Schema) (clazz.getDeclaredMethod(GET_CLASS_SCHEMA_METHOD).invoke(null));
+        ConversionEvent event = new ConversionEvent();
+        event.begin();
+        T result = SplitConversion.convert(
+                path, clazz, schema, xpathSelector, xmlNamespacesSelector, arrayField, executor);
+        if (result == null) {
+            return convertXmlFileToAvro(path, clazz, xpathSelector, xmlNamespacesSelector);
+        }
+        commitEvent(event, schema, ConversionEvent.XML_TO_AVRO, Files.size(path));
+        return result;
+    }
+
+    private static <T extends SpecificRecordBase> T convertDocumentToAvro(
+            Document document,
+            Class<T> clazz,
+            T reuse,
+            Schema schema,
+            String xpathSelector,
+            String xmlNamespacesSelector,
+            Projection projection,
+            ConversionDiagnostics diagnostics) {
+        NamespaceContext namespaceContext = getNamespaceContext(schema, xmlNamespacesSelector);
+        if (diagnostics != null && namespaceContext instanceof XPathEvaluationContext evaluationContext) {
+            evaluationContext.setDiagnostics(diagnostics);
+        }
+
         return XmlToAvroUtils.convert(
                 document.getDocumentElement(),
                 document.getDocumentElement(),
                 clazz,
-                getNamespaceContext(document),
+                reuse,
+                namespaceContext,
                 schema.getNamespace(),
-                xpathSelector);
+                xpathSelector,
+                projection);
     }
 
     /**
@@ -130,7 +583,7 @@ public final class AvroXmlMapper {
      * @throws TransformerException If the transformation fails
      */
     public static String convertAvroToXmlString(SpecificRecordBase message) throws TransformerException {
-        return documentToString(createDocumentFromAvro(message, XPATH_DEFAULT, XML_NAMESPACE_SELECTOR_DEFAULT));
+        return convertAvroToXmlString(message, XPATH_DEFAULT, XML_NAMESPACE_SELECTOR_DEFAULT);
     }
 
     /**
@@ -144,7 +597,7 @@ public final class AvroXmlMapper {
      */
     public static String convertAvroToXmlString(SpecificRecordBase message, String xpathSelector)
             throws TransformerException {
-        return documentToString(createDocumentFromAvro(message, xpathSelector, XML_NAMESPACE_SELECTOR_DEFAULT));
+        return convertAvroToXmlString(message, xpathSelector, XML_NAMESPACE_SELECTOR_DEFAULT);
     }
 
     /**
@@ -161,7 +614,11 @@ public final class AvroXmlMapper {
     public static String convertAvroToXmlString(
             SpecificRecordBase message, String xpathSelector, String xmlNamespacesSelector)
             throws TransformerException {
-        return documentToString(createDocumentFromAvro(message, xpathSelector, xmlNamespacesSelector));
+        ConversionEvent event = new ConversionEvent();
+        event.begin();
+        String result = documentToString(createDocumentFromAvro(message, xpathSelector, xmlNamespacesSelector));
+        commitEvent(event, message.getSchema(), ConversionEvent.AVRO_TO_XML, 0);
+        return result;
     }
 
     /* ********************************** */
@@ -176,7 +633,7 @@ public final class AvroXmlMapper {
      * @return The document produced
      */
     public static Document convertAvroToXmlDocument(SpecificRecordBase message) {
-        return createDocumentFromAvro(message, XPATH_DEFAULT, XML_NAMESPACE_SELECTOR_DEFAULT);
+        return convertAvroToXmlDocument(message, XPATH_DEFAULT, XML_NAMESPACE_SELECTOR_DEFAULT);
     }
 
     /**
@@ -187,7 +644,7 @@ public final class AvroXmlMapper {
      * @return The document produced
      */
     public static Document convertAvroToXmlDocument(SpecificRecordBase message, String xpathSelector) {
-        return createDocumentFromAvro(message, xpathSelector, XML_NAMESPACE_SELECTOR_DEFAULT);
+        return convertAvroToXmlDocument(message, xpathSelector, XML_NAMESPACE_SELECTOR_DEFAULT);
     }
 
     /**
@@ -202,6 +659,327 @@ public final class AvroXmlMapper {
      */
     public static Document convertAvroToXmlDocument(
             SpecificRecordBase message, String xpathSelector, String xmlNamespaceSelector) {
-        return createDocumentFromAvro(message, xpathSelector, xmlNamespaceSelector);
+        ConversionEvent event = new ConversionEvent();
+        event.begin();
+        Document result = createDocumentFromAvro(message, xpathSelector, xmlNamespaceSelector);
+        commitEvent(event, message.getSchema(), ConversionEvent.AVRO_TO_XML, 0);
+        return result;
+    }
+
+    /* ******* */
+    /* Warm-up */
+    /* ******* */
+
+    /**
+     * Prepares the conversion of records at startup, using default "xpath" and "xmlNamespaces" properties, so that the
+     * first conversions do not pay for it. See {@link #warmUp(String, String, Class[])}.
+     *
+     * @param classes The Avro objects to prepare the conversion of
+     * @throws NoSuchMethodException If the method getClassSchema is not found
+     * @throws InvocationTargetException If the method getClassSchema cannot be invoked
+     * @throws IllegalAccessException If the method getClassSchema cannot be accessed
+     * @throws TransformerException If the transformation of the warm-up record fails
+     */
+    public static void warmUp(Class<?>... classes)
+            throws NoSuchMethodException, InvocationTargetException, IllegalAccessException, TransformerException {
+        warmUp(XPATH_DEFAULT, XML_NAMESPACE_SELECTOR_DEFAULT, classes);
+    }
+
+    /**
+     * Prepares the conversion of records at startup, using the chosen xpathSelector and xmlNamespacesSelector
+     * properties, so that the first conversions do not pay for it. The schemas of the records and of their sub-records
+     * are loaded, their conversion plans are built, and an empty document is converted to each record and back to XML,
+     * when the schema defines namespaces, which loads the parser, the transformer and the conversion code.
+     *
+     * @param xpathSelector The xpathSelector property used to search for the xpathMapping in the Avro definition
+     * @param xmlNamespacesSelector Name of the variable defining the xmlNamespaces of the avsc file that needs to be
+     *     used for unifying namespace definitions
+     * @param classes The Avro objects to prepare the conversion of
+     * @throws NoSuchMethodException If the method getClassSchema is not found
+     * @throws InvocationTargetException If the method getClassSchema cannot be invoked
+     * @throws IllegalAccessException If the method getClassSchema cannot be accessed
+     * @throws TransformerException If the transformation of the warm-up record fails
+     */
+    public static void warmUp(String xpathSelector, String xmlNamespacesSelector, Class<?>... classes)
+            throws NoSuchMethodException, InvocationTargetException, IllegalAccessException, TransformerException {
+        for (Class<?> type : classes) {
+            Class<? extends SpecificRecordBase> clazz = type.asSubclass(SpecificRecordBase.class);
+            Schema schema =
+                    (Schema) (clazz.getDeclaredMethod(GET_CLASS_SCHEMA_METHOD).invoke(null));
+            prepareRecords(schema, schema.getNamespace(), clazz.getClassLoader(), xpathSelector, new HashSet<>());
+
+            Map<String, String> namespaces = xmlNamespaces(schema, xmlNamespacesSelector);
+            var document = stringToDocument(warmUpDocument(namespaces), namespaces);
+            SpecificRecordBase message = convertDocumentToAvro(
+                    document, clazz, null, schema, xpathSelector, xmlNamespacesSelector, null, null);
+            if (namespaces != null) {
+                // The conversion to XML requires the namespaces, unlike the conversion from XML
+                documentToString(createDocumentFromAvro(message, xpathSelector, xmlNamespacesSelector));
+            }
+        }
+    }
+
+    /**
+     * Build an empty document declaring the namespaces of a schema, which the parser requires for the default one.
+     *
+     * @param namespaces map containing all namespaces (K : prefix, "null" for the default one ; V : URI)
+     * @return The document
+     */
+    private static String warmUpDocument(Map<String, String> namespaces) {
+        StringBuilder document = new StringBuilder("<warmUp");
+        if (namespaces != null) {
+            namespaces.forEach((prefix, uri) -> document.append(" xmlns")
+                    .append("null".equals(prefix) ? "" : ":" + prefix)
+                    .append("=\"")
+                    .append(uri.replace("&", "&amp;").replace("<", "&lt;").replace("\"", "&quot;"))
+                    .append('"'));
+        }
+        return document.append("></warmUp>").toString();
+    }
+
+    /**
+     * Build the conversion plans of the records reachable from a schema, and load their classes.
+     *
+     * @param schema The schema
+     * @param baseNamespace The base namespace of the generated SpecificRecord classes
+     * @param classLoader The class loader of the root record
+     * @param xpathSelector The xpathSelector property used to search for the xpathMapping in the Avro definition
+     * @param prepared The records already prepared, as a schema can be recursive
+     */
+    private static void prepareRecords(
+            Schema schema, String baseNamespace, ClassLoader classLoader, String xpathSelector, Set<Schema> prepared) {
+        switch (schema.getType()) {
+            case RECORD -> {
+                if (prepared.add(schema)) {
+                    RecordPlan.of(schema, xpathSelector);
+                    try {
+                        // Resolved as by the conversion, which initializes the class and parses its schema
+                        Class.forName(baseNamespace + "." + schema.getName(), true, classLoader);
+                    } catch (ClassNotFoundException e) {
+                        // Reported by the conversion if the record is ever read
+                    }
+                    schema.getFields()
+                            .forEach(field -> prepareRecords(
+                                    field.schema(), baseNamespace, classLoader, xpathSelector, prepared));
+                }
+            }
+            case ARRAY -> prepareRecords(schema.getElementType(), baseNamespace, classLoader, xpathSelector, prepared);
+            case MAP -> prepareRecords(schema.getValueType(), baseNamespace, classLoader, xpathSelector, prepared);
+            case UNION ->
+                schema.getTypes()
+                        .forEach(type -> prepareRecords(type, baseNamespace, classLoader, xpathSelector, prepared));
+            default -> {
+                // No record
+            }
+        }
+    }
+
+    /* ************************ */
+    /* Asynchronous conversions */
+    /* ************************ */
+
+    /**
+     * Get the executor used by the asynchronous conversions when none is provided: a virtual thread per task when the
+     * runtime supports virtual threads (Java 21+), the common fork-join pool otherwise.
+     *
+     * @return The default executor
+     */
+    public static Executor defaultExecutor() {
+        return DEFAULT_EXECUTOR;
+    }
+
+    /**
+     * Asynchronously converts an XML string into a SpecificRecordBase object on the default executor, using the default
+     * "xpath" and "xmlNamespaces" properties.
+     *
+     * @param stringDocument The XML string to convert
+     * @param clazz The Avro object to convert to
+     * @param <T> The type of the Avro object
+     * @return A future completed with the SpecificRecordBase object, or exceptionally with an
+     *     {@link AvroXmlMapperException} if the conversion fails
+     */
+    public static <T extends SpecificRecordBase> CompletableFuture<T> convertXmlStringToAvroAsync(
+            String stringDocument, Class<T> clazz) {
+        return convertXmlStringToAvroAsync(
+                stringDocument, clazz, XPATH_DEFAULT, XML_NAMESPACE_SELECTOR_DEFAULT, DEFAULT_EXECUTOR);
+    }
+
+    /**
+     * Asynchronously converts an XML string into a SpecificRecordBase object on the given executor, using the default
+     * "xpath" and "xmlNamespaces" properties.
+     *
+     * @param stringDocument The XML string to convert
+     * @param clazz The Avro object to convert to
+     * @param executor The executor running the conversion
+     * @param <T> The type of the Avro object
+     * @return A future completed with the SpecificRecordBase object, or exceptionally with an
+     *     {@link AvroXmlMapperException} if the conversion fails
+     */
+    public static <T extends SpecificRecordBase> CompletableFuture<T> convertXmlStringToAvroAsync(
+            String stringDocument, Class<T> clazz, Executor executor) {
+        return convertXmlStringToAvroAsync(
+                stringDocument, clazz, XPATH_DEFAULT, XML_NAMESPACE_SELECTOR_DEFAULT, executor);
+    }
+
+    /**
+     * Asynchronously converts an XML string into a SpecificRecordBase object on the given executor, using the chosen
+     * xpathSelector and xmlNamespacesSelector properties.
+     *
+     * @param stringDocument The XML string to convert
+     * @param clazz The Avro object to convert to
+     * @param xpathSelector The xpathSelector property used to search for the xpathMapping in the Avro definition
+     * @param xmlNamespacesSelector Name of the variable defining the xmlNamespaces of the avsc file that needs to be
+     *     used for unifying namespace definitions
+     * @param executor The executor running the conversion
+     * @param <T> The type of the Avro object
+     * @return A future completed with the SpecificRecordBase object, or exceptionally with an
+     *     {@link AvroXmlMapperException} if the conversion fails
+     */
+    public static <T extends SpecificRecordBase> CompletableFuture<T> convertXmlStringToAvroAsync(
+            String stringDocument,
+            Class<T> clazz,
+            String xpathSelector,
+            String xmlNamespacesSelector,
+            Executor executor) {
+        return CompletableFuture.supplyAsync(
+                () -> {
+                    try {
+                        return convertXmlStringToAvro(stringDocument, clazz, xpathSelector, xmlNamespacesSelector);
+                    } catch (ReflectiveOperationException e) {
+                        throw new AvroXmlMapperException("Failed to get the schema of " + clazz.getName(), e);
+                    }
+                },
+                executor);
+    }
+
+    /**
+     * Asynchronously creates an XML in String format from a SpecificRecordBase on the default executor, using the
+     * default "xpath" and "xmlNamespaces" properties.
+     *
+     * @param message The SpecificRecordBase containing the entire data to parse in XML
+     * @return A future completed with the XML in String format, or exceptionally with an {@link AvroXmlMapperException}
+     *     if the conversion fails
+     */
+    public static CompletableFuture<String> convertAvroToXmlStringAsync(SpecificRecordBase message) {
+        return convertAvroToXmlStringAsync(message, XPATH_DEFAULT, XML_NAMESPACE_SELECTOR_DEFAULT, DEFAULT_EXECUTOR);
+    }
+
+    /**
+     * Asynchronously creates an XML in String format from a SpecificRecordBase on the given executor, using the default
+     * "xpath" and "xmlNamespaces" properties.
+     *
+     * @param message The SpecificRecordBase containing the entire data to parse in XML
+     * @param executor The executor running the conversion
+     * @return A future completed with the XML in String format, or exceptionally with an {@link AvroXmlMapperException}
+     *     if the conversion fails
+     */
+    public static CompletableFuture<String> convertAvroToXmlStringAsync(SpecificRecordBase message, Executor executor) {
+        return convertAvroToXmlStringAsync(message, XPATH_DEFAULT, XML_NAMESPACE_SELECTOR_DEFAULT, executor);
+    }
+
+    /**
+     * Asynchronously creates an XML in String format from a SpecificRecordBase on the given executor, using the
+     * provided xpathSelector and xmlNamespacesSelector properties.
+     *
+     * @param message The SpecificRecordBase containing the entire data to parse in XML
+     * @param xpathSelector Name of the variable defining the xpath of the avsc file that needs to be used
+     * @param xmlNamespacesSelector Name of the variable defining the xmlNamespaces of the avsc file that needs to be
+     *     used
+     * @param executor The executor running the conversion
+     * @return A future completed with the XML in String format, or exceptionally with an {@link AvroXmlMapperException}
+     *     if the conversion fails
+     */
+    public static CompletableFuture<String> convertAvroToXmlStringAsync(
+            SpecificRecordBase message, String xpathSelector, String xmlNamespacesSelector, Executor executor) {
+        return CompletableFuture.supplyAsync(
+                () -> {
+                    try {
+                        return convertAvroToXmlString(message, xpathSelector, xmlNamespacesSelector);
+                    } catch (TransformerException e) {
+                        throw new AvroXmlMapperException("Failed to serialize document", e);
+                    }
+                },
+                executor);
+    }
+
+    /**
+     * Create the default executor of the asynchronous conversions. Virtual threads are looked up by reflection as the
+     * library targets Java 17.
+     *
+     * @return A virtual thread per task executor if available, the common fork-join pool otherwise
+     */
+    private static Executor createDefaultExecutor() {
+        try {
+            return (Executor)
+                    Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return ForkJoinPool.commonPool();
+        }
+    }
+
+    /**
+     * Commit the given JFR event of the conversion of an XML string if it is enabled and above its threshold. The input
+     * size is the UTF-8 length of the string, only computed when the event is committed.
+     *
+     * @param event The started event
+     * @param schema The schema of the converted record
+     * @param stringDocument The converted XML string
+     */
+    private static void commitEvent(ConversionEvent event, Schema schema, String stringDocument) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.set(
+                    schema.getFullName(),
+                    ConversionEvent.XML_TO_AVRO,
+                    utf8Length(stringDocument),
+                    schema.getFields().size());
+            event.commit();
+        }
+    }
+
+    /**
+     * Get the length of a string encoded in UTF-8, without encoding it.
+     *
+     * @param string The string
+     * @return The number of bytes
+     */
+    static long utf8Length(String string) {
+        long length = 0;
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)
+                    && i + 1 < string.length()
+                    && Character.isLowSurrogate(string.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Commit the given JFR conversion event if it is enabled and above its threshold.
+     *
+     * @param event The started event
+     * @param schema The schema of the converted record
+     * @param direction The direction of the conversion
+     * @param inputSize The size of the XML input
+     */
+    private static void commitEvent(ConversionEvent event, Schema schema, String direction, long inputSize) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.set(
+                    schema.getFullName(),
+                    direction,
+                    inputSize,
+                    schema.getFields().size());
+            event.commit();
+        }
     }
 }
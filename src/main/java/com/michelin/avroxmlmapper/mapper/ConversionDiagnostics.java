@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.michelin.avroxmlmapper.mapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collector of the values which could not be converted from XML, and were replaced by the default value of their field.
+ *
+ * <p>Only the first failures are kept, up to a maximum, so that a document full of malformed values does not fill the
+ * memory. The number of failures is counted in full. A collector can be shared by several conversions, including
+ * concurrent ones.
+ */
+public final class ConversionDiagnostics {
+    private static final int DEFAULT_MAX_FAILURES = 100;
+
+    private final int maxFailures;
+    private final List<Failure> failures = new ArrayList<>();
+    private int failureCount;
+
+    /** Constructor keeping the first 100 failures. */
+    public ConversionDiagnostics() {
+        this(DEFAULT_MAX_FAILURES);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param maxFailures The maximum number of failures to keep
+     */
+    public ConversionDiagnostics(int maxFailures) {
+        this.maxFailures = maxFailures;
+    }
+
+    /**
+     * Record a value which could not be converted.
+     *
+     * @param record The full name of the record
+     * @param field The name of the field
+     * @param value The text of the value
+     * @param reason The reason of the failure
+     */
+    synchronized void report(String record, String field, String value, String reason) {
+        failureCount++;
+        if (failures.size() < maxFailures) {
+            failures.add(new Failure(record, field, value, reason));
+        }
+    }
+
+    /**
+     * Get the first failures, in the order they were reported.
+     *
+     * @return A copy of the failures kept
+     */
+    public synchronized List<Failure> failures() {
+        return List.copyOf(failures);
+    }
+
+    /**
+     * Get the number of failures, including the ones beyond the maximum kept.
+     *
+     * @return The number of failures
+     */
+    public synchronized int failureCount() {
+        return failureCount;
+    }
+
+    /**
+     * A value which could not be converted.
+     *
+     * @param record The full name of the record
+     * @param field The name of the field
+     * @param value The text of the value
+     * @param reason The reason of the failure
+     */
+    public record Failure(String record, String field, String value, String reason) {}
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.michelin.avroxmlmapper.mapper;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.avro.Schema;
+import org.apache.avro.specific.SpecificData;
+
+/**
+ * The symbol table of an enum schema, computed once per class loader and cached.
+ *
+ * <p>The XML texts are mapped to the enum constants through hash and case-insensitive lookups which allocate nothing,
+ * and the text of each constant is kept by ordinal for the Avro to XML conversion. The constants are the generated enum
+ * constants found by the class loader of the records, so the tables are cached on the class of the records: they are
+ * released with it, and do not keep the class loader of a model which is no longer used.
+ */
+final class EnumSymbols {
+    private static final int MAX_CACHED_TABLES = 10_000;
+    private static final ClassValue<Map<Schema, EnumSymbols>> CACHE = new ClassValue<>() {
+        @Override
+        protected Map<Schema, EnumSymbols> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private final Map<String, Object> constants = new HashMap<>();
+    private final Map<String, Object> constantsIgnoringCase = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final String[] texts;
+    private final Object defaultConstant;
+
+    private EnumSymbols(Schema schema, ClassLoader classLoader) {
+        SpecificData specificData = new SpecificData(classLoader);
+        List<String> symbols = schema.getEnumSymbols();
+        this.texts = symbols.toArray(String[]::new);
+
+        for (String symbol : symbols) {
+            Object constant = specificData.createEnum(symbol, schema);
+            constants.put(symbol, constant);
+            constantsIgnoringCase.putIfAbsent(symbol, constant);
+        }
+
+        this.defaultConstant = schema.getEnumDefault() != null ? constants.get(schema.getEnumDefault()) : null;
+    }
+
+    /**
+     * Get the symbol table of an enum schema, from the cache if it has already been computed.
+     *
+     * @param schema The enum schema
+     * @param type The class of the record holding the enum, or of the enum value, whose class loader resolves the
+     *     generated enum class. The constants are generic enum symbols if it cannot be found
+     * @return The symbol table
+     */
+    static EnumSymbols of(Schema schema, Class<?> type) {
+        Map<Schema, EnumSymbols> tables = CACHE.get(type);
+        EnumSymbols symbols = tables.get(schema);
+        if (symbols == null) {
+            symbols = new EnumSymbols(schema, type.getClassLoader());
+            if (tables.size() < MAX_CACHED_TABLES) {
+                tables.put(schema, symbols);
+            }
+        }
+        return symbols;
+    }
+
+    /**
+     * Get the enum constant of an XML text.
+     *
+     * @param text The XML text
+     * @param ignoreCase Whether the text is compared to the symbols ignoring case
+     * @return The constant, the default symbol of the enum if the text does not match any symbol, null if there is no
+     *     default symbol
+     */
+    Object constant(String text, boolean ignoreCase) {
+        Object constant = ignoreCase ? constantsIgnoringCase.get(text) : constants.get(text);
+        return constant != null ? constant : defaultConstant;
+    }
+
+    /**
+     * Get the XML text of an enum constant.
+     *
+     * @param constant The generated enum constant, or a generic enum symbol
+     * @return The text of the symbol
+     */
+    String text(Object constant) {
+        return constant instanceof Enum<?> e ? texts[e.ordinal()] : constant.toString();
+    }
+}
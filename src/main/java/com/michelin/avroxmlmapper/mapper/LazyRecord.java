@@ -0,0 +1,258 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.michelin.avroxmlmapper.mapper;
+
+import static com.michelin.avroxmlmapper.utility.GenericUtils.extractRealType;
+
+import com.michelin.avroxmlmapper.exception.AvroXmlMapperException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import javax.xml.namespace.NamespaceContext;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.w3c.dom.Node;
+
+/**
+ * A read-only view of an XML element as an Avro record, converting each field from the document only when it is read
+ * for the first time through {@link #get(int)} or {@link #get(String)}.
+ *
+ * <p>A field holding a record is read as a nested {@link LazyRecord}, and a field holding an array of records as a list
+ * of {@link LazyRecord}, so that their own fields are converted on access too. The other fields are converted with the
+ * same rules as the eager conversion. {@link #toRecord()} converts the fields that have not been read yet and returns
+ * the equivalent SpecificRecordBase.
+ *
+ * <p>The view keeps a reference on the parsed document until it is discarded. It is not thread-safe.
+ *
+ * @param <T> The type of the Avro object
+ */
+public final class LazyRecord<T extends SpecificRecordBase> implements GenericRecord {
+    /**
+     * Number of fields whose xpath is evaluated alone when they are first read. The xpaths of all the fields are
+     * matched in a single traversal from the next one, once the record is read more than a few fields at a time.
+     */
+    private static final int SINGLE_FIELD_EVALUATIONS = 4;
+
+    private final T message;
+    private final Node fullNode;
+    private final Node orphanNode;
+    private final NamespaceContext namespaceContext;
+    private final String baseNamespace;
+    private final String xpathSelector;
+    private final RecordPlan plan;
+
+    /** The index in the record plan of each field of the schema, -1 for the fields without plan. */
+    private final int[] planIndexes;
+
+    private final Object[] values;
+    private final boolean[] resolved;
+    private List<List<Node>> matchedNodes;
+    private int singleFieldEvaluations;
+    private boolean converted;
+
+    LazyRecord(
+            Class<T> clazz,
+            Node fullNode,
+            Node orphanNode,
+            NamespaceContext namespaceContext,
+            String baseNamespace,
+            String xpathSelector) {
+        try {
+            this.message = clazz.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AvroXmlMapperException("Failed to parse document", e);
+        }
+        this.fullNode = fullNode;
+        this.orphanNode = orphanNode;
+        this.namespaceContext = namespaceContext;
+        this.baseNamespace = baseNamespace;
+        this.xpathSelector = xpathSelector;
+        this.plan = RecordPlan.of(message.getSchema(), xpathSelector);
+
+        int fieldCount = message.getSchema().getFields().size();
+        this.planIndexes = new int[fieldCount];
+        this.values = new Object[fieldCount];
+        this.resolved = new boolean[fieldCount];
+        Arrays.fill(planIndexes, -1);
+        for (int i = 0; i < plan.fields().size(); i++) {
+            planIndexes[plan.fields().get(i).field().pos()] = i;
+        }
+    }
+
+    @Override
+    public Schema getSchema() {
+        return message.getSchema();
+    }
+
+    @Override
+    public Object get(int i) {
+        if (!resolved[i]) {
+            values[i] = resolve(i);
+            resolved[i] = true;
+        }
+        return values[i];
+    }
+
+    @Override
+    public Object get(String key) {
+        Schema.Field field = getSchema().getField(key);
+        return field != null ? get(field.pos()) : null;
+    }
+
+    /**
+     * Not supported, the view being read-only.
+     *
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public void put(int i, Object v) {
+        throw new UnsupportedOperationException("A lazy record is read-only");
+    }
+
+    /**
+     * Not supported, the view being read-only.
+     *
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public void put(String key, Object v) {
+        throw new UnsupportedOperationException("A lazy record is read-only");
+    }
+
+    /**
+     * Convert the fields that have not been read yet, including the fields of the nested records.
+     *
+     * @return The SpecificRecordBase object, the same instance on each call
+     */
+    public T toRecord() {
+        if (!converted) {
+            for (int i = 0; i < values.length; i++) {
+                message.put(i, toRecordValue(get(i)));
+            }
+            converted = true;
+        }
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return GenericData.get().toString(this);
+    }
+
+    private Object resolve(int pos) {
+        int planIndex = planIndexes[pos];
+        if (planIndex < 0) {
+            return message.get(pos);
+        }
+
+        RecordPlan.FieldPlan fieldPlan = plan.fields().get(planIndex);
+        List<Node> nodes;
+        if (matchedNodes != null) {
+            nodes = matchedNodes.get(planIndex);
+        } else if (singleFieldEvaluations < SINGLE_FIELD_EVALUATIONS) {
+            singleFieldEvaluations++;
+            nodes = plan.evaluate(planIndex, fullNode, namespaceContext);
+        } else {
+            matchedNodes = plan.evaluate(fullNode, namespaceContext);
+            nodes = matchedNodes.get(planIndex);
+        }
+
+        try {
+            if (fieldPlan.xpath() != null && fieldPlan.type().getType() == Schema.Type.RECORD) {
+                return lazyRecord(fieldPlan, nodes);
+            }
+
+            if (fieldPlan.xpath() != null && fieldPlan.type().getType() == Schema.Type.ARRAY) {
+                Optional<Schema> elementType = extractRealType(fieldPlan.type().getElementType());
+                if (elementType.isPresent() && elementType.get().getType() == Schema.Type.RECORD) {
+                    return lazyRecords(fieldPlan, elementType.get(), nodes);
+                }
+            }
+
+            XmlToAvroUtils.convertField(
+                    message,
+                    fullNode,
+                    orphanNode,
+                    namespaceContext,
+                    baseNamespace,
+                    xpathSelector,
+                    fieldPlan,
+                    nodes,
+                    null,
+                    null);
+            return message.get(pos);
+        } catch (ClassNotFoundException e) {
+            throw new AvroXmlMapperException("Failed to parse document", e);
+        }
+    }
+
+    private LazyRecord<SpecificRecordBase> lazyRecord(RecordPlan.FieldPlan fieldPlan, List<Node> nodes)
+            throws ClassNotFoundException {
+        List<Node> nodeList = XmlToAvroUtils.nodeList(nodes, fullNode, orphanNode, fieldPlan.xpath(), namespaceContext);
+        if (nodeList.isEmpty()) {
+            return null;
+        }
+
+        Node currentNode = nodeList.get(0);
+        // The detached copy is only used by the xpaths evaluated with the javax.xml.xpath engine
+        Node orphanCurrentNode = RecordPlan.of(fieldPlan.type(), xpathSelector).requiresOrphanNode()
+                ? currentNode.cloneNode(true)
+                : currentNode;
+        return new LazyRecord<>(
+                XmlToAvroUtils.baseClass(
+                        message, baseNamespace, fieldPlan.type().getName()),
+                currentNode,
+                orphanCurrentNode,
+                namespaceContext,
+                baseNamespace,
+                xpathSelector);
+    }
+
+    private List<LazyRecord<SpecificRecordBase>> lazyRecords(
+            RecordPlan.FieldPlan fieldPlan, Schema elementType, List<Node> nodes) throws ClassNotFoundException {
+        Class<SpecificRecordBase> elementClass =
+                XmlToAvroUtils.baseClass(message, baseNamespace, elementType.getName());
+        List<LazyRecord<SpecificRecordBase>> records = new ArrayList<>();
+        for (Node elementNode :
+                XmlToAvroUtils.nodeList(nodes, fullNode, orphanNode, fieldPlan.xpath(), namespaceContext)) {
+            records.add(new LazyRecord<>(
+                    elementClass, elementNode, elementNode, namespaceContext, baseNamespace, xpathSelector));
+        }
+        return records;
+    }
+
+    private static Object toRecordValue(Object value) {
+        if (value instanceof LazyRecord<?> lazyRecord) {
+            return lazyRecord.toRecord();
+        }
+
+        if (value instanceof List<?> list && !list.isEmpty() && list.get(0) instanceof LazyRecord<?>) {
+            List<SpecificRecordBase> records = new ArrayList<>(list.size());
+            for (Object element : list) {
+                records.add(((LazyRecord<?>) element).toRecord());
+            }
+            return records;
+        }
+
+        return value;
+    }
+}
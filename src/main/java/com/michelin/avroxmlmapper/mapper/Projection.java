@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.michelin.avroxmlmapper.mapper;
+
+import static com.michelin.avroxmlmapper.utility.GenericUtils.extractRealType;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.apache.avro.Schema;
+
+/**
+ * A subset of the fields of a record to convert from XML, the other fields being left at their default value.
+ *
+ * <p>Fields are designated by their path from the record: {@code orderId} for a field of the record,
+ * {@code header.orderId} for a field of a sub-record, and {@code lines[].sku} for a field of the records of an array. A
+ * record or an array designated without sub-field, such as {@code header}, is converted entirely.
+ *
+ * <p>The paths are checked against the schema of the record when the projection is first applied to it. A projection is
+ * immutable and can be reused for any number of conversions.
+ */
+public final class Projection {
+    private static final String ARRAY_SUFFIX = "[]";
+
+    /** The projected fields by name, with a null projection for the fields converted entirely. */
+    private final Map<String, Projection> fields = new HashMap<>();
+
+    /** The names of the fields designated with the array suffix. */
+    private final Set<String> arrayFields = new HashSet<>();
+
+    /** The hash code, computed on first use once the projection is built. */
+    private int hash;
+
+    /** The last schema the projection has been checked against. */
+    private volatile Schema validatedSchema;
+
+    private Projection() {}
+
+    /**
+     * Create a projection from field paths.
+     *
+     * @param paths The paths of the fields to convert
+     * @return The projection
+     * @throws IllegalArgumentException If a path is empty or has an empty segment
+     */
+    public static Projection of(String... paths) {
+        return of(Arrays.asList(paths));
+    }
+
+    /**
+     * Create a projection from field paths.
+     *
+     * @param paths The paths of the fields to convert
+     * @return The projection
+     * @throws IllegalArgumentException If a path is empty or has an empty segment
+     */
+    public static Projection of(Collection<String> paths) {
+        Projection projection = new Projection();
+        for (String path : paths) {
+            projection.add(path, path.split("\\.", -1), 0);
+        }
+        return projection;
+    }
+
+    private void add(String path, String[] segments, int index) {
+        boolean array = segments[index].endsWith(ARRAY_SUFFIX);
+        String name = array
+                ? segments[index].substring(0, segments[index].length() - ARRAY_SUFFIX.length())
+                : segments[index];
+
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("Invalid projection path " + path);
+        }
+
+        if (array) {
+            arrayFields.add(name);
+        }
+
+        if (index == segments.length - 1) {
+            // The whole field is requested, whatever its sub-fields requested by other paths
+            fields.put(name, null);
+        } else if (!fields.containsKey(name) || fields.get(name) != null) {
+            fields.computeIfAbsent(name, k -> new Projection()).add(path, segments, index + 1);
+        }
+    }
+
+    /**
+     * Check that the paths designate fields of a record schema, the array suffix being only set on arrays and the
+     * sub-fields only designated in records and arrays of records.
+     *
+     * @param schema The schema of the record the projection is applied to
+     * @throws IllegalArgumentException If a path does not designate a field of the schema
+     */
+    void validate(Schema schema) {
+        if (validatedSchema != schema) {
+            validate(schema, "");
+            validatedSchema = schema;
+        }
+    }
+
+    private void validate(Schema schema, String prefix) {
+        for (Map.Entry<String, Projection> entry : fields.entrySet()) {
+            String name = entry.getKey();
+            Schema.Field field = schema.getField(name);
+            if (field == null) {
+                throw new IllegalArgumentException(
+                        "Unknown field " + prefix + name + " in the projection of " + schema.getFullName());
+            }
+
+            Schema type = extractRealType(field.schema()).orElse(field.schema());
+            boolean array = type.getType() == Schema.Type.ARRAY;
+            if (arrayFields.contains(name) && !array) {
+                throw new IllegalArgumentException("Field " + prefix + name + " of the projection is not an array");
+            }
+
+            if (entry.getValue() != null) {
+                Schema subType = array ? extractRealType(type.getElementType()).orElse(type.getElementType()) : type;
+                if (subType.getType() != Schema.Type.RECORD) {
+                    throw new IllegalArgumentException(
+                            "Field " + prefix + name + " of the projection has no sub-fields");
+                }
+                entry.getValue().validate(subType, prefix + name + (array ? ARRAY_SUFFIX : "") + ".");
+            }
+        }
+    }
+
+    /**
+     * Tell whether a field of the record is projected.
+     *
+     * @param fieldName The name of the field
+     * @return true if the field must be converted
+     */
+    boolean includes(String fieldName) {
+        return fields.containsKey(fieldName);
+    }
+
+    /**
+     * Get the projection of a sub-record, or of the records of an array.
+     *
+     * @param fieldName The name of the field
+     * @return The projection of the field, null if it must be converted entirely
+     */
+    Projection field(String fieldName) {
+        return fields.get(fieldName);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other
+                || (other instanceof Projection projection
+                        && fields.equals(projection.fields)
+                        && arrayFields.equals(projection.arrayFields));
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            h = 31 * fields.hashCode() + arrayFields.hashCode();
+            hash = h;
+        }
+        return h;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.michelin.avroxmlmapper.mapper;
+
+import com.michelin.avroxmlmapper.utility.GenericUtils;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+
+/**
+ * Building of the child nodes of the records of an array split across a fork-join pool, the nodes being returned in the
+ * order of the records.
+ *
+ * <p>A document is not thread-safe, even to create nodes: each range of records converted by a worker is built in its
+ * own document, whose nodes must be imported in the target document.
+ */
+final class RecordArrayBuilder extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private static final int MIN_CHUNK_SIZE = 16;
+
+    private final List<?> records;
+    private final List<Node>[] fragments;
+    private final Map<String, String> namespaces;
+    private final String xpathSelector;
+    private final int chunkSize;
+    private final int from;
+    private final int to;
+
+    private RecordArrayBuilder(
+            List<?> records,
+            List<Node>[] fragments,
+            Map<String, String> namespaces,
+            String xpathSelector,
+            int chunkSize,
+            int from,
+            int to) {
+        this.records = records;
+        this.fragments = fragments;
+        this.namespaces = namespaces;
+        this.xpathSelector = xpathSelector;
+        this.chunkSize = chunkSize;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Build the child nodes of the records of an array in parallel, in the pool of the calling thread if it is a
+     * fork-join worker, in the common pool otherwise.
+     *
+     * @param records The records of the array, all {@link SpecificRecordBase}
+     * @param namespaces map containing all namespaces (K : prefix ; V : URI)
+     * @param xpathSelector Name of the variable defining the xpath of the avsc file that needs to be used
+     * @return The child nodes of each record, in the order of the records, owned by other documents than the target one
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static List<List<Node>> build(List<?> records, Map<String, String> namespaces, String xpathSelector) {
+        int parallelism = inForkJoinPool() ? getPool().getParallelism() : ForkJoinPool.getCommonPoolParallelism();
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, records.size() / (parallelism * 4));
+        List<Node>[] fragments = new List[records.size()];
+
+        new RecordArrayBuilder(records, fragments, namespaces, xpathSelector, chunkSize, 0, records.size()).invoke();
+        return Arrays.asList(fragments);
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= chunkSize) {
+            Document workerDocument = GenericUtils.newDocument();
+            for (int i = from; i < to; i++) {
+                fragments[i] = AvroToXmlUtils.buildChildNodes(
+                        (SpecificRecordBase) records.get(i), workerDocument, namespaces, xpathSelector);
+            }
+            return;
+        }
+
+        int middle = (from + to) >>> 1;
+        invokeAll(range(from, middle), range(middle, to));
+    }
+
+    private RecordArrayBuilder range(int rangeFrom, int rangeTo) {
+        return new RecordArrayBuilder(records, fragments, namespaces, xpathSelector, chunkSize, rangeFrom, rangeTo);
+    }
+}
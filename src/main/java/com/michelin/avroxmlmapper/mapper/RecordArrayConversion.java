@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.michelin.avroxmlmapper.mapper;
+
+import static com.michelin.avroxmlmapper.utility.GenericUtils.extractRealType;
+
+import com.michelin.avroxmlmapper.utility.XPathEvaluationContext;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import javax.xml.namespace.NamespaceContext;
+import org.apache.avro.Schema;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * Conversion of the elements of an array of records split across a fork-join pool, the records being returned in the
+ * order of the elements.
+ *
+ * <p>Each range of elements converted by a worker gets its own copy of the {@link XPathEvaluationContext}, whose
+ * indexes are not thread-safe. The parser defers the reading of the text and attribute values until they are first
+ * accessed, which updates the nodes: the values of the elements are therefore read once on the calling thread before
+ * the elements are shared between the workers, which then only read the document. When the records have {@code //}
+ * xpaths, the descendant index of the document is built on the calling thread as well and shared by the workers, whose
+ * lookups read the whole document.
+ */
+final class RecordArrayConversion extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private static final int MIN_CHUNK_SIZE = 16;
+
+    private final List<Node> elements;
+    private final SpecificRecordBase[] records;
+    private final Class<SpecificRecordBase> clazz;
+    private final NamespaceContext namespaceContext;
+    private final String baseNamespace;
+    private final String xpathSelector;
+    private final Projection projection;
+    private final int chunkSize;
+    private final int from;
+    private final int to;
+
+    private RecordArrayConversion(
+            List<Node> elements,
+            SpecificRecordBase[] records,
+            Class<SpecificRecordBase> clazz,
+            NamespaceContext namespaceContext,
+            String baseNamespace,
+            String xpathSelector,
+            Projection projection,
+            int chunkSize,
+            int from,
+            int to) {
+        this.elements = elements;
+        this.records = records;
+        this.clazz = clazz;
+        this.namespaceContext = namespaceContext;
+        this.baseNamespace = baseNamespace;
+        this.xpathSelector = xpathSelector;
+        this.projection = projection;
+        this.chunkSize = chunkSize;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Convert the elements of an array of records in parallel, in the pool of the calling thread if it is a fork-join
+     * worker, in the common pool otherwise.
+     *
+     * @param elements The elements of the array
+     * @param clazz The class of the records
+     * @param schema The schema of the records
+     * @param namespaceContext The namespace context
+     * @param baseNamespace The base namespace for the generated SpecificRecord classes
+     * @param xpathSelector The xpathSelector property used to search for the xpath mapping in the Avro definition
+     * @param projection The fields of the records to convert. Null to convert all
+     * @return The records, in the order of the elements
+     */
+    static List<SpecificRecordBase> convert(
+            List<Node> elements,
+            Class<SpecificRecordBase> clazz,
+            Schema schema,
+            NamespaceContext namespaceContext,
+            String baseNamespace,
+            String xpathSelector,
+            Projection projection) {
+        if (namespaceContext instanceof XPathEvaluationContext evaluationContext
+                && hasAbsolutePaths(schema, xpathSelector, new HashSet<>())) {
+            readValues(evaluationContext.indexDescendants(elements.get(0)));
+        } else {
+            for (Node element : elements) {
+                readValues(element);
+            }
+        }
+
+        int parallelism = inForkJoinPool() ? getPool().getParallelism() : ForkJoinPool.getCommonPoolParallelism();
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, elements.size() / (parallelism * 4));
+        SpecificRecordBase[] records = new SpecificRecordBase[elements.size()];
+
+        new RecordArrayConversion(
+                        elements,
+                        records,
+                        clazz,
+                        namespaceContext,
+                        baseNamespace,
+                        xpathSelector,
+                        projection,
+                        chunkSize,
+                        0,
+                        elements.size())
+                .invoke();
+        return Arrays.asList(records);
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= chunkSize) {
+            NamespaceContext workerContext = namespaceContext instanceof XPathEvaluationContext evaluationContext
+                    ? evaluationContext.copy()
+                    : namespaceContext;
+            for (int i = from; i < to; i++) {
+                Node element = elements.get(i);
+                records[i] = XmlToAvroUtils.convert(
+                        element, element, clazz, workerContext, baseNamespace, xpathSelector, projection);
+            }
+            return;
+        }
+
+        int middle = (from + to) >>> 1;
+        invokeAll(range(from, middle), range(middle, to));
+    }
+
+    private RecordArrayConversion range(int rangeFrom, int rangeTo) {
+        return new RecordArrayConversion(
+                elements,
+                records,
+                clazz,
+                namespaceContext,
+                baseNamespace,
+                xpathSelector,
+                projection,
+                chunkSize,
+                rangeFrom,
+                rangeTo);
+    }
+
+    /**
+     * Tell whether a record, or one of the records it contains, has fields answered from the descendant index.
+     *
+     * @param record The record schema
+     * @param xpathSelector The xpathSelector property used to search for the xpath mapping in the Avro definition
+     * @param checked The full names of the records already checked
+     * @return true if a field has an absolute compiled xpath
+     */
+    private static boolean hasAbsolutePaths(Schema record, String xpathSelector, Set<String> checked) {
+        if (!checked.add(record.getFullName())) {
+            return false;
+        }
+
+        RecordPlan plan = RecordPlan.of(record, xpathSelector);
+        if (plan.hasAbsolutePaths()) {
+            return true;
+        }
+
+        for (RecordPlan.FieldPlan fieldPlan : plan.fields()) {
+            Schema type = fieldPlan.type();
+            if (type.getType() == Schema.Type.ARRAY) {
+                type = extractRealType(type.getElementType()).orElse(type);
+            }
+            if (type.getType() == Schema.Type.RECORD && hasAbsolutePaths(type, xpathSelector, checked)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Read the value of every node and attribute of an element, so that the deferred values are set before the element
+     * is read concurrently.
+     *
+     * @param node The element
+     */
+    private static void readValues(Node node) {
+        node.getNodeValue();
+
+        NamedNodeMap attributes = node.getAttributes();
+        if (attributes != null) {
+            for (int i = 0; i < attributes.getLength(); i++) {
+                attributes.item(i).getNodeValue();
+            }
+        }
+
+        for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+            readValues(child);
+        }
+    }
+}
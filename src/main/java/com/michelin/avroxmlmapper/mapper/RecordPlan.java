@@ -0,0 +1,334 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.michelin.avroxmlmapper.mapper;
+
+import static com.michelin.avroxmlmapper.constants.AvroXmlMapperConstants.INTERN_PROPERTY_NAME;
+import static com.michelin.avroxmlmapper.constants.AvroXmlMapperConstants.PARALLEL_THRESHOLD_PROPERTY_NAME;
+import static com.michelin.avroxmlmapper.constants.AvroXmlMapperConstants.XPATH_MAP_KEY_PROPERTY_NAME;
+import static com.michelin.avroxmlmapper.constants.AvroXmlMapperConstants.XPATH_MAP_ROOT_PROPERTY_NAME;
+import static com.michelin.avroxmlmapper.constants.AvroXmlMapperConstants.XPATH_MAP_VALUE_PROPERTY_NAME;
+
+import com.michelin.avroxmlmapper.utility.CompiledXPath;
+import com.michelin.avroxmlmapper.utility.GenericUtils;
+import com.michelin.avroxmlmapper.utility.StringInterner;
+import com.michelin.avroxmlmapper.utility.XPathFormatter;
+import com.michelin.avroxmlmapper.utility.XPathTrie;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.xml.namespace.NamespaceContext;
+import org.apache.avro.JsonProperties;
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.w3c.dom.Node;
+
+/**
+ * The conversion plan of a record schema for a given xpath selector, computed once and cached.
+ *
+ * <p>The xpaths of the fields are formatted once, and the compilable ones are merged into a {@link XPathTrie} so that
+ * all the fields of a record are extracted in a single traversal of the record element. The default values of the
+ * fields are converted once as well.
+ */
+final class RecordPlan {
+    private static final int MAX_CACHED_PLANS = 10_000;
+    private static final int INTERNED_VALUES_PER_FIELD = 1024;
+    private static final int MAX_PROJECTED_TRIES = 64;
+    private static final Map<String, Map<Schema, RecordPlan>> CACHE = new ConcurrentHashMap<>();
+
+    private final List<FieldPlan> fields;
+    private final List<CompiledXPath> compiledXPaths;
+    private final XPathTrie trie;
+    private final Map<Projection, XPathTrie> projectedTries = new ConcurrentHashMap<>();
+    private final boolean requiresOrphanNode;
+    private final boolean hasAbsolutePaths;
+
+    private RecordPlan(Schema schema, String xpathSelector) {
+        List<FieldPlan> fieldPlans = new ArrayList<>();
+        List<CompiledXPath> compiledXPaths = new ArrayList<>();
+        boolean orphanNodeUsed = false;
+
+        for (Schema.Field field : schema.getFields()) {
+            Optional<Schema> fieldType = GenericUtils.extractRealType(field.schema());
+            if (fieldType.isEmpty()) {
+                continue;
+            }
+
+            String xpath = XPathFormatter.format(field.getProp(xpathSelector));
+            CompiledXPath compiledXPath = null;
+
+            if (fieldType.get().getType() == Schema.Type.MAP) {
+                orphanNodeUsed |= !isMapCompilable(field.getObjectProp(xpathSelector));
+            } else if (xpath != null) {
+                compiledXPath = CompiledXPath.compile(xpath).orElse(null);
+                orphanNodeUsed |= compiledXPath == null;
+            }
+
+            StringInterner interner = Boolean.TRUE.equals(field.getObjectProp(INTERN_PROPERTY_NAME))
+                    ? new StringInterner(INTERNED_VALUES_PER_FIELD)
+                    : null;
+
+            fieldPlans.add(new FieldPlan(
+                    field,
+                    fieldType.get(),
+                    xpath,
+                    interner,
+                    parallelThreshold(field),
+                    defaultValue(field, fieldType.get())));
+            compiledXPaths.add(compiledXPath);
+        }
+
+        this.fields = Collections.unmodifiableList(fieldPlans);
+        this.compiledXPaths = compiledXPaths;
+        this.trie = XPathTrie.of(compiledXPaths);
+        this.requiresOrphanNode = orphanNodeUsed;
+        this.hasAbsolutePaths = compiledXPaths.stream().anyMatch(path -> path != null && path.isAbsolute());
+    }
+
+    /**
+     * Get the plan of a record schema, from the cache if it has already been computed.
+     *
+     * @param schema The record schema
+     * @param xpathSelector The xpathSelector property used to search for the xpath mapping in the Avro definition
+     * @return The plan
+     */
+    static RecordPlan of(Schema schema, String xpathSelector) {
+        Map<Schema, RecordPlan> plans = CACHE.computeIfAbsent(xpathSelector, k -> new ConcurrentHashMap<>());
+
+        RecordPlan plan = plans.get(schema);
+        if (plan == null) {
+            plan = new RecordPlan(schema, xpathSelector);
+            if (plans.size() < MAX_CACHED_PLANS) {
+                plans.put(schema, plan);
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Get the number of records from which an array of records is converted in parallel, in both directions.
+     *
+     * @param field The array field
+     * @return The number of records, 0 if the array is always converted sequentially
+     */
+    static int parallelThreshold(Schema.Field field) {
+        return field.getObjectProp(PARALLEL_THRESHOLD_PROPERTY_NAME) instanceof Number threshold
+                ? Math.max(threshold.intValue(), 0)
+                : 0;
+    }
+
+    /**
+     * Convert the default value of a field once, to the type set in the records: a BigDecimal for a decimal and an
+     * Instant for a timestamp. Enum defaults are kept as their symbol.
+     *
+     * @param field The field
+     * @param type The non-null type of the field
+     * @return The default value, null if the field has none or if it is null
+     */
+    private static Object defaultValue(Schema.Field field, Schema type) {
+        if (!field.hasDefaultValue() || field.defaultVal() == JsonProperties.NULL_VALUE) {
+            return null;
+        }
+
+        Object value = field.defaultVal();
+        if (type.getType() == Schema.Type.BYTES && type.getLogicalType() instanceof LogicalTypes.Decimal decimal) {
+            return new BigDecimal(
+                    new BigInteger((byte[]) value), decimal.getScale(), new MathContext(decimal.getPrecision()));
+        }
+        if (type.getType() == Schema.Type.LONG
+                && type.getLogicalType() != null
+                && type.getLogicalType().getName().equals("timestamp-millis")) {
+            return Instant.ofEpochMilli((Long) value);
+        }
+        return value;
+    }
+
+    /**
+     * Copy the lists and maps of a default value, which are mutable, the other values being immutable.
+     *
+     * @param value The default value
+     * @return The copy
+     */
+    private static Object copy(Object value) {
+        if (value instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>(list.size());
+            for (Object element : list) {
+                copy.add(copy(element));
+            }
+            return copy;
+        }
+
+        if (value instanceof Map<?, ?> map) {
+            Map<Object, Object> copy = new LinkedHashMap<>(map.size() * 2);
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                copy.put(entry.getKey(), copy(entry.getValue()));
+            }
+            return copy;
+        }
+
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean isMapCompilable(Object mapXpathProperties) {
+        if (!(mapXpathProperties instanceof Map<?, ?>)) {
+            return true;
+        }
+
+        Map<String, String> properties = (Map<String, String>) mapXpathProperties;
+        return CompiledXPath.compile(XPathFormatter.format(properties.get(XPATH_MAP_ROOT_PROPERTY_NAME)))
+                        .isPresent()
+                && CompiledXPath.compile(XPathFormatter.format(properties.get(XPATH_MAP_KEY_PROPERTY_NAME)))
+                        .isPresent()
+                && CompiledXPath.compile(XPathFormatter.format(properties.get(XPATH_MAP_VALUE_PROPERTY_NAME)))
+                        .isPresent();
+    }
+
+    /**
+     * Get the fields to convert, in the schema order.
+     *
+     * @return The fields
+     */
+    List<FieldPlan> fields() {
+        return fields;
+    }
+
+    /**
+     * Tell whether some fields can only be evaluated by the javax.xml.xpath engine, which works on a copy of the record
+     * element detached from the document.
+     *
+     * @return true if the record element must be copied before the conversion
+     */
+    boolean requiresOrphanNode() {
+        return requiresOrphanNode;
+    }
+
+    /**
+     * Tell whether some fields have a compiled xpath starting with {@code //}, which is answered from the descendant
+     * index of the whole document.
+     *
+     * @return true if a field has an absolute compiled xpath, the fields of the sub-records not being considered
+     */
+    boolean hasAbsolutePaths() {
+        return hasAbsolutePaths;
+    }
+
+    /**
+     * Extract the nodes matched by the xpath of each field, in a single traversal of the record element.
+     *
+     * @param node The record element
+     * @param namespaceContext The namespace context
+     * @return The matched nodes by index of field, null for the fields to evaluate one by one
+     */
+    List<List<Node>> evaluate(Node node, NamespaceContext namespaceContext) {
+        return trie.evaluate(node, namespaceContext);
+    }
+
+    /**
+     * Extract the nodes matched by the xpath of a single field, without traversing the record element for the others.
+     *
+     * @param fieldIndex The index of the field in the plan
+     * @param node The record element
+     * @param namespaceContext The namespace context
+     * @return The matched nodes, null if the xpath must be evaluated one by one
+     */
+    List<Node> evaluate(int fieldIndex, Node node, NamespaceContext namespaceContext) {
+        CompiledXPath compiledXPath = compiledXPaths.get(fieldIndex);
+        return compiledXPath != null ? compiledXPath.evaluate(node, namespaceContext) : null;
+    }
+
+    /**
+     * Extract the nodes matched by the xpath of each projected field, in a single traversal of the record element. The
+     * xpaths of the other fields are not evaluated.
+     *
+     * @param node The record element
+     * @param namespaceContext The namespace context
+     * @param projection The fields to extract, null for all of them
+     * @return The matched nodes by index of field, null for the fields to evaluate one by one and for the fields not
+     *     projected
+     */
+    List<List<Node>> evaluate(Node node, NamespaceContext namespaceContext, Projection projection) {
+        if (projection == null) {
+            return trie.evaluate(node, namespaceContext);
+        }
+
+        XPathTrie projectedTrie = projectedTries.get(projection);
+        if (projectedTrie == null) {
+            projectedTrie = projectedTrie(projection);
+            if (projectedTries.size() < MAX_PROJECTED_TRIES) {
+                projectedTries.put(projection, projectedTrie);
+            }
+        }
+        return projectedTrie.evaluate(node, namespaceContext);
+    }
+
+    private XPathTrie projectedTrie(Projection projection) {
+        List<CompiledXPath> projectedXPaths = new ArrayList<>(compiledXPaths.size());
+        for (int i = 0; i < fields.size(); i++) {
+            projectedXPaths.add(projection.includes(fields.get(i).field().name()) ? compiledXPaths.get(i) : null);
+        }
+        return XPathTrie.of(projectedXPaths);
+    }
+
+    /**
+     * The conversion plan of a field.
+     *
+     * @param field The field
+     * @param type The non-null type of the field
+     * @param xpath The formatted xpath of the field, null if there is none or if the field is a map
+     * @param interner The table deduplicating the string values of the field, null if they are not interned
+     * @param parallelThreshold The number of records from which an array of records is converted in parallel, 0 if it
+     *     is always converted sequentially
+     * @param defaultValue The default value of the field converted once, null if the field has none or if it is null
+     */
+    record FieldPlan(
+            Schema.Field field,
+            Schema type,
+            String xpath,
+            StringInterner interner,
+            int parallelThreshold,
+            Object defaultValue) {
+
+        /**
+         * Tell whether the field has a non-null default value.
+         *
+         * @return true if the field has a non-null default value
+         */
+        boolean hasDefaultValue() {
+            return defaultValue != null;
+        }
+
+        /**
+         * Get the default value of the field, the lists and maps being copied so that the records do not share them.
+         *
+         * @return The default value, null if the field has none or if it is null
+         */
+        @Override
+        public Object defaultValue() {
+            return copy(defaultValue);
+        }
+    }
+}
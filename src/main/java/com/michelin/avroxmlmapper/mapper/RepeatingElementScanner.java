@@ -0,0 +1,341 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.michelin.avroxmlmapper.mapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A byte-level scanner locating the elements of a repeating path in an XML document, without parsing it.
+ *
+ * <p>The path is made of the local names of the elements below the root element, such as {@code recordList/listItem}.
+ * The scanner only tracks the nesting of the elements and skips comments, CDATA sections, processing instructions and
+ * attribute values, so that it runs at the speed of the input. It expects an ASCII-compatible encoding such as UTF-8 or
+ * ISO-8859-1, and a well-formed document.
+ */
+final class RepeatingElementScanner {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final InputStream input;
+    private final byte[][] localNames;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private byte[] name = new byte[64];
+    private int nameLength;
+    private int localNameStart;
+    private int position;
+    private int limit;
+    private long offset;
+
+    private RepeatingElementScanner(InputStream input, String[] path) {
+        this.input = input;
+        this.localNames = new byte[path.length][];
+        for (int i = 0; i < path.length; i++) {
+            localNames[i] = path[i].getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Locate the elements of a repeating path.
+     *
+     * @param input The XML document
+     * @param path The local names of the elements below the root element, the last one being the repeating element
+     * @return The location of the repeating elements and of their ancestors
+     * @throws IOException If the document cannot be read
+     */
+    static Scan scan(InputStream input, String[] path) throws IOException {
+        return new RepeatingElementScanner(input, path).scan();
+    }
+
+    private Scan scan() throws IOException {
+        int targetDepth = localNames.length;
+        long[] ancestorStarts = new long[targetDepth];
+        long[] ancestorEnds = new long[targetDepth];
+        String[] ancestorNames = new String[targetDepth];
+        Scan scan = new Scan();
+
+        int depth = -1;
+        int matched = -1;
+        long itemStart = -1;
+        int c;
+
+        while ((c = read()) >= 0) {
+            if (c != '<') {
+                continue;
+            }
+
+            long tagStart = offset + position - 1;
+            c = read();
+            if (c == '?') {
+                skipPast("?>");
+            } else if (c == '!') {
+                skipDeclaration();
+            } else if (c == '/') {
+                skipTo('>');
+                if (matched == depth) {
+                    if (matched == targetDepth) {
+                        scan.addItem(itemStart, offset + position);
+                    }
+                    matched--;
+                }
+                depth--;
+            } else if (c >= 0) {
+                depth++;
+                boolean onPath = false;
+                if (depth == matched + 1 && depth <= targetDepth) {
+                    readName(c);
+                    onPath = depth == 0 || localNameEquals(localNames[depth - 1]);
+                }
+                boolean selfClosing = skipAttributes();
+                long tagEnd = offset + position;
+
+                if (depth == 0) {
+                    scan.prologEnd = tagStart;
+                }
+
+                if (onPath) {
+                    matched = depth;
+                    if (depth < targetDepth) {
+                        ancestorStarts[depth] = tagStart;
+                        ancestorEnds[depth] = tagEnd;
+                        ancestorNames[depth] = new String(name, 0, nameLength, StandardCharsets.UTF_8);
+                        if (depth == targetDepth - 1) {
+                            scan.parents.add(
+                                    new Parent(ancestorStarts.clone(), ancestorEnds.clone(), ancestorNames.clone()));
+                        }
+                    } else {
+                        itemStart = tagStart;
+                    }
+                }
+
+                if (selfClosing) {
+                    if (matched == depth) {
+                        if (matched == targetDepth) {
+                            scan.addItem(itemStart, tagEnd);
+                        }
+                        matched--;
+                    }
+                    depth--;
+                }
+            }
+        }
+        return scan;
+    }
+
+    /**
+     * Read the qualified name of the element whose start tag is being read into {@link #name}.
+     *
+     * @param first The first byte of the name
+     */
+    private void readName(int first) throws IOException {
+        nameLength = 0;
+        localNameStart = 0;
+        int c = first;
+
+        while (c >= 0 && !isNameEnd(c)) {
+            if (nameLength == name.length) {
+                name = Arrays.copyOf(name, nameLength * 2);
+            }
+            if (c == ':') {
+                localNameStart = nameLength + 1;
+            }
+            name[nameLength++] = (byte) c;
+            c = read();
+        }
+        if (c >= 0) {
+            // The byte ending the name belongs to the rest of the start tag
+            position--;
+        }
+    }
+
+    private boolean localNameEquals(byte[] expected) {
+        return Arrays.equals(name, localNameStart, nameLength, expected, 0, expected.length);
+    }
+
+    /**
+     * Skip the attributes of a start tag, up to its closing bracket.
+     *
+     * @return true if the element is self-closing
+     */
+    private boolean skipAttributes() throws IOException {
+        int previous = 0;
+        int c;
+        while ((c = read()) >= 0) {
+            if (c == '"' || c == '\'') {
+                skipTo(c);
+            } else if (c == '>') {
+                return previous == '/';
+            }
+            previous = c;
+        }
+        return false;
+    }
+
+    private void skipDeclaration() throws IOException {
+        int c = read();
+        if (c == '-') {
+            skipPast("-->");
+        } else if (c == '[') {
+            skipPast("]]>");
+        } else {
+            // Document type declaration, with an optional internal subset between brackets
+            int brackets = 0;
+            while (c >= 0 && (c != '>' || brackets > 0)) {
+                if (c == '[') {
+                    brackets++;
+                } else if (c == ']') {
+                    brackets--;
+                } else if (c == '"' || c == '\'') {
+                    skipTo(c);
+                }
+                c = read();
+            }
+        }
+    }
+
+    private void skipTo(int expected) throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c >= 0 && c != expected);
+    }
+
+    private void skipPast(String terminator) throws IOException {
+        // The last bytes read are kept in a sliding window compared to the terminator
+        int length = terminator.length();
+        int[] window = new int[length];
+        int count = 0;
+        int c;
+        while ((c = read()) >= 0) {
+            window[count++ % length] = c;
+            if (count >= length && windowEquals(window, count, terminator)) {
+                return;
+            }
+        }
+    }
+
+    private static boolean windowEquals(int[] window, int count, String terminator) {
+        int length = terminator.length();
+        for (int i = 0; i < length; i++) {
+            if (window[(count + i) % length] != terminator.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isNameEnd(int c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '/' || c == '>';
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            int count = input.read(buffer);
+            if (count <= 0) {
+                return -1;
+            }
+            offset += limit;
+            position = 0;
+            limit = count;
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    /**
+     * The ancestors of a group of repeating elements.
+     *
+     * @param tagStarts The offset of the start tag of each ancestor, from the root element
+     * @param tagEnds The offset following the start tag of each ancestor
+     * @param names The qualified name of each ancestor
+     */
+    record Parent(long[] tagStarts, long[] tagEnds, String[] names) {}
+
+    /** The location of the repeating elements in the document. */
+    static final class Scan {
+        private long prologEnd;
+        private final List<Parent> parents = new ArrayList<>();
+        private long[] itemStarts = new long[1024];
+        private long[] itemEnds = new long[1024];
+        private int[] itemParents = new int[1024];
+        private int itemCount;
+
+        private void addItem(long start, long end) {
+            if (itemCount == itemStarts.length) {
+                itemStarts = Arrays.copyOf(itemStarts, itemCount * 2);
+                itemEnds = Arrays.copyOf(itemEnds, itemCount * 2);
+                itemParents = Arrays.copyOf(itemParents, itemCount * 2);
+            }
+            itemStarts[itemCount] = start;
+            itemEnds[itemCount] = end;
+            itemParents[itemCount] = parents.size() - 1;
+            itemCount++;
+        }
+
+        /**
+         * Get the offset of the root element, the bytes before it being the prolog of the document.
+         *
+         * @return The offset of the root element
+         */
+        long prologEnd() {
+            return prologEnd;
+        }
+
+        /**
+         * Get the number of repeating elements.
+         *
+         * @return The number of repeating elements
+         */
+        int itemCount() {
+            return itemCount;
+        }
+
+        /**
+         * Get the offset of the start tag of a repeating element.
+         *
+         * @param item The index of the repeating element
+         * @return The offset
+         */
+        long itemStart(int item) {
+            return itemStarts[item];
+        }
+
+        /**
+         * Get the offset following the end tag of a repeating element.
+         *
+         * @param item The index of the repeating element
+         * @return The offset
+         */
+        long itemEnd(int item) {
+            return itemEnds[item];
+        }
+
+        /**
+         * Get the ancestors of a repeating element.
+         *
+         * @param item The index of the repeating element
+         * @return The ancestors
+         */
+        Parent parent(int item) {
+            return parents.get(itemParents[item]);
+        }
+    }
+}
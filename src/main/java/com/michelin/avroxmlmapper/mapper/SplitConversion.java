@@ -0,0 +1,563 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.michelin.avroxmlmapper.mapper;
+
+import static com.michelin.avroxmlmapper.constants.AvroXmlMapperConstants.XPATH_MAP_KEY_PROPERTY_NAME;
+import static com.michelin.avroxmlmapper.constants.AvroXmlMapperConstants.XPATH_MAP_ROOT_PROPERTY_NAME;
+import static com.michelin.avroxmlmapper.constants.AvroXmlMapperConstants.XPATH_MAP_VALUE_PROPERTY_NAME;
+import static com.michelin.avroxmlmapper.utility.GenericUtils.extractRealType;
+import static com.michelin.avroxmlmapper.utility.GenericUtils.getNamespaceContext;
+import static com.michelin.avroxmlmapper.utility.GenericUtils.inputStreamToDocument;
+import static com.michelin.avroxmlmapper.utility.GenericUtils.xmlNamespaces;
+
+import com.michelin.avroxmlmapper.exception.AvroXmlMapperException;
+import com.michelin.avroxmlmapper.utility.MappedFileInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
+import org.apache.avro.Schema;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.w3c.dom.Document;
+
+/**
+ * Conversion of an XML file whose bulk is an array of records, parsing the elements of the array in parallel.
+ *
+ * <p>The file is scanned once by a {@link RepeatingElementScanner} to locate the elements of the array. Groups of
+ * consecutive elements are then parsed and converted concurrently, each one wrapped in a copy of the prolog and of the
+ * start tags of its ancestors so that they are resolved against the same namespace declarations as in the file. The
+ * rest of the document is parsed without the elements of the array, and the converted elements are set back in their
+ * original order.
+ */
+final class SplitConversion {
+    /** A path of element names separated by slashes, without predicate nor axis. */
+    private static final Pattern SIMPLE_PATH = Pattern.compile("[\\w.-]+(:[\\w.-]+)?(/[\\w.-]+(:[\\w.-]+)?)*");
+
+    private static final int MIN_ITEMS_PER_CHUNK = 64;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final long ENCODING_DETECTION_SIZE = 128;
+
+    private SplitConversion() {}
+
+    /**
+     * Convert an XML file, parsing the elements of an array field in parallel.
+     *
+     * @param path The XML file to convert
+     * @param clazz The Avro object to convert to
+     * @param schema The schema of the Avro object
+     * @param xpathSelector The xpathSelector property used to search for the xpathMapping in the Avro definition
+     * @param xmlNamespacesSelector Name of the variable defining the xmlNamespaces of the avsc file
+     * @param arrayField The name of the array field holding the bulk of the document
+     * @param executor The executor parsing the elements of the array
+     * @param <T> The type of the Avro object
+     * @return The SpecificRecordBase object, null if the file cannot be split
+     * @throws IOException If the file cannot be read
+     */
+    static <T extends SpecificRecordBase> T convert(
+            Path path,
+            Class<T> clazz,
+            Schema schema,
+            String xpathSelector,
+            String xmlNamespacesSelector,
+            String arrayField,
+            Executor executor)
+            throws IOException {
+        Schema.Field field = arrayField(schema, xpathSelector, arrayField);
+        String[] elementPath = field.getProp(xpathSelector).split("/");
+        for (int i = 0; i < elementPath.length; i++) {
+            elementPath[i] = elementPath[i].substring(elementPath[i].indexOf(':') + 1);
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (!isAsciiCompatible(read(channel, 0, Math.min(channel.size(), ENCODING_DETECTION_SIZE)))) {
+                return null;
+            }
+
+            RepeatingElementScanner.Scan scan;
+            try (MappedFileInputStream inputStream = new MappedFileInputStream(path)) {
+                scan = RepeatingElementScanner.scan(inputStream, elementPath);
+            }
+            if (scan.itemCount() == 0) {
+                return null;
+            }
+
+            int itemsPerChunk = itemsPerChunk(scan.itemCount(), executor);
+            Projection projection = Projection.of(arrayField);
+            List<CompletableFuture<List<Object>>> chunks = new ArrayList<>();
+
+            int first = 0;
+            while (first < scan.itemCount()) {
+                int last = first;
+                while (last + 1 < scan.itemCount()
+                        && last + 1 - first < itemsPerChunk
+                        && scan.parent(last + 1) == scan.parent(first)) {
+                    last++;
+                }
+
+                int chunkFirst = first;
+                int chunkLast = last;
+                chunks.add(CompletableFuture.supplyAsync(
+                        () -> convertChunk(
+                                channel,
+                                scan,
+                                chunkFirst,
+                                chunkLast,
+                                clazz,
+                                schema,
+                                xpathSelector,
+                                xmlNamespacesSelector,
+                                projection,
+                                field),
+                        executor));
+                first = last + 1;
+            }
+
+            // The rest of the document is converted by the calling thread while the chunks are being converted
+            T message =
+                    convertDocument(skeleton(channel, scan), clazz, schema, xpathSelector, xmlNamespacesSelector, null);
+
+            List<Object> items = new ArrayList<>(scan.itemCount());
+            for (CompletableFuture<List<Object>> chunk : chunks) {
+                items.addAll(chunk.join());
+            }
+            message.put(field.pos(), items);
+            return message;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            if (e.getCause() instanceof AvroXmlMapperException mapperException) {
+                throw mapperException;
+            }
+            throw new AvroXmlMapperException("Failed to parse document", e.getCause());
+        }
+    }
+
+    private static Schema.Field arrayField(Schema schema, String xpathSelector, String arrayField) {
+        Schema.Field field = schema.getField(arrayField);
+        if (field == null) {
+            throw new IllegalArgumentException("Unknown field " + arrayField + " in " + schema.getFullName());
+        }
+
+        Schema fieldType = extractRealType(field.schema()).orElse(null);
+        if (fieldType == null
+                || fieldType.getType() != Schema.Type.ARRAY
+                || extractRealType(fieldType.getElementType())
+                        .filter(type -> type.getType() == Schema.Type.RECORD)
+                        .isEmpty()) {
+            throw new IllegalArgumentException("Field " + arrayField + " is not an array of records");
+        }
+
+        String xpath = field.getProp(xpathSelector);
+        if (xpath == null || !SIMPLE_PATH.matcher(xpath).matches()) {
+            throw new IllegalArgumentException(
+                    "Field " + arrayField + " must have a path of element names relative to the root, found " + xpath);
+        }
+
+        // The chunks of elements and the rest of the document are converted separately, so no field may read both
+        List<String> itemPath = elementNames(xpath);
+        checkWithinElement(
+                extractRealType(fieldType.getElementType()).orElseThrow(), xpathSelector, arrayField, new HashSet<>());
+        checkOutsideItems(schema, field, List.of(), itemPath, xpathSelector, arrayField, new HashSet<>());
+        return field;
+    }
+
+    /**
+     * Check that the fields of a record, and of the records it contains, only read the content of their own element.
+     *
+     * @param record The record schema
+     * @param xpathSelector The xpathSelector property used to search for the xpathMapping in the Avro definition
+     * @param arrayField The name of the array field converted in parallel
+     * @param checked The full names of the records already checked
+     * @throws IllegalArgumentException If an xpath may read outside of the element of its record
+     */
+    private static void checkWithinElement(
+            Schema record, String xpathSelector, String arrayField, Set<String> checked) {
+        if (!checked.add(record.getFullName())) {
+            return;
+        }
+
+        for (Schema.Field field : record.getFields()) {
+            for (String xpath : xpaths(field, xpathSelector)) {
+                if (leavesElement(xpath)) {
+                    throw new IllegalArgumentException(unsupportedField(record, field, xpath, arrayField));
+                }
+            }
+            for (Schema nested : nestedRecords(field)) {
+                checkWithinElement(nested, xpathSelector, arrayField, checked);
+            }
+        }
+    }
+
+    /**
+     * Check that the fields converted from the rest of the document do not read the elements of the array.
+     *
+     * @param record The record schema
+     * @param arrayField The array field converted in parallel, skipped in the root record
+     * @param context The element names from the root to the element of the record
+     * @param itemPath The element names from the root to the elements of the array
+     * @param xpathSelector The xpathSelector property used to search for the xpathMapping in the Avro definition
+     * @param arrayFieldName The name of the array field converted in parallel
+     * @param checked The records already checked, with their context
+     * @throws IllegalArgumentException If an xpath may read the elements of the array
+     */
+    private static void checkOutsideItems(
+            Schema record,
+            Schema.Field arrayField,
+            List<String> context,
+            List<String> itemPath,
+            String xpathSelector,
+            String arrayFieldName,
+            Set<String> checked) {
+        if (!checked.add(record.getFullName() + '@' + String.join("/", context))) {
+            return;
+        }
+
+        for (Schema.Field field : record.getFields()) {
+            if (field == arrayField) {
+                continue;
+            }
+
+            List<String> xpaths = xpaths(field, xpathSelector);
+            for (String xpath : xpaths) {
+                if (leavesElement(xpath)) {
+                    throw new IllegalArgumentException(unsupportedField(record, field, xpath, arrayFieldName));
+                }
+            }
+            if (xpaths.isEmpty()) {
+                continue;
+            }
+
+            // The first xpath of a map is its root, to which the keys and values are relative
+            String xpath = xpaths.get(0);
+            List<String> path = new ArrayList<>(context);
+            path.addAll(elementNames(xpath));
+            boolean readsContent = xpaths.size() > 1 || endsWithElement(xpath);
+
+            if (startsWith(path, itemPath)
+                    || (startsWith(itemPath, path)
+                            && readsContent
+                            && nestedRecords(field).isEmpty())) {
+                // The field reads the elements of the array, or the text of one of their ancestors
+                throw new IllegalArgumentException(unsupportedField(record, field, xpath, arrayFieldName));
+            }
+
+            for (Schema nested : nestedRecords(field)) {
+                if (startsWith(itemPath, path)) {
+                    checkOutsideItems(nested, null, path, itemPath, xpathSelector, arrayFieldName, checked);
+                } else {
+                    checkWithinElement(nested, xpathSelector, arrayFieldName, new HashSet<>());
+                }
+            }
+        }
+    }
+
+    /**
+     * Tell whether an xpath may select nodes out of the subtree of its context element.
+     *
+     * @param xpath The xpath
+     * @return true if the xpath is absolute, or uses the descendant, parent or another axis
+     */
+    private static boolean leavesElement(String xpath) {
+        return xpath.startsWith("/") || xpath.contains("//") || xpath.contains("..") || xpath.contains("::");
+    }
+
+    /**
+     * Get the xpaths of a field: its xpath, or the root, key and value xpaths of a map.
+     *
+     * @param field The field
+     * @param xpathSelector The xpathSelector property used to search for the xpathMapping in the Avro definition
+     * @return The xpaths, the root one first, empty if the field has none
+     */
+    private static List<String> xpaths(Schema.Field field, String xpathSelector) {
+        Object property = field.getObjectProp(xpathSelector);
+        if (property instanceof String xpath) {
+            return List.of(xpath);
+        }
+
+        List<String> xpaths = new ArrayList<>();
+        if (property instanceof Map<?, ?> properties) {
+            for (String name :
+                    List.of(XPATH_MAP_ROOT_PROPERTY_NAME, XPATH_MAP_KEY_PROPERTY_NAME, XPATH_MAP_VALUE_PROPERTY_NAME)) {
+                if (properties.get(name) instanceof String xpath) {
+                    xpaths.add(xpath);
+                }
+            }
+        }
+        return xpaths;
+    }
+
+    /**
+     * Get the record schemas held by a field, directly or as the elements or values of an array or a map.
+     *
+     * @param field The field
+     * @return The record schemas
+     */
+    private static List<Schema> nestedRecords(Schema.Field field) {
+        Schema type = extractRealType(field.schema()).orElse(null);
+        if (type != null && type.getType() == Schema.Type.ARRAY) {
+            type = extractRealType(type.getElementType()).orElse(null);
+        } else if (type != null && type.getType() == Schema.Type.MAP) {
+            type = extractRealType(type.getValueType()).orElse(null);
+        }
+        return type != null && type.getType() == Schema.Type.RECORD ? List.of(type) : List.of();
+    }
+
+    /**
+     * Get the names of the elements stepped through by an xpath, without their prefix and predicates, up to its first
+     * step which is not an element name.
+     *
+     * @param xpath The xpath
+     * @return The element names
+     */
+    private static List<String> elementNames(String xpath) {
+        List<String> names = new ArrayList<>();
+        for (String step : xpath.replaceAll("\\[[^]]*]", "").split("/")) {
+            String name = step.substring(step.indexOf(':') + 1);
+            if (name.isEmpty() || name.equals(".")) {
+                continue;
+            }
+            if (!SIMPLE_PATH.matcher(name).matches()) {
+                break;
+            }
+            names.add(name);
+        }
+        return names;
+    }
+
+    /**
+     * Tell whether the last step of an xpath selects elements, whose content is read, rather than attributes or text
+     * nodes.
+     *
+     * @param xpath The xpath
+     * @return true if the last step is an element name or the context element
+     */
+    private static boolean endsWithElement(String xpath) {
+        String path = xpath.replaceAll("\\[[^]]*]", "");
+        String step = path.substring(path.lastIndexOf('/') + 1);
+        step = step.substring(step.indexOf(':') + 1);
+        return step.equals(".") || step.equals("*") || SIMPLE_PATH.matcher(step).matches();
+    }
+
+    private static boolean startsWith(List<String> path, List<String> prefix) {
+        return path.size() >= prefix.size() && path.subList(0, prefix.size()).equals(prefix);
+    }
+
+    private static String unsupportedField(Schema record, Schema.Field field, String xpath, String arrayField) {
+        return "Field " + field.name() + " of " + record.getFullName() + " may read outside of its element or the"
+                + " elements of " + arrayField + ", which are converted apart from the rest of the document: " + xpath;
+    }
+
+    /**
+     * Tell whether the file is encoded with a charset the byte-level scanner can read, from its byte order mark or its
+     * XML declaration.
+     *
+     * @param head The first bytes of the file
+     * @return true if the charset is compatible with ASCII
+     */
+    private static boolean isAsciiCompatible(byte[] head) {
+        // UTF-16 and UTF-32 encode '<' with zero bytes, with or without byte order mark
+        if (head.length >= 2
+                && (head[0] == 0 || head[1] == 0 || (head[0] & 0xFF) == 0xFE || (head[0] & 0xFF) == 0xFF)) {
+            return false;
+        }
+
+        String declaration = new String(head, StandardCharsets.ISO_8859_1).toUpperCase(Locale.ROOT);
+        return !declaration.contains("UTF-16") && !declaration.contains("UTF-32") && !declaration.contains("EBCDIC");
+    }
+
+    private static int itemsPerChunk(int itemCount, Executor executor) {
+        int parallelism = executor instanceof ForkJoinPool pool
+                ? pool.getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        return Math.max(
+                MIN_ITEMS_PER_CHUNK,
+                (itemCount + parallelism * CHUNKS_PER_THREAD - 1) / (parallelism * CHUNKS_PER_THREAD));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends SpecificRecordBase> List<Object> convertChunk(
+            FileChannel channel,
+            RepeatingElementScanner.Scan scan,
+            int first,
+            int last,
+            Class<T> clazz,
+            Schema schema,
+            String xpathSelector,
+            String xmlNamespacesSelector,
+            Projection projection,
+            Schema.Field field) {
+        try {
+            RepeatingElementScanner.Parent parent = scan.parent(first);
+
+            // The elements are wrapped in the prolog and in the start tags of their ancestors, then closed
+            ByteArrayOutputStream head = new ByteArrayOutputStream();
+            head.write(read(channel, 0, scan.prologEnd()));
+            for (int i = 0; i < parent.tagStarts().length; i++) {
+                head.write(read(channel, parent.tagStarts()[i], parent.tagEnds()[i]));
+            }
+            StringBuilder tail = new StringBuilder();
+            for (int i = parent.names().length - 1; i >= 0; i--) {
+                tail.append("</").append(parent.names()[i]).append('>');
+            }
+
+            InputStream chunk = new SequenceInputStream(Collections.enumeration(List.of(
+                    new ByteArrayInputStream(head.toByteArray()),
+                    new FileRangesInputStream(
+                            channel, new long[] {scan.itemStart(first)}, new long[] {scan.itemEnd(last)}),
+                    new ByteArrayInputStream(tail.toString().getBytes(StandardCharsets.UTF_8)))));
+
+            T message = convertDocument(chunk, clazz, schema, xpathSelector, xmlNamespacesSelector, projection);
+            Object items = message.get(field.pos());
+            return items != null ? (List<Object>) items : List.of();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static InputStream skeleton(FileChannel channel, RepeatingElementScanner.Scan scan) throws IOException {
+        int itemCount = scan.itemCount();
+        long[] starts = new long[itemCount + 1];
+        long[] ends = new long[itemCount + 1];
+
+        long position = 0;
+        for (int i = 0; i < itemCount; i++) {
+            starts[i] = position;
+            ends[i] = scan.itemStart(i);
+            position = scan.itemEnd(i);
+        }
+        starts[itemCount] = position;
+        ends[itemCount] = channel.size();
+
+        return new FileRangesInputStream(channel, starts, ends);
+    }
+
+    private static <T extends SpecificRecordBase> T convertDocument(
+            InputStream inputStream,
+            Class<T> clazz,
+            Schema schema,
+            String xpathSelector,
+            String xmlNamespacesSelector,
+            Projection projection) {
+        Document document = inputStreamToDocument(inputStream, xmlNamespaces(schema, xmlNamespacesSelector));
+        return XmlToAvroUtils.convert(
+                document.getDocumentElement(),
+                document.getDocumentElement(),
+                clazz,
+                getNamespaceContext(schema, xmlNamespacesSelector),
+                schema.getNamespace(),
+                xpathSelector,
+                projection);
+    }
+
+    private static byte[] read(FileChannel channel, long start, long end) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, start + buffer.position()) < 0) {
+                break;
+            }
+        }
+        return buffer.array();
+    }
+
+    /**
+     * An input stream reading ranges of a file one after the other, with positional reads so that several streams can
+     * read the same channel concurrently.
+     */
+    private static final class FileRangesInputStream extends InputStream {
+        private final FileChannel channel;
+        private final long[] starts;
+        private final long[] ends;
+        private final ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        private int range;
+        private long position;
+
+        private FileRangesInputStream(FileChannel channel, long[] starts, long[] ends) {
+            this.channel = channel;
+            this.starts = starts;
+            this.ends = ends;
+            this.position = starts.length > 0 ? starts[0] : 0;
+            buffer.flip();
+        }
+
+        @Override
+        public int read() throws IOException {
+            return fill() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+
+            int count = Math.min(len, buffer.remaining());
+            buffer.get(b, off, count);
+            return count;
+        }
+
+        private boolean fill() throws IOException {
+            while (!buffer.hasRemaining()) {
+                if (range == starts.length) {
+                    return false;
+                }
+                if (position >= ends[range]) {
+                    range++;
+                    if (range < starts.length) {
+                        position = starts[range];
+                    }
+                    continue;
+                }
+
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), ends[range] - position));
+                int count = channel.read(buffer, position);
+                if (count < 0) {
+                    return false;
+                }
+                position += count;
+                buffer.flip();
+            }
+            return true;
+        }
+    }
+}
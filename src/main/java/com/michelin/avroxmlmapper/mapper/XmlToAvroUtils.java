@@ -22,9 +22,11 @@ import static com.michelin.avroxmlmapper.constants.AvroXmlMapperConstants.*;
 import static com.michelin.avroxmlmapper.utility.GenericUtils.*;
 
 import com.michelin.avroxmlmapper.exception.AvroXmlMapperException;
+import com.michelin.avroxmlmapper.jfr.SlowFieldEvent;
+import com.michelin.avroxmlmapper.utility.StringInterner;
+import com.michelin.avroxmlmapper.utility.XPathEvaluationContext;
 import com.michelin.avroxmlmapper.utility.XPathFormatter;
 import java.math.BigDecimal;
-import java.math.BigInteger;
 import java.math.MathContext;
 import java.math.RoundingMode;
 import java.text.ParseException;
@@ -38,7 +40,6 @@ import java.time.format.DateTimeParseException;
 import java.time.temporal.TemporalAccessor;
 import java.util.*;
 import javax.xml.namespace.NamespaceContext;
-import org.apache.avro.JsonProperties;
 import org.apache.avro.LogicalTypes;
 import org.apache.avro.Schema;
 import org.apache.avro.specific.SpecificRecordBase;
@@ -49,6 +50,22 @@ import org.w3c.dom.Node;
 
 /** Utility class for converting XML to Avro. */
 public final class XmlToAvroUtils {
+    private static final ClassValue<Object[]> BLANK_VALUES = new ClassValue<>() {
+        @Override
+        protected Object[] computeValue(Class<?> type) {
+            try {
+                SpecificRecordBase blank =
+                        (SpecificRecordBase) type.getDeclaredConstructor().newInstance();
+                Object[] values = new Object[blank.getSchema().getFields().size()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = blank.get(i);
+                }
+                return values;
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Cannot instantiate " + type.getName(), e);
+            }
+        }
+    };
 
     private XmlToAvroUtils() {}
 
@@ -61,6 +78,7 @@ public final class XmlToAvroUtils {
      * @param namespaceContext the namespace context
      * @param baseNamespace base namespace for the generated SpecificRecord classes
      * @param xpathSelector the xpathSelector property used to search for the xpath mapping in the Avro definition
+     * @param projection the fields to convert, the others being left at their default value. Null to convert all
      * @param <T> The type of the Avro object
      * @return SpecificRecord generated
      */
@@ -70,62 +88,63 @@ public final class XmlToAvroUtils {
             Class<T> clazz,
             NamespaceContext namespaceContext,
             String baseNamespace,
-            String xpathSelector) {
+            String xpathSelector,
+            Projection projection) {
+        return convert(fullNode, orphanNode, clazz, null, namespaceContext, baseNamespace, xpathSelector, projection);
+    }
+
+    /**
+     * Converts, recursively, the content of an XML-node into a SpecificRecord (avro), overwriting the fields of an
+     * existing record rather than allocating a new one. The result is equal to the one of a conversion into a new
+     * record. The sub-records, ArrayLists and HashMaps held by the record are reused for the same fields when their
+     * class matches, the other values being dropped.
+     *
+     * @param fullNode XML-node to convert
+     * @param orphanNode XML-node to convert without parent context
+     * @param clazz class of the SpecificRecord to generate
+     * @param reuse the record to overwrite, null to allocate a new one
+     * @param namespaceContext the namespace context
+     * @param baseNamespace base namespace for the generated SpecificRecord classes
+     * @param xpathSelector the xpathSelector property used to search for the xpath mapping in the Avro definition
+     * @param projection the fields to convert, the others being left at their default value. Null to convert all
+     * @param <T> The type of the Avro object
+     * @return The reused record, or the SpecificRecord generated if there was none
+     */
+    static <T extends SpecificRecordBase> T convert(
+            Node fullNode,
+            Node orphanNode,
+            Class<T> clazz,
+            T reuse,
+            NamespaceContext namespaceContext,
+            String baseNamespace,
+            String xpathSelector,
+            Projection projection) {
         try {
-            T message = clazz.getDeclaredConstructor().newInstance();
+            T message = reuse != null ? reuse : clazz.getDeclaredConstructor().newInstance();
+            Object[] previousValues = reuse != null ? resetFields(reuse) : null;
+            RecordPlan plan = RecordPlan.of(message.getSchema(), xpathSelector);
+            List<List<Node>> matchedNodes = plan.evaluate(fullNode, namespaceContext, projection);
 
-            for (Schema.Field field : message.getSchema().getFields()) {
-                Optional<Schema> fieldType = extractRealType(field.schema());
+            for (int i = 0; i < plan.fields().size(); i++) {
+                RecordPlan.FieldPlan fieldPlan = plan.fields().get(i);
+                Schema.Field field = fieldPlan.field();
 
-                if (fieldType.isEmpty()) {
+                if (projection != null && !projection.includes(field.name())) {
+                    putDefaultValue(message, fieldPlan);
                     continue;
                 }
 
-                switch (fieldType.get().getType()) {
-                    case NULL, UNION, ENUM:
-                        break;
-                    case RECORD:
-                        convertXMLRecordToAvro(
-                                message,
-                                fullNode,
-                                orphanNode,
-                                namespaceContext,
-                                baseNamespace,
-                                field,
-                                fieldType.get(),
-                                xpathSelector);
-                        break;
-                    case ARRAY:
-                        convertXMLArrayToAvro(
-                                message,
-                                fullNode,
-                                orphanNode,
-                                namespaceContext,
-                                baseNamespace,
-                                field,
-                                fieldType.get(),
-                                xpathSelector);
-                        break;
-                    case MAP:
-                        convertXMLMapToAvro(
-                                message, fullNode, orphanNode, namespaceContext, field, fieldType.get(), xpathSelector);
-                        break;
-                    case LONG:
-                        // Handle dates to a TimezonedTimestamp format
-                        if (fieldType.get().getLogicalType() != null
-                                && fieldType.get().getLogicalType().getName().equals("timestamp-millis")) {
-                            convertXMLDateToAvro(message, fullNode, orphanNode, namespaceContext, field, xpathSelector);
-                        }
-                        break;
-                    case BYTES:
-                        convertXMLBytesToAvro(
-                                message, fullNode, orphanNode, namespaceContext, field, fieldType.get(), xpathSelector);
-                        break;
-                    default:
-                        // all other = primitive types
-                        convertXMLPrimitiveTypeToAvro(
-                                message, fullNode, orphanNode, namespaceContext, field, fieldType.get(), xpathSelector);
-                }
+                convertField(
+                        message,
+                        fullNode,
+                        orphanNode,
+                        namespaceContext,
+                        baseNamespace,
+                        xpathSelector,
+                        fieldPlan,
+                        matchedNodes.get(i),
+                        projection != null ? projection.field(field.name()) : null,
+                        previousValues != null ? previousValues[field.pos()] : null);
             }
             return message;
         } catch (Exception e) {
@@ -133,14 +152,115 @@ public final class XmlToAvroUtils {
         }
     }
 
+    /**
+     * Converts a single field of a record from the nodes matched by its xpath.
+     *
+     * @param message The record to fill
+     * @param fullNode XML-node of the record
+     * @param orphanNode XML-node of the record without parent context
+     * @param namespaceContext the namespace context
+     * @param baseNamespace base namespace for the generated SpecificRecord classes
+     * @param xpathSelector the xpathSelector property used to search for the xpath mapping in the Avro definition
+     * @param fieldPlan The conversion plan of the field
+     * @param nodes The nodes extracted by the record plan, null if the xpath must be evaluated
+     * @param projection the sub-fields to convert for a record or an array of records. Null to convert all
+     * @param previousValue The value of the field before the conversion, whose record, ArrayList or HashMap is reused.
+     *     Null to allocate new ones
+     * @throws ClassNotFoundException If the class of a sub-record cannot be found
+     */
+    static void convertField(
+            SpecificRecordBase message,
+            Node fullNode,
+            Node orphanNode,
+            NamespaceContext namespaceContext,
+            String baseNamespace,
+            String xpathSelector,
+            RecordPlan.FieldPlan fieldPlan,
+            List<Node> nodes,
+            Projection projection,
+            Object previousValue)
+            throws ClassNotFoundException {
+        Schema.Field field = fieldPlan.field();
+        Schema fieldType = fieldPlan.type();
+        String xpath = fieldPlan.xpath();
+
+        SlowFieldEvent slowFieldEvent = new SlowFieldEvent();
+        slowFieldEvent.begin();
+
+        switch (fieldType.getType()) {
+            case NULL, UNION:
+                break;
+            case ENUM:
+                convertXMLEnumToAvro(message, fullNode, orphanNode, namespaceContext, fieldPlan, nodes);
+                break;
+            case RECORD:
+                convertXMLRecordToAvro(
+                        message,
+                        fullNode,
+                        orphanNode,
+                        namespaceContext,
+                        baseNamespace,
+                        field,
+                        fieldType,
+                        xpath,
+                        nodes,
+                        xpathSelector,
+                        projection,
+                        previousValue);
+                break;
+            case ARRAY:
+                convertXMLArrayToAvro(
+                        message,
+                        fullNode,
+                        orphanNode,
+                        namespaceContext,
+                        baseNamespace,
+                        fieldPlan,
+                        nodes,
+                        xpathSelector,
+                        projection,
+                        previousValue);
+                break;
+            case MAP:
+                convertXMLMapToAvro(
+                        message, fullNode, orphanNode, namespaceContext, fieldPlan, xpathSelector, previousValue);
+                break;
+            case LONG:
+                // Handle dates to a TimezonedTimestamp format
+                if (fieldType.getLogicalType() != null
+                        && fieldType.getLogicalType().getName().equals("timestamp-millis")) {
+                    convertXMLDateToAvro(message, fullNode, orphanNode, namespaceContext, fieldPlan, nodes);
+                }
+                break;
+            case BYTES:
+                convertXMLBytesToAvro(message, fullNode, orphanNode, namespaceContext, fieldPlan, nodes);
+                break;
+            default:
+                // all other = primitive types
+                convertXMLPrimitiveTypeToAvro(message, fullNode, orphanNode, namespaceContext, fieldPlan, nodes);
+        }
+
+        slowFieldEvent.end();
+        if (slowFieldEvent.shouldCommit()) {
+            slowFieldEvent.set(
+                    message.getSchema().getFullName(),
+                    field.name(),
+                    String.valueOf(field.getObjectProp(xpathSelector)));
+            slowFieldEvent.commit();
+        }
+    }
+
     private static void convertXMLMapToAvro(
             SpecificRecordBase message,
             Node fullNode,
             Node orphanNode,
             NamespaceContext namespaceContext,
-            Schema.Field field,
-            Schema fieldType,
-            String xpathSelector) {
+            RecordPlan.FieldPlan fieldPlan,
+            String xpathSelector,
+            Object previousValue) {
+        Schema.Field field = fieldPlan.field();
+        Schema fieldType = fieldPlan.type();
+
         // Initialize value Schema
         Schema valueSchema = fieldType.getValueType();
         String rootXpath = null;
@@ -165,16 +285,18 @@ public final class XmlToAvroUtils {
                     || valueSchema.getType() == Schema.Type.FLOAT
                     || valueSchema.getType() == Schema.Type.DOUBLE
                     || valueSchema.getType() == Schema.Type.BOOLEAN) {
-                Map<String, Object> mapPrimitive = new HashMap<>();
+                Map<String, Object> mapPrimitive = reusableMap(previousValue);
                 for (Node elementNode :
                         asList(xPathNodeListEvaluation(fullNode, orphanNode, rootXpath, namespaceContext))) {
                     var orphanElementNode = elementNode.cloneNode(true);
                     String key = xPathStringEvaluation(elementNode, orphanElementNode, keyXpath, namespaceContext);
 
                     // Get the value to apply default if it isn't there
-                    var value = parseValue(
-                            valueSchema.getType(),
-                            xPathStringEvaluation(elementNode, orphanElementNode, valueXpath, namespaceContext));
+                    String text = xPathStringEvaluation(elementNode, orphanElementNode, valueXpath, namespaceContext);
+                    var value = parseValue(valueSchema.getType(), text);
+                    if (value == null && text != null) {
+                        reportInvalidValue(namespaceContext, message, field, valueSchema, text);
+                    }
                     if (value == null) {
                         value = fieldType.getObjectProps().get("default");
                     }
@@ -186,8 +308,8 @@ public final class XmlToAvroUtils {
                     message.put(field.name(), mapPrimitive);
                 } else {
                     // Set avro default value if it's different from null
-                    if (field.hasDefaultValue() && field.defaultVal() != JsonProperties.NULL_VALUE) {
-                        message.put(field.name(), field.defaultVal());
+                    if (fieldPlan.hasDefaultValue()) {
+                        message.put(field.name(), fieldPlan.defaultValue());
                     }
                 }
             } else { // For example a map<String, SpecificRecordBase>
@@ -196,8 +318,8 @@ public final class XmlToAvroUtils {
             }
         } else {
             // Set avro default value if it's different from null
-            if (field.hasDefaultValue() && field.defaultVal() != JsonProperties.NULL_VALUE) {
-                message.put(field.name(), field.defaultVal());
+            if (fieldPlan.hasDefaultValue()) {
+                message.put(field.name(), fieldPlan.defaultValue());
             }
         }
     }
@@ -208,32 +330,67 @@ public final class XmlToAvroUtils {
             Node orphanNode,
             NamespaceContext namespaceContext,
             String baseNamespace,
-            Schema.Field field,
-            Schema fieldType,
-            String xpathSelector)
+            RecordPlan.FieldPlan fieldPlan,
+            List<Node> nodes,
+            String xpathSelector,
+            Projection projection,
+            Object previousValue)
             throws ClassNotFoundException {
-        Schema elementSchema = fieldType.getElementType();
-        String xpath = XPathFormatter.format(field.getProp(xpathSelector));
+        Schema.Field field = fieldPlan.field();
+        String xpath = fieldPlan.xpath();
+        StringInterner interner = fieldPlan.interner();
+        Schema elementSchema = fieldPlan.type().getElementType();
 
         if (xpath != null) {
             Optional<Schema> schema = extractRealType(elementSchema);
 
             if (schema.isPresent() && schema.get().getType() == Schema.Type.RECORD) { // An array of records
-                List<SpecificRecordBase> listRecords = new ArrayList<>();
-                for (Node elementNode :
-                        asList(xPathNodeListEvaluation(fullNode, orphanNode, xpath, namespaceContext))) {
-                    listRecords.add(convert(
-                            elementNode,
-                            elementNode,
-                            baseClass(baseNamespace, elementSchema.getName()),
+                List<Node> elementNodes = nodeList(nodes, fullNode, orphanNode, xpath, namespaceContext);
+                Class<SpecificRecordBase> elementClass = baseClass(message, baseNamespace, elementSchema.getName());
+                List<SpecificRecordBase> listRecords = reusableList(previousValue);
+
+                if (fieldPlan.parallelThreshold() > 0 && elementNodes.size() >= fieldPlan.parallelThreshold()) {
+                    listRecords.clear();
+                    listRecords.addAll(RecordArrayConversion.convert(
+                            elementNodes,
+                            elementClass,
+                            schema.get(),
                             namespaceContext,
                             baseNamespace,
-                            xpathSelector));
+                            xpathSelector,
+                            projection));
+                } else {
+                    // The previous records are overwritten in place, the extra ones being removed at the end
+                    int previousSize = listRecords.size();
+                    for (int i = 0; i < elementNodes.size(); i++) {
+                        Node elementNode = elementNodes.get(i);
+                        SpecificRecordBase record = convert(
+                                elementNode,
+                                elementNode,
+                                elementClass,
+                                i < previousSize ? reusable(listRecords.get(i), elementClass) : null,
+                                namespaceContext,
+                                baseNamespace,
+                                xpathSelector,
+                                projection);
+                        if (i < previousSize) {
+                            listRecords.set(i, record);
+                        } else {
+                            listRecords.add(record);
+                        }
+                    }
+                    if (previousSize > elementNodes.size()) {
+                        listRecords.subList(elementNodes.size(), previousSize).clear();
+                    }
                 }
                 message.put(field.name(), listRecords);
             } else if (schema.isPresent() && schema.get().getType() == Schema.Type.STRING) { // An array of string
-                List<String> listValues =
-                        new ArrayList<>(xPathStringListEvaluation(fullNode, orphanNode, xpath, namespaceContext));
+                List<String> listValues = reusableList(previousValue);
+                listValues.clear();
+                listValues.addAll(stringList(nodes, fullNode, orphanNode, xpath, namespaceContext));
+                if (interner != null) {
+                    listValues.replaceAll(interner::intern);
+                }
                 message.put(field.name(), listValues);
             } else { // An array of other primitive values
                 throw new NotImplementedException(
@@ -241,8 +398,8 @@ public final class XmlToAvroUtils {
             }
         } else {
             // Set Avro default value if it is different from null
-            if (field.hasDefaultValue() && field.defaultVal() != JsonProperties.NULL_VALUE) {
-                message.put(field.name(), field.defaultVal());
+            if (fieldPlan.hasDefaultValue()) {
+                message.put(field.name(), fieldPlan.defaultValue());
             }
         }
     }
@@ -252,28 +409,28 @@ public final class XmlToAvroUtils {
             Node fullNode,
             Node orphanNode,
             NamespaceContext namespaceContext,
-            Schema.Field field,
-            Schema fieldType,
-            String xpathSelector) {
+            RecordPlan.FieldPlan fieldPlan,
+            List<Node> nodes) {
+        Schema fieldType = fieldPlan.type();
+        String xpath = fieldPlan.xpath();
         if (fieldType.getLogicalType() != null
                 && fieldType.getLogicalType().getName().equals("decimal")) {
-            String xpath = XPathFormatter.format(field.getProp(xpathSelector));
             BigDecimal result = null;
             var scale = ((LogicalTypes.Decimal) fieldType.getLogicalType()).getScale();
             var mathContext = new MathContext(((LogicalTypes.Decimal) fieldType.getLogicalType()).getPrecision());
             if (xpath != null) {
-                String value = xPathStringEvaluation(fullNode, orphanNode, xpath, namespaceContext);
+                String value = stringValue(nodes, fullNode, orphanNode, xpath, namespaceContext);
                 if (value != null) {
                     result = new BigDecimal(value)
                             .setScale(scale, RoundingMode.HALF_UP)
                             .round(mathContext);
                 }
             }
-            if (result == null && field.hasDefaultValue() && field.defaultVal() != JsonProperties.NULL_VALUE) {
+            if (result == null && fieldPlan.hasDefaultValue()) {
                 // Set avro default value if it's different from null
-                result = new BigDecimal(new BigInteger((byte[]) field.defaultVal()), scale, mathContext);
+                result = (BigDecimal) fieldPlan.defaultValue();
             }
-            message.put(field.name(), result);
+            message.put(fieldPlan.field().name(), result);
         }
     }
 
@@ -282,21 +439,21 @@ public final class XmlToAvroUtils {
             Node fullNode,
             Node orphanNode,
             NamespaceContext namespaceContext,
-            Schema.Field field,
-            String xpathSelector) {
-        String xpath = XPathFormatter.format(field.getProp(xpathSelector));
+            RecordPlan.FieldPlan fieldPlan,
+            List<Node> nodes) {
+        String xpath = fieldPlan.xpath();
         Instant resultDate = null;
         if (xpath != null) {
-            String dateTimeString = xPathStringEvaluation(fullNode, orphanNode, xpath, namespaceContext);
+            String dateTimeString = stringValue(nodes, fullNode, orphanNode, xpath, namespaceContext);
             if (dateTimeString != null && !dateTimeString.isEmpty()) {
                 // convert to date
                 resultDate = convertUnknownFormatDateToTimestamp(dateTimeString);
             }
         }
-        if (resultDate == null && field.hasDefaultValue() && field.defaultVal() != JsonProperties.NULL_VALUE) {
-            resultDate = Instant.ofEpochMilli((Long) field.defaultVal());
+        if (resultDate == null && fieldPlan.hasDefaultValue()) {
+            resultDate = (Instant) fieldPlan.defaultValue();
         }
-        message.put(field.name(), resultDate);
+        message.put(fieldPlan.field().name(), resultDate);
     }
 
     private static void convertXMLRecordToAvro(
@@ -307,49 +464,277 @@ public final class XmlToAvroUtils {
             String baseNamespace,
             Schema.Field field,
             Schema fieldType,
-            String xpathSelector)
+            String xpath,
+            List<Node> nodes,
+            String xpathSelector,
+            Projection projection,
+            Object previousValue)
             throws ClassNotFoundException {
-        String xpath = XPathFormatter.format(field.getProp(xpathSelector));
-
         if (xpath != null) {
-            List<Node> nodeList = asList(xPathNodeListEvaluation(fullNode, orphanNode, xpath, namespaceContext));
+            List<Node> nodeList = nodeList(nodes, fullNode, orphanNode, xpath, namespaceContext);
 
             if (!nodeList.isEmpty()) {
                 var currentNode = nodeList.get(0);
+                // The detached copy is only used by the xpaths evaluated with the javax.xml.xpath engine
+                var orphanCurrentNode = RecordPlan.of(fieldType, xpathSelector).requiresOrphanNode()
+                        ? currentNode.cloneNode(true)
+                        : currentNode;
+                Class<SpecificRecordBase> recordClass = baseClass(message, baseNamespace, fieldType.getName());
                 message.put(
                         field.name(),
                         convert(
                                 currentNode,
-                                currentNode.cloneNode(true),
-                                baseClass(baseNamespace, fieldType.getName()),
+                                orphanCurrentNode,
+                                recordClass,
+                                reusable(previousValue, recordClass),
                                 namespaceContext,
                                 baseNamespace,
-                                xpathSelector));
+                                xpathSelector,
+                                projection));
             }
         }
     }
 
+    private static void convertXMLEnumToAvro(
+            SpecificRecordBase message,
+            Node fullNode,
+            Node orphanNode,
+            NamespaceContext namespaceContext,
+            RecordPlan.FieldPlan fieldPlan,
+            List<Node> nodes) {
+        Schema.Field field = fieldPlan.field();
+        String xpath = fieldPlan.xpath();
+        EnumSymbols symbols = EnumSymbols.of(fieldPlan.type(), message.getClass());
+        if (xpath != null) {
+            String value = stringValue(nodes, fullNode, orphanNode, xpath, namespaceContext);
+            if (value != null) {
+                boolean ignoreCase = Boolean.TRUE.equals(field.getObjectProp(CASE_INSENSITIVE_PROPERTY_NAME));
+                Object constant = symbols.constant(value.trim(), ignoreCase);
+                if (constant != null) {
+                    message.put(field.name(), constant);
+                    return;
+                }
+            }
+        }
+        if (fieldPlan.hasDefaultValue()) {
+            message.put(field.name(), symbols.constant((String) fieldPlan.defaultValue(), false));
+        }
+    }
+
     private static void convertXMLPrimitiveTypeToAvro(
             SpecificRecordBase message,
             Node fullNode,
             Node orphanNode,
             NamespaceContext namespaceContext,
-            Schema.Field field,
-            Schema fieldType,
-            String xpathSelector) {
-        String xpath = XPathFormatter.format(field.getProp(xpathSelector));
+            RecordPlan.FieldPlan fieldPlan,
+            List<Node> nodes) {
+        Schema.Field field = fieldPlan.field();
+        String xpath = fieldPlan.xpath();
+        StringInterner interner = fieldPlan.interner();
         if (xpath != null) {
-            Object value = parseValue(
-                    fieldType.getType(), xPathStringEvaluation(fullNode, orphanNode, xpath, namespaceContext));
+            Schema fieldType = fieldPlan.type();
+            String text = stringValue(nodes, fullNode, orphanNode, xpath, namespaceContext);
+            Object value = parseValue(fieldType.getType(), text);
+            if (value == null && text != null) {
+                reportInvalidValue(namespaceContext, message, field, fieldType, text);
+            }
+            if (interner != null && value instanceof String string) {
+                value = interner.intern(string);
+            }
             if (value != null) {
                 message.put(field.name(), value);
                 return;
             }
         }
         if (field.hasDefaultValue()) {
-            var defaultVal = field.defaultVal();
-            message.put(field.name(), defaultVal == JsonProperties.NULL_VALUE ? null : defaultVal);
+            message.put(field.name(), fieldPlan.defaultValue());
+        }
+    }
+
+    /**
+     * Report a value which could not be parsed to the diagnostics collector of the conversion, if there is one.
+     *
+     * @param namespaceContext The namespace context, holding the diagnostics collector
+     * @param message The record
+     * @param field The field
+     * @param type The expected type of the value
+     * @param text The text of the value
+     */
+    private static void reportInvalidValue(
+            NamespaceContext namespaceContext,
+            SpecificRecordBase message,
+            Schema.Field field,
+            Schema type,
+            String text) {
+        if (namespaceContext instanceof XPathEvaluationContext evaluationContext
+                && evaluationContext.getDiagnostics() != null) {
+            evaluationContext
+                    .getDiagnostics()
+                    .report(
+                            message.getSchema().getFullName(),
+                            field.name(),
+                            text,
+                            "Not a valid " + type.getType().getName() + " value");
+        }
+    }
+
+    /**
+     * Reset the fields of a record to the values of a new instance, so that the fields which are not converted are left
+     * as in a new record.
+     *
+     * @param record The record
+     * @return The values of the fields before the reset, by position
+     * @throws IllegalStateException If the class of the record cannot be instantiated
+     */
+    private static Object[] resetFields(SpecificRecordBase record) {
+        Object[] blankValues = BLANK_VALUES.get(record.getClass());
+        Object[] previousValues = new Object[blankValues.length];
+        for (int i = 0; i < blankValues.length; i++) {
+            previousValues[i] = record.get(i);
+            record.put(i, blankValues[i]);
+        }
+        return previousValues;
+    }
+
+    /**
+     * Get the previous value of a record field if it can be reused for a record of a class.
+     *
+     * @param previousValue The previous value, possibly null
+     * @param clazz The class of the record to convert
+     * @return The previous record, or null if it is not of the class
+     */
+    private static SpecificRecordBase reusable(Object previousValue, Class<SpecificRecordBase> clazz) {
+        return previousValue != null && previousValue.getClass() == clazz ? (SpecificRecordBase) previousValue : null;
+    }
+
+    /**
+     * Get the previous value of an array field if it can be reused, a new list otherwise.
+     *
+     * @param previousValue The previous value, possibly null
+     * @param <E> The type of the elements
+     * @return The previous list, or a new one if it is not an ArrayList
+     */
+    @SuppressWarnings("unchecked")
+    private static <E> List<E> reusableList(Object previousValue) {
+        return previousValue instanceof ArrayList<?> list ? (List<E>) list : new ArrayList<>();
+    }
+
+    /**
+     * Get the previous value of a map field cleared if it can be reused, a new map otherwise.
+     *
+     * @param previousValue The previous value, possibly null
+     * @return The previous map cleared, or a new one if it is not a HashMap
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> reusableMap(Object previousValue) {
+        if (previousValue instanceof HashMap<?, ?> map) {
+            map.clear();
+            return (Map<String, Object>) map;
+        }
+        return new HashMap<>();
+    }
+
+    /**
+     * Set a field left out of the projection to the value it gets when its xpath matches nothing: its default value if
+     * it has one, the fields of the types left untouched by the conversion in that case being left as they are.
+     *
+     * @param message The record
+     * @param fieldPlan The conversion plan of the field
+     */
+    private static void putDefaultValue(SpecificRecordBase message, RecordPlan.FieldPlan fieldPlan) {
+        if (!fieldPlan.hasDefaultValue()) {
+            return;
+        }
+
+        Schema type = fieldPlan.type();
+        String name = fieldPlan.field().name();
+        switch (type.getType()) {
+            case NULL, UNION, RECORD -> {
+                // Left untouched
+            }
+            case ENUM ->
+                message.put(
+                        name,
+                        EnumSymbols.of(type, message.getClass()).constant((String) fieldPlan.defaultValue(), false));
+            case LONG -> {
+                if (type.getLogicalType() != null
+                        && type.getLogicalType().getName().equals("timestamp-millis")) {
+                    message.put(name, fieldPlan.defaultValue());
+                }
+            }
+            case BYTES -> {
+                if (type.getLogicalType() != null
+                        && type.getLogicalType().getName().equals("decimal")) {
+                    message.put(name, fieldPlan.defaultValue());
+                }
+            }
+            default -> message.put(name, fieldPlan.defaultValue());
+        }
+    }
+
+    /**
+     * Get the nodes matched by the xpath of a field, evaluating it if they have not been extracted by the record plan.
+     *
+     * @param nodes The nodes extracted by the record plan, null if the xpath must be evaluated
+     * @param fullNode XML-node of the record
+     * @param orphanNode XML-node of the record without parent context
+     * @param xpath The xpath of the field
+     * @param namespaceContext The namespace context
+     * @return The matched nodes
+     */
+    static List<Node> nodeList(
+            List<Node> nodes, Node fullNode, Node orphanNode, String xpath, NamespaceContext namespaceContext) {
+        return nodes != null ? nodes : asList(xPathNodeListEvaluation(fullNode, orphanNode, xpath, namespaceContext));
+    }
+
+    /**
+     * Get the string value of a field, with the same semantic as
+     * {@link com.michelin.avroxmlmapper.utility.GenericUtils#xPathStringEvaluation(Node, Node, String,
+     * NamespaceContext)}.
+     *
+     * @param nodes The nodes extracted by the record plan, null if the xpath must be evaluated
+     * @param fullNode XML-node of the record
+     * @param orphanNode XML-node of the record without parent context
+     * @param xpath The xpath of the field
+     * @param namespaceContext The namespace context
+     * @return The string value, null if nothing matches or if the value is blank
+     */
+    private static String stringValue(
+            List<Node> nodes, Node fullNode, Node orphanNode, String xpath, NamespaceContext namespaceContext) {
+        if (nodes == null) {
+            return xPathStringEvaluation(fullNode, orphanNode, xpath, namespaceContext);
         }
+
+        if (nodes.isEmpty()) {
+            return null;
+        }
+
+        String value = nodes.get(0).getTextContent();
+        return !value.isBlank() ? value : null;
+    }
+
+    /**
+     * Get the string values of a field, with the same semantic as
+     * {@link com.michelin.avroxmlmapper.utility.GenericUtils#xPathStringListEvaluation(Node, Node, String,
+     * NamespaceContext)}.
+     *
+     * @param nodes The nodes extracted by the record plan, null if the xpath must be evaluated
+     * @param fullNode XML-node of the record
+     * @param orphanNode XML-node of the record without parent context
+     * @param xpath The xpath of the field
+     * @param namespaceContext The namespace context
+     * @return The non-empty string values
+     */
+    private static List<String> stringList(
+            List<Node> nodes, Node fullNode, Node orphanNode, String xpath, NamespaceContext namespaceContext) {
+        if (nodes == null) {
+            return xPathStringListEvaluation(fullNode, orphanNode, xpath, namespaceContext);
+        }
+
+        return nodes.stream()
+                .map(Node::getTextContent)
+                .filter(s -> !s.isEmpty())
+                .toList();
     }
 
     /**
@@ -480,10 +865,21 @@ public final class XmlToAvroUtils {
         return result.toInstant();
     }
 
+    /**
+     * Get the class of a sub-record, from the class loader of its parent record, so that records loaded by another
+     * class loader than this library, such as from a jar given at runtime, can be converted.
+     *
+     * @param parent The parent record
+     * @param baseNamespace base namespace for the generated SpecificRecord classes
+     * @param typeName The name of the sub-record type
+     * @return The class of the sub-record
+     * @throws ClassNotFoundException If the class cannot be found
+     */
     @SuppressWarnings("unchecked")
-    private static Class<SpecificRecordBase> baseClass(String baseNamespace, String typeName)
+    static Class<SpecificRecordBase> baseClass(SpecificRecordBase parent, String baseNamespace, String typeName)
             throws ClassNotFoundException {
-        return (Class<SpecificRecordBase>) Class.forName(baseNamespace + "." + typeName);
+        return (Class<SpecificRecordBase>) Class.forName(
+                baseNamespace + "." + typeName, true, parent.getClass().getClassLoader());
     }
 
     /**
@@ -0,0 +1,707 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.michelin.avroxmlmapper.utility;
+
+import static com.michelin.avroxmlmapper.constants.AvroXmlMapperConstants.XMLNS;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.xml.namespace.NamespaceContext;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * An xpath compiled into direct DOM navigation steps, bypassing the javax.xml.xpath engine.
+ *
+ * <p>Only the subset of xpath produced by {@link XPathFormatter#format(String)} for the common mappings is supported:
+ *
+ * <ul>
+ *   <li>the context node: {@code .}
+ *   <li>a leading descendant step, looked up in the descendant index of the document: {@code //ns2:a/b}
+ *   <li>child elements by qualified name: {@code ns2:a/noprefixns:b}
+ *   <li>a trailing attribute, matched on its lower-cased local name: {@code @*[translate(local-name(), ...) = 'attr']}
+ *       or on its exact name: {@code @attr}
+ *   <li>attribute equality predicates: {@code a[@*[translate(local-name(), ...) = 'type']='X']}
+ *   <li>positional predicates: {@code a[2]}
+ * </ul>
+ *
+ * Any other expression (functions, axes, boolean operators, {@code /} absolute paths, descendant steps after the first
+ * one...) is not compiled and must be evaluated with the JDK engine.
+ */
+public final class CompiledXPath {
+    private static final int MAX_CACHED_EXPRESSIONS = 10_000;
+    private static final Map<String, Optional<CompiledXPath>> CACHE = new ConcurrentHashMap<>();
+    private static final String CASE_INSENSITIVE_ATTRIBUTE =
+            "*[translate(local-name(), 'ABCDEFGHIJKLMNOPQRSTUVWXYZ', 'abcdefghijklmnopqrstuvwxyz') = '";
+
+    private final String expression;
+    private final List<Step> steps;
+
+    private CompiledXPath(String expression, List<Step> steps) {
+        this.expression = expression;
+        this.steps = steps;
+    }
+
+    /**
+     * Compile an xpath, using a cache of the expressions already compiled.
+     *
+     * @param xpath The xpath to compile, as formatted by {@link XPathFormatter#format(String)}
+     * @return The compiled xpath, or an empty optional if the expression is outside the supported subset
+     */
+    public static Optional<CompiledXPath> compile(String xpath) {
+        if (xpath == null) {
+            return Optional.empty();
+        }
+
+        Optional<CompiledXPath> compiled = CACHE.get(xpath);
+        if (compiled == null) {
+            compiled = Optional.ofNullable(new Parser(xpath).parse());
+            if (CACHE.size() < MAX_CACHED_EXPRESSIONS) {
+                CACHE.put(xpath, compiled);
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * Get the source expression.
+     *
+     * @return The xpath this instance was compiled from
+     */
+    public String getExpression() {
+        return expression;
+    }
+
+    List<Step> steps() {
+        return steps;
+    }
+
+    /**
+     * Tell whether the xpath starts with a descendant step, and is therefore evaluated against the whole document
+     * rather than the context node.
+     *
+     * @return true if the first step is a descendant step
+     */
+    public boolean isAbsolute() {
+        return !steps.isEmpty() && steps.get(0) instanceof DescendantStep;
+    }
+
+    /**
+     * Evaluate the xpath against a context node.
+     *
+     * @param context The context node
+     * @param namespaceContext The namespace context used to resolve the prefixes
+     * @return The matched nodes in document order, or null if a prefix cannot be resolved by the namespace context
+     */
+    public List<Node> evaluate(Node context, NamespaceContext namespaceContext) {
+        List<Node> current = Collections.singletonList(context);
+
+        for (Step step : steps) {
+            if (current.isEmpty()) {
+                return current;
+            }
+
+            if (step instanceof DescendantStep descendantStep) {
+                ChildStep childStep = descendantStep.step();
+                String namespaceURI = childStep.resolveNamespaceURI(namespaceContext);
+                if (namespaceURI == null && childStep.prefix() != null) {
+                    return null;
+                }
+                current = descendantStep.apply(context, namespaceURI, namespaceContext);
+            } else if (step instanceof ChildStep childStep) {
+                String namespaceURI = childStep.resolveNamespaceURI(namespaceContext);
+                if (namespaceURI == null && childStep.prefix() != null) {
+                    return null;
+                }
+                current = childStep.apply(current, namespaceURI, namespaceContext);
+            } else if (step instanceof AttributeStep attributeStep) {
+                current = attributeStep.apply(current, namespaceContext);
+            }
+        }
+
+        return current;
+    }
+
+    /**
+     * Evaluate the xpath against a context node and return the string value of the first node matched, as the
+     * javax.xml.xpath engine does with {@link javax.xml.xpath.XPathConstants#STRING}.
+     *
+     * @param context The context node
+     * @param namespaceContext The namespace context used to resolve the prefixes
+     * @return The string value, an empty string if nothing matches, or null if a prefix cannot be resolved
+     */
+    public String evaluateString(Node context, NamespaceContext namespaceContext) {
+        List<Node> nodes = evaluate(context, namespaceContext);
+
+        if (nodes == null) {
+            return null;
+        }
+
+        return nodes.isEmpty() ? "" : nodes.get(0).getTextContent();
+    }
+
+    static boolean isNamespaceDeclaration(Node attribute) {
+        String name = attribute.getNodeName();
+        return name.startsWith(XMLNS) && (name.length() == XMLNS.length() || name.charAt(XMLNS.length()) == ':');
+    }
+
+    private static String localName(Node attribute) {
+        String localName = attribute.getLocalName();
+        if (localName == null) {
+            String nodeName = attribute.getNodeName();
+            localName = nodeName.substring(nodeName.indexOf(':') + 1);
+        }
+        return localName;
+    }
+
+    /**
+     * Lower-case the local name of an attribute the same way as {@code translate(local-name(), 'ABC...', 'abc...')}:
+     * only ASCII upper-case letters are lowered.
+     *
+     * @param attribute The attribute
+     * @return The lower-cased local name
+     */
+    static String lowerCaseLocalName(Node attribute) {
+        String localName = localName(attribute);
+
+        for (int i = 0; i < localName.length(); i++) {
+            char c = localName.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                char[] chars = localName.toCharArray();
+                for (int j = i; j < chars.length; j++) {
+                    if (chars[j] >= 'A' && chars[j] <= 'Z') {
+                        chars[j] = (char) (chars[j] + ('a' - 'A'));
+                    }
+                }
+                return new String(chars);
+            }
+        }
+        return localName;
+    }
+
+    static boolean attributeMatches(Node attribute, String name, boolean ignoreCase) {
+        if (isNamespaceDeclaration(attribute)) {
+            return false;
+        }
+
+        String localName = localName(attribute);
+
+        if (!ignoreCase) {
+            return attribute.getNamespaceURI() == null && localName.equals(name);
+        }
+
+        if (localName.length() != name.length()) {
+            return false;
+        }
+        for (int i = 0; i < localName.length(); i++) {
+            char c = localName.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                c = (char) (c + ('a' - 'A'));
+            }
+            if (c != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the attribute index of an element, if the namespace context is an {@link XPathEvaluationContext} and the
+     * element is worth indexing.
+     */
+    private static Map<String, Node> attributeIndex(Node element, NamespaceContext namespaceContext) {
+        return namespaceContext instanceof XPathEvaluationContext evaluationContext
+                ? evaluationContext.attributeIndex(element)
+                : null;
+    }
+
+    /**
+     * Add the attributes of an element matching a name to a result. Only one attribute can match a case-sensitive name,
+     * but several can match a case-insensitive one.
+     */
+    private static void addAttributes(
+            Node element, String name, boolean ignoreCase, NamespaceContext namespaceContext, List<Node> result) {
+        NamedNodeMap attributes = element.getAttributes();
+        if (attributes == null) {
+            return;
+        }
+
+        if (ignoreCase) {
+            Map<String, Node> index = attributeIndex(element, namespaceContext);
+            if (index != null) {
+                Node attribute = index.get(name);
+                if (attribute != null) {
+                    result.add(attribute);
+                }
+                return;
+            }
+        }
+
+        for (int i = 0; i < attributes.getLength(); i++) {
+            Node attribute = attributes.item(i);
+            if (attributeMatches(attribute, name, ignoreCase)) {
+                result.add(attribute);
+                if (!ignoreCase) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the root of the tree of a node: the document, or the topmost ancestor of a detached node.
+     *
+     * @param node The node
+     * @return The root
+     */
+    static Node root(Node node) {
+        Node root = node;
+        for (Node parent = root.getParentNode(); parent != null; parent = parent.getParentNode()) {
+            root = parent;
+        }
+        return root;
+    }
+
+    /**
+     * Collect the descendant elements of a node, in document order and without the node itself.
+     *
+     * @param node The node
+     * @param namespaceURI The namespace URI of the elements, null to match the elements without namespace
+     * @param localName The local name of the elements
+     * @param result The list the elements are added to
+     */
+    private static void addDescendants(Node node, String namespaceURI, String localName, List<Node> result) {
+        for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.ELEMENT_NODE) {
+                String childNamespaceURI = child.getNamespaceURI();
+                if (localName.equals(child.getLocalName())
+                        && (namespaceURI == null
+                                ? childNamespaceURI == null || childNamespaceURI.isEmpty()
+                                : namespaceURI.equals(childNamespaceURI))) {
+                    result.add(child);
+                }
+                addDescendants(child, namespaceURI, localName, result);
+            }
+        }
+    }
+
+    sealed interface Step permits SelfStep, ChildStep, DescendantStep, AttributeStep {}
+
+    sealed interface Predicate permits PositionPredicate, AttributePredicate {}
+
+    /** The context node: {@code .} */
+    record SelfStep() implements Step {}
+
+    /** Child elements matching a qualified name, filtered by predicates. */
+    record ChildStep(String prefix, String localName, List<Predicate> predicates) implements Step {
+        String resolveNamespaceURI(NamespaceContext namespaceContext) {
+            if (prefix == null) {
+                return null;
+            }
+
+            String namespaceURI = namespaceContext == null ? null : namespaceContext.getNamespaceURI(prefix);
+            return namespaceURI == null || namespaceURI.isEmpty() ? null : namespaceURI;
+        }
+
+        boolean matches(Node node, String namespaceURI) {
+            if (node.getNodeType() != Node.ELEMENT_NODE || !localName.equals(node.getLocalName())) {
+                return false;
+            }
+
+            String nodeNamespaceURI = node.getNamespaceURI();
+            return namespaceURI == null
+                    ? nodeNamespaceURI == null || nodeNamespaceURI.isEmpty()
+                    : namespaceURI.equals(nodeNamespaceURI);
+        }
+
+        List<Node> apply(List<Node> parents, String namespaceURI, NamespaceContext namespaceContext) {
+            List<Node> result = new ArrayList<>();
+            List<Node> candidates = predicates.isEmpty() ? result : new ArrayList<>();
+
+            for (Node parent : parents) {
+                for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+                    if (matches(child, namespaceURI)) {
+                        candidates.add(child);
+                    }
+                }
+
+                if (!predicates.isEmpty()) {
+                    result.addAll(filter(candidates, namespaceContext));
+                    candidates.clear();
+                }
+            }
+
+            return result;
+        }
+
+        List<Node> filter(List<Node> candidates, NamespaceContext namespaceContext) {
+            return filter(candidates, predicates, namespaceContext);
+        }
+
+        static List<Node> filter(List<Node> candidates, List<Predicate> predicates, NamespaceContext namespaceContext) {
+            List<Node> filtered = candidates;
+
+            for (Predicate predicate : predicates) {
+                if (predicate instanceof PositionPredicate positionPredicate) {
+                    filtered = positionPredicate.position() <= filtered.size()
+                            ? List.of(filtered.get(positionPredicate.position() - 1))
+                            : List.of();
+                } else if (predicate instanceof AttributePredicate attributePredicate) {
+                    List<Node> matching = new ArrayList<>();
+                    for (Node candidate : filtered) {
+                        if (attributePredicate.matches(candidate, namespaceContext)) {
+                            matching.add(candidate);
+                        }
+                    }
+                    filtered = matching;
+                }
+            }
+
+            return filtered;
+        }
+    }
+
+    /**
+     * The elements of the whole document matching a child step: {@code //a[...]}. The predicates of the step apply to
+     * the matching children of each parent, as for {@code /descendant-or-self::node()/child::a[...]}.
+     *
+     * <p>When the first predicate is an attribute equality, such as the reference lookups {@code //a[@id='X']}, the
+     * candidates are taken from the key index of the document rather than filtered one by one.
+     */
+    record DescendantStep(ChildStep step) implements Step {
+        List<Node> apply(Node context, String namespaceURI, NamespaceContext namespaceContext) {
+            Node root = root(context);
+            List<Predicate> predicates = step.predicates();
+            List<Node> candidates;
+            if (namespaceContext instanceof XPathEvaluationContext evaluationContext) {
+                if (!predicates.isEmpty() && predicates.get(0) instanceof AttributePredicate key) {
+                    candidates = evaluationContext.descendantsByAttribute(
+                            root, namespaceURI, step.localName(), key.name(), key.ignoreCase(), key.value());
+                    predicates = predicates.subList(1, predicates.size());
+                } else {
+                    candidates = evaluationContext.descendants(root, namespaceURI, step.localName());
+                }
+            } else {
+                candidates = new ArrayList<>();
+                addDescendants(root, namespaceURI, step.localName(), candidates);
+            }
+
+            if (predicates.isEmpty()) {
+                return candidates;
+            }
+            if (predicates.stream().noneMatch(PositionPredicate.class::isInstance)) {
+                return ChildStep.filter(candidates, predicates, namespaceContext);
+            }
+
+            // The positions are counted among the siblings: the candidates are grouped by parent, and the filtered
+            // ones are then put back in document order
+            Map<Node, List<Node>> siblings = new IdentityHashMap<>();
+            for (Node candidate : candidates) {
+                siblings.computeIfAbsent(candidate.getParentNode(), p -> new ArrayList<>())
+                        .add(candidate);
+            }
+
+            Set<Node> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (List<Node> group : siblings.values()) {
+                kept.addAll(ChildStep.filter(group, predicates, namespaceContext));
+            }
+
+            List<Node> result = new ArrayList<>(kept.size());
+            for (Node candidate : candidates) {
+                if (kept.contains(candidate)) {
+                    result.add(candidate);
+                }
+            }
+            return result;
+        }
+    }
+
+    /** A trailing attribute of the context elements. */
+    record AttributeStep(String name, boolean ignoreCase) implements Step {
+        List<Node> apply(List<Node> elements, NamespaceContext namespaceContext) {
+            List<Node> result = new ArrayList<>();
+
+            for (Node element : elements) {
+                addAttributes(element, name, ignoreCase, namespaceContext, result);
+            }
+
+            return result;
+        }
+    }
+
+    /** A positional predicate: {@code [n]} */
+    record PositionPredicate(int position) implements Predicate {}
+
+    /** An attribute equality predicate: {@code [@attr='value']} */
+    record AttributePredicate(String name, boolean ignoreCase, String value) implements Predicate {
+        boolean matches(Node element, NamespaceContext namespaceContext) {
+            if (ignoreCase) {
+                Map<String, Node> index = attributeIndex(element, namespaceContext);
+                if (index != null) {
+                    Node attribute = index.get(name);
+                    return attribute != null && value.equals(attribute.getNodeValue());
+                }
+            }
+
+            NamedNodeMap attributes = element.getAttributes();
+
+            for (int i = 0; i < attributes.getLength(); i++) {
+                Node attribute = attributes.item(i);
+                if (attributeMatches(attribute, name, ignoreCase) && value.equals(attribute.getNodeValue())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /** Hand-written parser of the supported subset. Every parse method returns null when the input is unsupported. */
+    private static final class Parser {
+        private final String input;
+        private int position;
+
+        Parser(String input) {
+            this.input = input;
+        }
+
+        CompiledXPath parse() {
+            List<Step> steps = new ArrayList<>();
+
+            if (input.startsWith("//")) {
+                position = 2;
+                if (!(parseStep() instanceof ChildStep childStep)
+                        || position < input.length() && input.charAt(position) != '/') {
+                    return null;
+                }
+                steps.add(new DescendantStep(childStep));
+                if (position == input.length()) {
+                    return new CompiledXPath(input, List.copyOf(steps));
+                }
+                if (++position == input.length() || input.charAt(position) == '/') {
+                    return null;
+                }
+            }
+
+            while (true) {
+                Step step = parseStep();
+                if (step == null) {
+                    return null;
+                }
+                if (!(step instanceof SelfStep)) {
+                    steps.add(step);
+                }
+
+                if (position == input.length()) {
+                    return new CompiledXPath(input, List.copyOf(steps));
+                }
+
+                // Attributes can only be the last step, and '//' is only supported at the start
+                if (step instanceof AttributeStep
+                        || input.charAt(position) != '/'
+                        || ++position == input.length()
+                        || input.charAt(position) == '/') {
+                    return null;
+                }
+            }
+        }
+
+        private Step parseStep() {
+            if (position == input.length()) {
+                return null;
+            }
+
+            char c = input.charAt(position);
+            if (c == '.') {
+                position++;
+                if (position < input.length() && input.charAt(position) == '.') {
+                    return null;
+                }
+                return new SelfStep();
+            }
+
+            if (c == '@') {
+                position++;
+                return parseAttributeTest();
+            }
+
+            String qualifiedName = parseQualifiedName();
+            if (qualifiedName == null
+                    || (position < input.length()
+                            && (input.charAt(position) == '(' || input.charAt(position) == ':'))) {
+                return null;
+            }
+
+            List<Predicate> predicates = new ArrayList<>();
+            while (position < input.length() && input.charAt(position) == '[') {
+                Predicate predicate = parsePredicate();
+                if (predicate == null) {
+                    return null;
+                }
+                predicates.add(predicate);
+            }
+
+            int separator = qualifiedName.indexOf(':');
+            return separator == -1
+                    ? new ChildStep(null, qualifiedName, List.copyOf(predicates))
+                    : new ChildStep(
+                            qualifiedName.substring(0, separator),
+                            qualifiedName.substring(separator + 1),
+                            List.copyOf(predicates));
+        }
+
+        private AttributeStep parseAttributeTest() {
+            if (input.startsWith(CASE_INSENSITIVE_ATTRIBUTE, position)) {
+                position += CASE_INSENSITIVE_ATTRIBUTE.length();
+                int end = input.indexOf('\'', position);
+                if (end == -1 || !input.startsWith("']", end)) {
+                    return null;
+                }
+                String name = input.substring(position, end);
+                position = end + 2;
+                return new AttributeStep(name, true);
+            }
+
+            String name = parseQualifiedName();
+            if (name == null || name.indexOf(':') != -1) {
+                return null;
+            }
+            return new AttributeStep(name, false);
+        }
+
+        private Predicate parsePredicate() {
+            position++; // '['
+            skipWhitespaces();
+            if (position == input.length()) {
+                return null;
+            }
+
+            Predicate predicate;
+            char c = input.charAt(position);
+            if (c >= '0' && c <= '9') {
+                int start = position;
+                while (position < input.length() && Character.isDigit(input.charAt(position))) {
+                    position++;
+                }
+                int value;
+                try {
+                    value = Integer.parseInt(input.substring(start, position));
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+                if (value < 1) {
+                    return null;
+                }
+                predicate = new PositionPredicate(value);
+            } else if (c == '@') {
+                position++;
+                AttributeStep attribute = parseAttributeTest();
+                if (attribute == null) {
+                    return null;
+                }
+                skipWhitespaces();
+                if (position == input.length() || input.charAt(position) != '=') {
+                    return null;
+                }
+                position++;
+                skipWhitespaces();
+                String literal = parseLiteral();
+                if (literal == null) {
+                    return null;
+                }
+                predicate = new AttributePredicate(attribute.name(), attribute.ignoreCase(), literal);
+            } else {
+                return null;
+            }
+
+            skipWhitespaces();
+            if (position == input.length() || input.charAt(position) != ']') {
+                return null;
+            }
+            position++;
+            return predicate;
+        }
+
+        private String parseLiteral() {
+            if (position == input.length()) {
+                return null;
+            }
+
+            char quote = input.charAt(position);
+            if (quote != '\'' && quote != '"') {
+                return null;
+            }
+
+            int end = input.indexOf(quote, position + 1);
+            if (end == -1) {
+                return null;
+            }
+
+            String literal = input.substring(position + 1, end);
+            position = end + 1;
+            return literal;
+        }
+
+        private String parseQualifiedName() {
+            int start = position;
+            if (!parseNCName()) {
+                return null;
+            }
+            if (position < input.length() && input.charAt(position) == ':') {
+                position++;
+                if (!parseNCName()) {
+                    return null;
+                }
+            }
+            return input.substring(start, position);
+        }
+
+        private boolean parseNCName() {
+            if (position == input.length()) {
+                return false;
+            }
+
+            char first = input.charAt(position);
+            if (!Character.isLetter(first) && first != '_') {
+                return false;
+            }
+            position++;
+
+            while (position < input.length()) {
+                char c = input.charAt(position);
+                if (!Character.isLetterOrDigit(c) && c != '_' && c != '-' && c != '.') {
+                    break;
+                }
+                position++;
+            }
+            return true;
+        }
+
+        private void skipWhitespaces() {
+            while (position < input.length() && Character.isWhitespace(input.charAt(position))) {
+                position++;
+            }
+        }
+    }
+}
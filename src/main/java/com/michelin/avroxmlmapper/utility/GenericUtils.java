@@ -23,15 +23,21 @@ import static com.michelin.avroxmlmapper.constants.AvroXmlMapperConstants.XML_NA
 import com.michelin.avroxmlmapper.constants.AvroXmlMapperConstants;
 import com.michelin.avroxmlmapper.exception.AvroXmlMapperException;
 import com.michelin.avroxmlmapper.mapper.XmlToAvroUtils;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import javax.xml.XMLConstants;
 import javax.xml.namespace.NamespaceContext;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
@@ -44,14 +50,25 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.avro.Schema;
 import org.w3c.dom.Attr;
 import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
 
 /** Generic utility class for conversions. */
 @Slf4j
 public final class GenericUtils {
+    static final String STUB_DEFAULT_NAMESPACE_URI = "http://www.example.com/defaultUri";
+    private static final int POOL_CAPACITY = Runtime.getRuntime().availableProcessors() * 2;
+    private static final ObjectPool<DocumentBuilder> DOCUMENT_BUILDERS =
+            new ObjectPool<>(POOL_CAPACITY, GenericUtils::newDocumentBuilder, DocumentBuilder::reset);
+    private static final ObjectPool<Transformer> TRANSFORMERS =
+            new ObjectPool<>(POOL_CAPACITY, GenericUtils::newTransformer, transformer -> {});
+    private static final ObjectPool<XPath> XPATHS =
+            new ObjectPool<>(POOL_CAPACITY, GenericUtils::getXpath, XPath::reset);
+
     private GenericUtils() {}
 
     /**
@@ -94,19 +111,75 @@ public final class GenericUtils {
      * @throws TransformerException if the conversion fails
      */
     public static String documentToString(Document document) throws TransformerException {
-        TransformerFactory factory = TransformerFactory.newInstance();
-        factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
-        factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
-        factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_STYLESHEET, "");
-
         StringWriter writer = new StringWriter();
-        Transformer transformer = factory.newTransformer();
-        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
-        transformer.setOutputProperty(OutputKeys.INDENT, "no");
-        transformer.transform(new DOMSource(document), new StreamResult(writer));
+        transform(document, new StreamResult(writer));
         return writer.toString();
     }
 
+    /**
+     * Writes a document to an output stream, encoded in UTF-8.
+     *
+     * @param document the document to write
+     * @param outputStream the output stream, which is not closed
+     * @throws TransformerException if the conversion fails
+     */
+    public static void writeDocument(Document document, OutputStream outputStream) throws TransformerException {
+        transform(document, new StreamResult(outputStream));
+    }
+
+    private static void transform(Document document, StreamResult result) throws TransformerException {
+        Transformer transformer = TRANSFORMERS.acquire();
+        try {
+            transformer.transform(new DOMSource(document), result);
+        } finally {
+            TRANSFORMERS.release(transformer);
+        }
+    }
+
+    /**
+     * Create a new empty document.
+     *
+     * @return The document
+     */
+    public static Document newDocument() {
+        DocumentBuilder builder = DOCUMENT_BUILDERS.acquire();
+        try {
+            return builder.newDocument();
+        } finally {
+            DOCUMENT_BUILDERS.release(builder);
+        }
+    }
+
+    private static DocumentBuilder newDocumentBuilder() {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            return factory.newDocumentBuilder();
+        } catch (ParserConfigurationException e) {
+            throw new AvroXmlMapperException("Failed to create document builder", e);
+        }
+    }
+
+    private static Transformer newTransformer() {
+        try {
+            TransformerFactory factory = TransformerFactory.newInstance();
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+            factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_STYLESHEET, "");
+
+            Transformer transformer = factory.newTransformer();
+            transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+            transformer.setOutputProperty(OutputKeys.INDENT, "no");
+            transformer.setOutputProperty(OutputKeys.ENCODING, StandardCharsets.UTF_8.name());
+            return transformer;
+        } catch (TransformerConfigurationException e) {
+            throw new AvroXmlMapperException("Failed to create transformer", e);
+        }
+    }
+
     /**
      * Evaluate a string value as a org.w3c.dom.Document and update namespaces according to the target.
      *
@@ -117,48 +190,49 @@ public final class GenericUtils {
     public static Document stringToDocument(String strValue, Map<String, String> xmlNamespacesMap) {
         Document document;
         try {
-            // If no xmlNamespacesMap is provided, log a warning and initialize it
-            if (xmlNamespacesMap == null) {
-                xmlNamespacesMap = new HashMap<>();
-                log.warn("No xmlNamespaces attribute provided in the avsc!");
-            }
+            xmlNamespacesMap = namespacesOrEmpty(xmlNamespacesMap);
 
             // If no default namespace is present in the document, emulate one
-            if (xmlNamespacesMap.get("null") == null) {
-                // log a warning mentioning that no default xml namespace has been defined in the avsc, which could be
-                // normal if no xml namespace is used / defined in the xml
-                log.warn(
-                        "No default xml namespace has been defined in the avsc, which could be normal if no xmlns is used / defined in the xml but could also be a mistake from the user");
-
+            if (addStubDefaultNamespace(xmlNamespacesMap)) {
                 // Add a stub default namespace to the document root element to avoid NPE when evaluating xPath
-                // expressions and add it to the xmlNamespacesMap
+                // expressions
                 strValue = addDefaultXMLNS(strValue);
-
-                xmlNamespacesMap.put("null", "http://www.example.com/defaultUri");
             }
 
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            factory.setNamespaceAware(true);
-            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
-            factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
-            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            InputSource is = new InputSource(new StringReader(strValue));
-            document = builder.parse(is);
+            document = parse(new InputSource(new StringReader(strValue)));
+            simplifyDocumentNamespaces(document, xmlNamespacesMap);
+
+            return document;
+
+        } catch (Exception e) {
+            throw new AvroXmlMapperException("Failed to parse XML", e);
+        }
+    }
 
-            // build a reverse map of namespaces : URI (K) -> list of prefixes (V)
-            var namespacePrefixesByURI =
-                    XmlToAvroUtils.extractNamespaces(document.getDocumentElement(), new HashMap<>());
+    /**
+     * Evaluate an input stream as a org.w3c.dom.Document and update namespaces according to the target. The encoding is
+     * detected by the parser from the XML declaration or the byte order mark, without decoding the input to a String
+     * first.
+     *
+     * @param inputStream the input stream to evaluate as a Document
+     * @param xmlNamespacesMap the target of namespaces (key : prefix ; value : URI), if null no update on namespaces.
+     * @return the evaluated xml Document
+     */
+    public static Document inputStreamToDocument(InputStream inputStream, Map<String, String> xmlNamespacesMap) {
+        Document document;
+        try {
+            xmlNamespacesMap = namespacesOrEmpty(xmlNamespacesMap);
+            boolean emulateDefaultNamespace = addStubDefaultNamespace(xmlNamespacesMap);
+
+            document = parse(new InputSource(inputStream));
 
-            // Remove all namespace definitions
-            XmlToAvroUtils.purgeNamespaces(document.getDocumentElement());
+            // If no default namespace is present in the document, emulate one. The input cannot be edited as a string,
+            // so the elements without namespace are moved to the stub namespace after parsing.
+            if (emulateDefaultNamespace) {
+                addDefaultXMLNS(document);
+            }
 
-            // Unify all namespaces by keeping only the ones defined in the xmlNamespacesMap.
-            // For instance, if the namespacePrefixesByURI map
-            // contains {"http://www.openapplications.org/oagis/9", ["ns2", "ns9"]},
-            // and the xmlNamespacesMap contains {"ns2", "http://www.openapplications.org/oagis/9"},
-            // Then the only namespace left will be "ns2" and the prefix "ns9" will be removed.
-            XmlToAvroUtils.simplifyNamespaces(document, xmlNamespacesMap, namespacePrefixesByURI);
+            simplifyDocumentNamespaces(document, xmlNamespacesMap);
 
             return document;
 
@@ -167,6 +241,81 @@ public final class GenericUtils {
         }
     }
 
+    private static Map<String, String> namespacesOrEmpty(Map<String, String> xmlNamespacesMap) {
+        // If no xmlNamespacesMap is provided, log a warning and initialize it
+        if (xmlNamespacesMap == null) {
+            log.warn("No xmlNamespaces attribute provided in the avsc!");
+            return new HashMap<>();
+        }
+        return xmlNamespacesMap;
+    }
+
+    /**
+     * Add the stub default namespace to the xmlNamespacesMap if it does not define a default namespace.
+     *
+     * @param xmlNamespacesMap the target of namespaces
+     * @return true if the stub has been added, in which case the document has to be given the same default namespace
+     */
+    private static boolean addStubDefaultNamespace(Map<String, String> xmlNamespacesMap) {
+        if (xmlNamespacesMap.get("null") != null) {
+            return false;
+        }
+
+        // log a warning mentioning that no default xml namespace has been defined in the avsc, which could be
+        // normal if no xml namespace is used / defined in the xml
+        log.warn(
+                "No default xml namespace has been defined in the avsc, which could be normal if no xmlns is used / defined in the xml but could also be a mistake from the user");
+
+        xmlNamespacesMap.put("null", STUB_DEFAULT_NAMESPACE_URI);
+        return true;
+    }
+
+    private static Document parse(InputSource inputSource) throws IOException, SAXException {
+        DocumentBuilder builder = DOCUMENT_BUILDERS.acquire();
+        try {
+            return builder.parse(inputSource);
+        } finally {
+            DOCUMENT_BUILDERS.release(builder);
+        }
+    }
+
+    private static void simplifyDocumentNamespaces(Document document, Map<String, String> xmlNamespacesMap) {
+        // build a reverse map of namespaces : URI (K) -> list of prefixes (V)
+        var namespacePrefixesByURI = XmlToAvroUtils.extractNamespaces(document.getDocumentElement(), new HashMap<>());
+
+        // Remove all namespace definitions
+        XmlToAvroUtils.purgeNamespaces(document.getDocumentElement());
+
+        // Unify all namespaces by keeping only the ones defined in the xmlNamespacesMap.
+        // For instance, if the namespacePrefixesByURI map
+        // contains {"http://www.openapplications.org/oagis/9", ["ns2", "ns9"]},
+        // and the xmlNamespacesMap contains {"ns2", "http://www.openapplications.org/oagis/9"},
+        // Then the only namespace left will be "ns2" and the prefix "ns9" will be removed.
+        XmlToAvroUtils.simplifyNamespaces(document, xmlNamespacesMap, namespacePrefixesByURI);
+    }
+
+    private static void addDefaultXMLNS(Document document) {
+        Element root = document.getDocumentElement();
+
+        if (!root.hasAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, XMLConstants.XMLNS_ATTRIBUTE)) {
+            root.setAttributeNS(
+                    XMLConstants.XMLNS_ATTRIBUTE_NS_URI, XMLConstants.XMLNS_ATTRIBUTE, STUB_DEFAULT_NAMESPACE_URI);
+            moveToDefaultNamespace(document, root);
+        }
+    }
+
+    private static void moveToDefaultNamespace(Document document, Node node) {
+        Node renamed = node.getNamespaceURI() == null
+                ? document.renameNode(node, STUB_DEFAULT_NAMESPACE_URI, node.getNodeName())
+                : node;
+
+        for (Node child = renamed.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.ELEMENT_NODE) {
+                moveToDefaultNamespace(document, child);
+            }
+        }
+    }
+
     private static String addDefaultXMLNS(String xml) {
         int rootStart;
         int rootEnd;
@@ -185,7 +334,7 @@ public final class GenericUtils {
 
             if (!rootElement.contains("xmlns=")) {
                 String modifiedRootElement =
-                        rootElement.replaceFirst(">", " xmlns=\"http://www.example.com/defaultUri\">");
+                        rootElement.replaceFirst(">", " xmlns=\"" + STUB_DEFAULT_NAMESPACE_URI + "\">");
                 xml = xml.substring(0, rootStart) + modifiedRootElement + xml.substring(rootEnd + 1);
             }
         }
@@ -194,7 +343,8 @@ public final class GenericUtils {
     }
 
     /**
-     * Handle exception for Node xPath evaluation
+     * Handle exception for Node xPath evaluation. Expressions supported by {@link CompiledXPath} are evaluated directly
+     * on the DOM, the others with the javax.xml.xpath engine.
      *
      * @param node the source node to evaluate
      * @param orphanNode the source node to evaluate without parent nodes
@@ -204,6 +354,14 @@ public final class GenericUtils {
      */
     public static NodeList xPathNodeListEvaluation(
             Node node, Node orphanNode, String xPathExpression, NamespaceContext namespaceContext) {
+        var compiledXPath = CompiledXPath.compile(xPathExpression);
+        if (compiledXPath.isPresent()) {
+            List<Node> nodes = compiledXPath.get().evaluate(node, namespaceContext);
+            if (nodes != null) {
+                return new NodeListAdapter(nodes);
+            }
+        }
+
         NodeList result;
 
         var nodeToParse = node;
@@ -213,12 +371,14 @@ public final class GenericUtils {
             nodeToParse = orphanNode;
         }
 
+        XPath xPath = XPATHS.acquire();
         try {
-            XPath xPath = getXpath();
             xPath.setNamespaceContext(namespaceContext);
             result = (NodeList) xPath.compile(xPathExpression).evaluate(nodeToParse, XPathConstants.NODESET);
         } catch (XPathExpressionException e) {
             throw new AvroXmlMapperException("Failed to execute xpath " + xPathExpression, e);
+        } finally {
+            XPATHS.release(xPath);
         }
 
         return result;
@@ -243,7 +403,8 @@ public final class GenericUtils {
     }
 
     /**
-     * Handle exception for Node xPath evaluation
+     * Handle exception for Node xPath evaluation. Expressions supported by {@link CompiledXPath} are evaluated directly
+     * on the DOM, the others with the javax.xml.xpath engine.
      *
      * @param node the source node to evaluate
      * @param orphanNode the source node to evaluate without parent context
@@ -253,7 +414,16 @@ public final class GenericUtils {
      */
     public static String xPathStringEvaluation(
             Node node, Node orphanNode, String xPathExpression, NamespaceContext namespaceContext) {
-        String result;
+        String result = null;
+
+        var compiledXPath = CompiledXPath.compile(xPathExpression);
+        if (compiledXPath.isPresent()) {
+            result = compiledXPath.get().evaluateString(node, namespaceContext);
+        }
+
+        if (result != null) {
+            return !result.isBlank() ? result : null;
+        }
 
         var nodeToParse = node;
 
@@ -262,17 +432,32 @@ public final class GenericUtils {
             nodeToParse = orphanNode;
         }
 
+        XPath xPath = XPATHS.acquire();
         try {
-            XPath xPath = getXpath();
             xPath.setNamespaceContext(namespaceContext);
             result = (String) xPath.compile(xPathExpression).evaluate(nodeToParse, XPathConstants.STRING);
         } catch (XPathExpressionException e) {
             throw new AvroXmlMapperException("Failed to execute xpath " + xPathExpression, e);
+        } finally {
+            XPATHS.release(xPath);
         }
 
         return result != null && !result.isBlank() ? result : null;
     }
 
+    /**
+     * Get the NamespaceContext of a document parsed with {@link #stringToDocument(String, Map)} or
+     * {@link #inputStreamToDocument(InputStream, Map)}, without reading the document: its namespaces are unified to the
+     * ones of the schema, so that the namespace lookups are shared by all the documents of the schema.
+     *
+     * @param schema The schema of the root record
+     * @param namespaceSelector Name of the variable defining the xmlNamespaces of the avsc file
+     * @return the namespace context, holding the indexes of a single conversion
+     */
+    public static NamespaceContext getNamespaceContext(Schema schema, String namespaceSelector) {
+        return new XPathEvaluationContext(SchemaNamespaceContext.of(schema, namespaceSelector));
+    }
+
     /**
      * Build a simple NamespaceContext in order to make Xpath usable for a document
      *
@@ -296,22 +481,7 @@ public final class GenericUtils {
             }
         }
 
-        return new NamespaceContext() {
-            @Override
-            public String getNamespaceURI(String prefix) {
-                return mapPrefixes.get(prefix);
-            }
-
-            @Override
-            public String getPrefix(String namespaceURI) {
-                return null;
-            }
-
-            @Override
-            public Iterator<String> getPrefixes(String namespaceURI) {
-                return null;
-            }
-        };
+        return new XPathEvaluationContext(mapPrefixes);
     }
 
     /**
@@ -321,32 +491,39 @@ public final class GenericUtils {
      * @return an equivalent List of Node
      */
     public static List<Node> asList(NodeList n) {
+        if (n instanceof NodeListAdapter adapter) {
+            return adapter.list;
+        }
         return n.getLength() == 0 ? Collections.emptyList() : new NodeListWrapper(n);
     }
 
     /**
      * Try to parse a string value to the Java type based on Schema type.
      *
+     * <p>The numbers and booleans are read by {@link PrimitiveParser}, so that a malformed value does not cost an
+     * exception.
+     *
      * @param fieldType the schema type
      * @param value the string value
-     * @return the result of parsing. In case of Exception (for ex NumberFormatException) the result is null.
+     * @return the result of parsing. In case of a malformed or null value, the result is null, except for a boolean
+     *     which is false.
      */
     public static Object parseValue(Schema.Type fieldType, String value) {
-        Object result;
-        try {
-            result = switch (fieldType) {
-                case STRING -> value;
-                case INT -> Integer.valueOf(value);
-                case LONG -> Long.valueOf(value);
-                case FLOAT -> Float.valueOf(value);
-                case DOUBLE -> Double.valueOf(value);
-                case BOOLEAN -> Boolean.valueOf(value);
-                default -> null;
-            };
-        } catch (Exception e) {
-            result = null;
+        if (fieldType == Schema.Type.STRING) {
+            return value;
         }
-        return result;
+        if (value == null) {
+            return fieldType == Schema.Type.BOOLEAN ? Boolean.FALSE : null;
+        }
+
+        return switch (fieldType) {
+            case INT -> PrimitiveParser.parseInt(value, 0, value.length());
+            case LONG -> PrimitiveParser.parseLong(value, 0, value.length());
+            case FLOAT -> PrimitiveParser.parseFloat(value, 0, value.length());
+            case DOUBLE -> PrimitiveParser.parseDouble(value, 0, value.length());
+            case BOOLEAN -> PrimitiveParser.parseBoolean(value, 0, value.length());
+            default -> null;
+        };
     }
 
     /**
@@ -380,4 +557,23 @@ public final class GenericUtils {
             return list.getLength();
         }
     }
+
+    /** Custom class exposing a List of Node, such as the result of a CompiledXPath, as a NodeList */
+    private static final class NodeListAdapter implements NodeList {
+        private final List<Node> list;
+
+        NodeListAdapter(List<Node> l) {
+            list = l;
+        }
+
+        @Override
+        public Node item(int index) {
+            return index >= 0 && index < list.size() ? list.get(index) : null;
+        }
+
+        @Override
+        public int getLength() {
+            return list.size();
+        }
+    }
 }
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.michelin.avroxmlmapper.utility;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A bounded, lock-free pool of reusable objects which are expensive to create but not thread-safe, such as
+ * DocumentBuilder or Transformer instances.
+ *
+ * <p>The pool does not rely on thread locals nor on monitors, so that it neither grows with the number of threads using
+ * it (millions of short-lived virtual threads for instance) nor pins virtual threads to their carrier. When the pool is
+ * empty a new object is created, and when it is full a released object is dropped.
+ *
+ * @param <T> The type of the pooled objects
+ */
+public final class ObjectPool<T> {
+    private final AtomicReferenceArray<T> slots;
+    private final Supplier<T> factory;
+    private final Consumer<T> reset;
+
+    /**
+     * Constructor.
+     *
+     * @param capacity The maximum number of idle objects kept by the pool
+     * @param factory The function creating a new object when the pool is empty
+     * @param reset The function resetting an object before it goes back to the pool
+     */
+    public ObjectPool(int capacity, Supplier<T> factory, Consumer<T> reset) {
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.factory = factory;
+        this.reset = reset;
+    }
+
+    /**
+     * Take an object from the pool, or create a new one if the pool is empty.
+     *
+     * @return An object owned by the caller until it is released
+     */
+    public T acquire() {
+        int start = start();
+        for (int i = 0; i < slots.length(); i++) {
+            int slot = (start + i) % slots.length();
+            T object = slots.get(slot);
+            if (object != null && slots.compareAndSet(slot, object, null)) {
+                return object;
+            }
+        }
+        return factory.get();
+    }
+
+    /**
+     * Give an object back to the pool. The object must not be used by the caller anymore.
+     *
+     * @param object The object to release
+     */
+    public void release(T object) {
+        reset.accept(object);
+
+        int start = start();
+        for (int i = 0; i < slots.length(); i++) {
+            int slot = (start + i) % slots.length();
+            if (slots.get(slot) == null && slots.compareAndSet(slot, null, object)) {
+                return;
+            }
+        }
+    }
+
+    /** Spread the threads over the slots to limit the contention on the first ones. */
+    @SuppressWarnings("deprecation") // Thread.threadId() is only available from Java 19
+    private int start() {
+        return (int) ((Thread.currentThread().getId() & Integer.MAX_VALUE) % slots.length());
+    }
+}
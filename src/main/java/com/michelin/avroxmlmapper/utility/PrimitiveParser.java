@@ -0,0 +1,385 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.michelin.avroxmlmapper.utility;
+
+/**
+ * Parsers of primitive values working on a range of characters, returning null instead of throwing an exception when
+ * the text is malformed.
+ *
+ * <p>Each parser accepts exactly the texts accepted by the corresponding {@code valueOf} method of the JDK, and returns
+ * the same value, so that a malformed value costs no more than a valid one.
+ */
+public final class PrimitiveParser {
+    /** The powers of ten exactly represented by a double. */
+    private static final double[] DOUBLE_POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19,
+        1e20, 1e21, 1e22
+    };
+
+    /** The powers of ten exactly represented by a float. */
+    private static final float[] FLOAT_POWERS_OF_TEN = {
+        1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f
+    };
+
+    /** Decimal mantissas up to this value are exactly represented by a double. */
+    private static final long MAX_DOUBLE_MANTISSA = 1L << 53;
+
+    /** Decimal mantissas up to this value are exactly represented by a float. */
+    private static final long MAX_FLOAT_MANTISSA = 1L << 24;
+
+    private PrimitiveParser() {}
+
+    /**
+     * Parse an int, like {@link Integer#valueOf(String)}.
+     *
+     * @param text The text
+     * @param start The index of the first character
+     * @param end The index following the last character
+     * @return The value, or null if the text is not a valid int
+     */
+    public static Integer parseInt(CharSequence text, int start, int end) {
+        if (start >= end) {
+            return null;
+        }
+
+        boolean negative = false;
+        int i = start;
+        char first = text.charAt(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++i == end) {
+                return null;
+            }
+        }
+
+        // Accumulated negatively, the negative range being the largest
+        int limit = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+        int limitBeforeMultiply = limit / 10;
+        int result = 0;
+        for (; i < end; i++) {
+            int digit = digit(text.charAt(i));
+            if (digit < 0 || result < limitBeforeMultiply) {
+                return null;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return null;
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    /**
+     * Parse a long, like {@link Long#valueOf(String)}.
+     *
+     * @param text The text
+     * @param start The index of the first character
+     * @param end The index following the last character
+     * @return The value, or null if the text is not a valid long
+     */
+    public static Long parseLong(CharSequence text, int start, int end) {
+        if (start >= end) {
+            return null;
+        }
+
+        boolean negative = false;
+        int i = start;
+        char first = text.charAt(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++i == end) {
+                return null;
+            }
+        }
+
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long limitBeforeMultiply = limit / 10;
+        long result = 0;
+        for (; i < end; i++) {
+            int digit = digit(text.charAt(i));
+            if (digit < 0 || result < limitBeforeMultiply) {
+                return null;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return null;
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    /**
+     * Parse a boolean, like {@link Boolean#valueOf(String)}: the text is true if it is "true" ignoring case, false
+     * otherwise.
+     *
+     * @param text The text
+     * @param start The index of the first character
+     * @param end The index following the last character
+     * @return The value, never null
+     */
+    public static Boolean parseBoolean(CharSequence text, int start, int end) {
+        if (end - start != 4) {
+            return Boolean.FALSE;
+        }
+        return (text.charAt(start) | 0x20) == 't'
+                        && (text.charAt(start + 1) | 0x20) == 'r'
+                        && (text.charAt(start + 2) | 0x20) == 'u'
+                        && (text.charAt(start + 3) | 0x20) == 'e'
+                ? Boolean.TRUE
+                : Boolean.FALSE;
+    }
+
+    /**
+     * Parse a double, like {@link Double#valueOf(String)}.
+     *
+     * @param text The text
+     * @param start The index of the first character
+     * @param end The index following the last character
+     * @return The value, or null if the text is not a valid double
+     */
+    public static Double parseDouble(CharSequence text, int start, int end) {
+        Decimal decimal = Decimal.parse(text, start, end);
+        if (decimal == null) {
+            return null;
+        }
+
+        if (decimal.exact
+                && decimal.mantissa <= MAX_DOUBLE_MANTISSA
+                && Math.abs(decimal.exponent) < DOUBLE_POWERS_OF_TEN.length) {
+            // Both operands are exact, so that the single rounding of the operation gives the closest double
+            double value = decimal.exponent >= 0
+                    ? decimal.mantissa * DOUBLE_POWERS_OF_TEN[decimal.exponent]
+                    : decimal.mantissa / DOUBLE_POWERS_OF_TEN[-decimal.exponent];
+            return decimal.negative ? -value : value;
+        }
+
+        return Double.valueOf(text.subSequence(decimal.start, decimal.end).toString());
+    }
+
+    /**
+     * Parse a float, like {@link Float#valueOf(String)}.
+     *
+     * @param text The text
+     * @param start The index of the first character
+     * @param end The index following the last character
+     * @return The value, or null if the text is not a valid float
+     */
+    public static Float parseFloat(CharSequence text, int start, int end) {
+        Decimal decimal = Decimal.parse(text, start, end);
+        if (decimal == null) {
+            return null;
+        }
+
+        if (decimal.exact
+                && decimal.mantissa <= MAX_FLOAT_MANTISSA
+                && Math.abs(decimal.exponent) < FLOAT_POWERS_OF_TEN.length) {
+            float value = decimal.exponent >= 0
+                    ? decimal.mantissa * FLOAT_POWERS_OF_TEN[decimal.exponent]
+                    : decimal.mantissa / FLOAT_POWERS_OF_TEN[-decimal.exponent];
+            return decimal.negative ? -value : value;
+        }
+
+        return Float.valueOf(text.subSequence(decimal.start, decimal.end).toString());
+    }
+
+    private static int digit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        // The JDK integer parsers accept the decimal digits of every script
+        return c < 0x80 ? -1 : Character.digit(c, 10);
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isHexDigit(char c) {
+        return isAsciiDigit(c) || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+
+    private static boolean regionEquals(CharSequence text, int start, int end, String expected) {
+        if (end - start != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (text.charAt(start + i) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A floating-point text validated against the grammar of {@link Double#valueOf(String)}, with its decimal mantissa
+     * and exponent when they fit in a long and an int.
+     */
+    private static final class Decimal {
+        /** The trimmed range of the text. */
+        private int start;
+
+        private int end;
+        private boolean negative;
+
+        /** Whether the text is a plain decimal whose digits were all accumulated in the mantissa. */
+        private boolean exact = true;
+
+        private long mantissa;
+        private int exponent;
+
+        /**
+         * Validate a floating-point text.
+         *
+         * @return The parsed text, or null if it is not valid
+         */
+        private static Decimal parse(CharSequence text, int start, int end) {
+            // Like String.trim, which is applied by the JDK parsers
+            while (start < end && text.charAt(start) <= ' ') {
+                start++;
+            }
+            while (end > start && text.charAt(end - 1) <= ' ') {
+                end--;
+            }
+            if (start == end) {
+                return null;
+            }
+
+            Decimal decimal = new Decimal();
+            decimal.start = start;
+            decimal.end = end;
+
+            int i = start;
+            char first = text.charAt(i);
+            if (first == '-' || first == '+') {
+                decimal.negative = first == '-';
+                i++;
+            }
+
+            if (regionEquals(text, i, end, "NaN") || regionEquals(text, i, end, "Infinity")) {
+                decimal.exact = false;
+                return decimal;
+            }
+
+            if (end - i > 1 && text.charAt(i) == '0' && (text.charAt(i + 1) | 0x20) == 'x') {
+                decimal.exact = false;
+                return isHexadecimal(text, i + 2, end) ? decimal : null;
+            }
+
+            return decimal.parseDecimal(text, i, end) ? decimal : null;
+        }
+
+        private boolean parseDecimal(CharSequence text, int i, int end) {
+            int digits = 0;
+            int fractionDigits = 0;
+            boolean point = false;
+
+            for (; i < end; i++) {
+                char c = text.charAt(i);
+                if (isAsciiDigit(c)) {
+                    digits++;
+                    if (point) {
+                        fractionDigits++;
+                    }
+                    if (mantissa <= (Long.MAX_VALUE - 9) / 10) {
+                        mantissa = mantissa * 10 + (c - '0');
+                    } else {
+                        exact = false;
+                    }
+                } else if (c == '.' && !point) {
+                    point = true;
+                } else {
+                    break;
+                }
+            }
+            if (digits == 0) {
+                return false;
+            }
+
+            long explicitExponent = 0;
+            if (i < end && (text.charAt(i) | 0x20) == 'e') {
+                i++;
+                boolean negativeExponent = false;
+                if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+                    negativeExponent = text.charAt(i) == '-';
+                    i++;
+                }
+                int exponentStart = i;
+                for (; i < end && isAsciiDigit(text.charAt(i)); i++) {
+                    if (explicitExponent < Integer.MAX_VALUE) {
+                        explicitExponent = explicitExponent * 10 + (text.charAt(i) - '0');
+                    }
+                }
+                if (i == exponentStart) {
+                    return false;
+                }
+                explicitExponent = negativeExponent ? -explicitExponent : explicitExponent;
+            }
+
+            if (!isSuffix(text, i, end)) {
+                return false;
+            }
+
+            long decimalExponent = explicitExponent - fractionDigits;
+            if (decimalExponent < Integer.MIN_VALUE || decimalExponent > Integer.MAX_VALUE) {
+                exact = false;
+            } else {
+                exponent = (int) decimalExponent;
+            }
+            return true;
+        }
+
+        private static boolean isHexadecimal(CharSequence text, int i, int end) {
+            int digits = 0;
+            boolean point = false;
+            for (; i < end; i++) {
+                char c = text.charAt(i);
+                if (isHexDigit(c)) {
+                    digits++;
+                } else if (c == '.' && !point) {
+                    point = true;
+                } else {
+                    break;
+                }
+            }
+            // The binary exponent is mandatory
+            if (digits == 0 || i == end || (text.charAt(i) | 0x20) != 'p') {
+                return false;
+            }
+            i++;
+            if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+                i++;
+            }
+            int exponentStart = i;
+            while (i < end && isAsciiDigit(text.charAt(i))) {
+                i++;
+            }
+            return i > exponentStart && isSuffix(text, i, end);
+        }
+
+        private static boolean isSuffix(CharSequence text, int i, int end) {
+            if (i == end) {
+                return true;
+            }
+            char c = text.charAt(i);
+            return i == end - 1 && (c == 'f' || c == 'F' || c == 'd' || c == 'D');
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.michelin.avroxmlmapper.utility;
+
+import static com.michelin.avroxmlmapper.constants.AvroXmlMapperConstants.DEFAULT_NAMESPACE;
+import static com.michelin.avroxmlmapper.constants.AvroXmlMapperConstants.NO_PREFIX_NS;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.xml.namespace.NamespaceContext;
+import org.apache.avro.Schema;
+
+/**
+ * Immutable namespace context of the documents of a schema, shared by all the documents converted with it.
+ *
+ * <p>Once parsed, the namespaces of a document are unified to the ones declared by the xmlNamespaces property of the
+ * schema, the default namespace being bound to the {@code noprefixns} prefix. The context is therefore the same for
+ * every document, and is computed once per schema and namespace selector. The prefixes are looked up in an
+ * open-addressing table.
+ */
+public final class SchemaNamespaceContext implements NamespaceContext {
+    private static final int MAX_CACHED_CONTEXTS = 10_000;
+    private static final Map<String, Map<Schema, SchemaNamespaceContext>> CACHE = new ConcurrentHashMap<>();
+
+    /** The prefixes and URIs, at the slot of the hash of the prefix or at the next free one. */
+    private final String[] prefixes;
+
+    private final String[] uris;
+    private final int mask;
+
+    private SchemaNamespaceContext(Map<String, String> namespaces) {
+        int capacity = Integer.highestOneBit(Math.max(namespaces.size(), 1) * 4 - 1) << 1;
+        this.prefixes = new String[capacity];
+        this.uris = new String[capacity];
+        this.mask = capacity - 1;
+
+        namespaces.forEach((prefix, uri) -> {
+            int slot = prefix.hashCode() & mask;
+            while (prefixes[slot] != null && !prefixes[slot].equals(prefix)) {
+                slot = (slot + 1) & mask;
+            }
+            prefixes[slot] = prefix;
+            uris[slot] = uri;
+        });
+    }
+
+    /**
+     * Create a context from the namespaces declared on the root element of a document.
+     *
+     * @param namespaces The namespace URIs by prefix, {@code noprefixns} for the default namespace
+     * @return The context
+     */
+    public static SchemaNamespaceContext of(Map<String, String> namespaces) {
+        return new SchemaNamespaceContext(namespaces);
+    }
+
+    /**
+     * Get the context of the documents converted with a schema, from the cache if it has already been computed.
+     *
+     * @param schema The schema of the root record
+     * @param namespaceSelector Name of the variable defining the xmlNamespaces of the avsc file
+     * @return The context
+     */
+    public static SchemaNamespaceContext of(Schema schema, String namespaceSelector) {
+        Map<Schema, SchemaNamespaceContext> contexts =
+                CACHE.computeIfAbsent(namespaceSelector, k -> new ConcurrentHashMap<>());
+
+        SchemaNamespaceContext context = contexts.get(schema);
+        if (context == null) {
+            context = new SchemaNamespaceContext(
+                    documentNamespaces(GenericUtils.xmlNamespaces(schema, namespaceSelector)));
+            if (contexts.size() < MAX_CACHED_CONTEXTS) {
+                contexts.put(schema, context);
+            }
+        }
+        return context;
+    }
+
+    /**
+     * Get the namespaces declared on the root element of the documents once unified, with the same rules as
+     * {@link GenericUtils#stringToDocument(String, Map)}.
+     *
+     * @param xmlNamespaces The xmlNamespaces property of the schema, possibly null
+     * @return The namespace URIs by prefix
+     */
+    private static Map<String, String> documentNamespaces(Map<String, String> xmlNamespaces) {
+        Map<String, String> namespaces = new HashMap<>();
+        if (xmlNamespaces != null) {
+            xmlNamespaces.forEach((prefix, uri) ->
+                    namespaces.put(DEFAULT_NAMESPACE.equalsIgnoreCase(prefix) ? NO_PREFIX_NS : prefix, uri));
+        }
+        if (xmlNamespaces == null || xmlNamespaces.get(DEFAULT_NAMESPACE) == null) {
+            namespaces.put(NO_PREFIX_NS, GenericUtils.STUB_DEFAULT_NAMESPACE_URI);
+        }
+        return namespaces;
+    }
+
+    @Override
+    public String getNamespaceURI(String prefix) {
+        if (prefix == null) {
+            return null;
+        }
+
+        int slot = prefix.hashCode() & mask;
+        String candidate;
+        while ((candidate = prefixes[slot]) != null) {
+            if (candidate.equals(prefix)) {
+                return uris[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    @Override
+    public String getPrefix(String namespaceURI) {
+        Iterator<String> prefixesOfUri = getPrefixes(namespaceURI);
+        return prefixesOfUri.hasNext() ? prefixesOfUri.next() : null;
+    }
+
+    @Override
+    public Iterator<String> getPrefixes(String namespaceURI) {
+        List<String> prefixesOfUri = new ArrayList<>();
+        for (int i = 0; i < uris.length; i++) {
+            if (namespaceURI.equals(uris[i])) {
+                prefixesOfUri.add(prefixes[i]);
+            }
+        }
+        return Collections.unmodifiableList(prefixesOfUri).iterator();
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.michelin.avroxmlmapper.utility;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, lock-free table deduplicating short strings, so that the records holding the same value share a single
+ * String instance instead of one copy per record.
+ *
+ * <p>The table is a direct-mapped cache: each value is stored in the slot given by its hash code, replacing the value
+ * previously stored there. It never grows, and a value evicted by a collision is simply not shared with the records
+ * converted before. Values longer than {@link #MAX_LENGTH} characters are not interned, as they rarely repeat.
+ */
+public final class StringInterner {
+    /** Maximum length of the interned values. */
+    public static final int MAX_LENGTH = 64;
+
+    private final AtomicReferenceArray<String> slots;
+    private final int mask;
+
+    /**
+     * Constructor.
+     *
+     * @param capacity The number of slots of the table, rounded up to a power of two
+     */
+    public StringInterner(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Get the shared instance of a value.
+     *
+     * @param value The value
+     * @return A String equal to the value, the value itself if it is not in the table yet
+     */
+    public String intern(String value) {
+        if (value == null || value.length() > MAX_LENGTH) {
+            return value;
+        }
+
+        int hash = value.hashCode();
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        String shared = slots.get(slot);
+        if (value.equals(shared)) {
+            return shared;
+        }
+
+        slots.lazySet(slot, value);
+        return value;
+    }
+}
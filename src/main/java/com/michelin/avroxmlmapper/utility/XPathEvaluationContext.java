@@ -0,0 +1,275 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.michelin.avroxmlmapper.utility;
+
+import com.michelin.avroxmlmapper.mapper.ConversionDiagnostics;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.namespace.QName;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * Namespace context of a document being converted, also holding the lazily built indexes used by {@link CompiledXPath}
+ * and the optional diagnostics collector of the conversion.
+ *
+ * <p>An instance is not thread-safe: it must be used by a single conversion thread at a time.
+ */
+public final class XPathEvaluationContext implements NamespaceContext {
+    /** Elements with fewer attributes are scanned rather than indexed. */
+    static final int ATTRIBUTE_INDEX_THRESHOLD = 8;
+
+    private static final Map<String, Node> AMBIGUOUS_ATTRIBUTE_INDEX = Map.of();
+
+    private final SchemaNamespaceContext namespaces;
+    private Map<Node, Map<String, Node>> attributeIndexes;
+    private DescendantIndex descendantIndex;
+    private ConversionDiagnostics diagnostics;
+
+    /**
+     * Constructor.
+     *
+     * @param namespaces The namespaces URIs by prefix
+     */
+    public XPathEvaluationContext(Map<String, String> namespaces) {
+        this(SchemaNamespaceContext.of(namespaces));
+    }
+
+    /**
+     * Constructor sharing the namespaces of a schema.
+     *
+     * @param namespaces The namespace context of the schema
+     */
+    public XPathEvaluationContext(SchemaNamespaceContext namespaces) {
+        this.namespaces = namespaces;
+    }
+
+    /**
+     * Create a context with the same namespaces and its own indexes, for a conversion thread working on another part of
+     * the same document. The descendant index already built, with its thread-safe key indexes, is shared.
+     *
+     * @return The new context
+     */
+    public XPathEvaluationContext copy() {
+        XPathEvaluationContext copy = new XPathEvaluationContext(namespaces);
+        copy.descendantIndex = descendantIndex;
+        copy.diagnostics = diagnostics;
+        return copy;
+    }
+
+    /**
+     * Get the collector of the values which could not be converted.
+     *
+     * @return The collector, null if the failures are not collected
+     */
+    public ConversionDiagnostics getDiagnostics() {
+        return diagnostics;
+    }
+
+    /**
+     * Set the collector of the values which could not be converted.
+     *
+     * @param diagnostics The collector, null to not collect the failures
+     */
+    public void setDiagnostics(ConversionDiagnostics diagnostics) {
+        this.diagnostics = diagnostics;
+    }
+
+    @Override
+    public String getNamespaceURI(String prefix) {
+        return namespaces.getNamespaceURI(prefix);
+    }
+
+    @Override
+    public String getPrefix(String namespaceURI) {
+        return namespaces.getPrefix(namespaceURI);
+    }
+
+    @Override
+    public Iterator<String> getPrefixes(String namespaceURI) {
+        return namespaces.getPrefixes(namespaceURI);
+    }
+
+    /**
+     * Get the attributes of an element by lower-cased local name, with the same lower-casing as
+     * {@code translate(local-name(), 'ABC...', 'abc...')}. The index is built on first access and kept for the lifetime
+     * of this context.
+     *
+     * @param element The element
+     * @return The attributes by lower-cased local name, or null if the element has too few attributes to be worth
+     *     indexing, or several attributes with the same lower-cased name
+     */
+    Map<String, Node> attributeIndex(Node element) {
+        NamedNodeMap attributes = element.getAttributes();
+        if (attributes == null || attributes.getLength() < ATTRIBUTE_INDEX_THRESHOLD) {
+            return null;
+        }
+
+        if (attributeIndexes == null) {
+            attributeIndexes = new IdentityHashMap<>();
+        }
+
+        Map<String, Node> index = attributeIndexes.computeIfAbsent(element, e -> buildAttributeIndex(attributes));
+        return index == AMBIGUOUS_ATTRIBUTE_INDEX ? null : index;
+    }
+
+    private static Map<String, Node> buildAttributeIndex(NamedNodeMap attributes) {
+        Map<String, Node> index = new HashMap<>(attributes.getLength() * 2);
+
+        for (int i = 0; i < attributes.getLength(); i++) {
+            Node attribute = attributes.item(i);
+            if (CompiledXPath.isNamespaceDeclaration(attribute)) {
+                continue;
+            }
+
+            if (index.putIfAbsent(CompiledXPath.lowerCaseLocalName(attribute), attribute) != null) {
+                // Ambiguous lookups are left to the scan, which keeps the xpath semantic
+                return AMBIGUOUS_ATTRIBUTE_INDEX;
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * Build the descendant index of the document of a node, unless it is already built, so that the copies of this
+     * context made afterwards share it instead of each building its own.
+     *
+     * @param node A node of the document
+     * @return The root of the document
+     */
+    public Node indexDescendants(Node node) {
+        Node root = CompiledXPath.root(node);
+        if (descendantIndex == null || descendantIndex.root() != root) {
+            descendantIndex = DescendantIndex.of(root);
+        }
+        return root;
+    }
+
+    /**
+     * Get the descendant elements of the root of a document matching a qualified name, in document order. The index of
+     * all the elements of the document by qualified name is built in a single traversal on first access, and kept until
+     * a descendant of another root is requested.
+     *
+     * @param root The root of the document, as returned by {@link CompiledXPath#root(Node)}
+     * @param namespaceURI The namespace URI of the elements, null to match the elements without namespace
+     * @param localName The local name of the elements
+     * @return The elements, an unmodifiable list
+     */
+    List<Node> descendants(Node root, String namespaceURI, String localName) {
+        if (descendantIndex == null || descendantIndex.root() != root) {
+            descendantIndex = DescendantIndex.of(root);
+        }
+
+        List<Node> elements =
+                descendantIndex.elements().get(new QName(namespaceURI == null ? "" : namespaceURI, localName));
+        return elements != null ? elements : List.of();
+    }
+
+    /**
+     * Get the descendant elements of the root of a document matching a qualified name and having an attribute with a
+     * given value, in document order, as the elements kept by an attribute equality predicate {@code [@attr='value']}.
+     * The elements are looked up in a key index by value, built in a single traversal of the elements of the qualified
+     * name on the first lookup of the attribute, and kept with the descendant index.
+     *
+     * @param root The root of the document, as returned by {@link CompiledXPath#root(Node)}
+     * @param namespaceURI The namespace URI of the elements, null to match the elements without namespace
+     * @param localName The local name of the elements
+     * @param attribute The name of the attribute, lower-cased if the case is ignored
+     * @param ignoreCase Whether the attribute is matched on its lower-cased local name
+     * @param value The value of the attribute
+     * @return The elements, an unmodifiable list
+     */
+    List<Node> descendantsByAttribute(
+            Node root, String namespaceURI, String localName, String attribute, boolean ignoreCase, String value) {
+        List<Node> elements = descendants(root, namespaceURI, localName);
+        if (elements.isEmpty()) {
+            return elements;
+        }
+
+        Map<String, List<Node>> keyIndex = descendantIndex
+                .keyIndexes()
+                .computeIfAbsent(
+                        new AttributeKey(namespaceURI, localName, attribute, ignoreCase),
+                        k -> buildKeyIndex(elements, attribute, ignoreCase));
+        List<Node> matching = keyIndex.get(value);
+        return matching != null ? matching : List.of();
+    }
+
+    private static Map<String, List<Node>> buildKeyIndex(List<Node> elements, String attribute, boolean ignoreCase) {
+        Map<String, List<Node>> keyIndex = new HashMap<>();
+
+        for (Node element : elements) {
+            NamedNodeMap attributes = element.getAttributes();
+            for (int i = 0; i < attributes.getLength(); i++) {
+                Node candidate = attributes.item(i);
+                if (CompiledXPath.attributeMatches(candidate, attribute, ignoreCase)) {
+                    List<Node> matching = keyIndex.computeIfAbsent(candidate.getNodeValue(), k -> new ArrayList<>());
+                    // Several attributes can match a case-insensitive name, possibly with the same value
+                    if (matching.isEmpty() || matching.get(matching.size() - 1) != element) {
+                        matching.add(element);
+                    }
+                }
+            }
+        }
+
+        keyIndex.replaceAll((value, matching) -> Collections.unmodifiableList(matching));
+        return keyIndex;
+    }
+
+    /** An attribute of the elements of a qualified name, the key of a key index. */
+    private record AttributeKey(String namespaceURI, String localName, String attribute, boolean ignoreCase) {}
+
+    /**
+     * The descendant elements of a root by qualified name, the elements without namespace having an empty namespace
+     * URI, never modified once built, and the key indexes of their attributes, added concurrently on first lookup.
+     */
+    private record DescendantIndex(
+            Node root, Map<QName, List<Node>> elements, Map<AttributeKey, Map<String, List<Node>>> keyIndexes) {
+        static DescendantIndex of(Node root) {
+            Map<QName, List<Node>> elements = new HashMap<>();
+            addDescendants(root, elements);
+            elements.replaceAll((name, nodes) -> Collections.unmodifiableList(nodes));
+            return new DescendantIndex(root, elements, new ConcurrentHashMap<>());
+        }
+
+        private static void addDescendants(Node node, Map<QName, List<Node>> elements) {
+            for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+                if (child.getNodeType() == Node.ELEMENT_NODE) {
+                    String namespaceURI = child.getNamespaceURI();
+                    String localName = child.getLocalName();
+                    if (localName != null) {
+                        elements.computeIfAbsent(
+                                        new QName(namespaceURI == null ? "" : namespaceURI, localName),
+                                        k -> new ArrayList<>())
+                                .add(child);
+                    }
+                    addDescendants(child, elements);
+                }
+            }
+        }
+    }
+}
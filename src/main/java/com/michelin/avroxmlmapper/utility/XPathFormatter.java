@@ -19,10 +19,32 @@
 package com.michelin.avroxmlmapper.utility;
 
 import com.michelin.avroxmlmapper.constants.AvroXmlMapperConstants;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /** Utility class to format xpath expressions. */
 public class XPathFormatter {
+    private static final int MAX_CACHED_XPATHS = 10_000;
+    private static final Map<String, String> CACHE = new ConcurrentHashMap<>();
+
+    // regex means :
+    // - (\A|[/\[]) : the first character of the match is the beginning of input, a slash or an opening bracket
+    // - (\w+) : any word
+    private static final Pattern TAG_PATTERN = Pattern.compile("(\\A|[/\\[])(\\w+)");
+
+    // regex means :
+    // - ((and|or|not)[ ]) : any combination of and/r/not with a subsequent whitespace
+    // - (\w+) : any word
+    private static final Pattern TAG_AFTER_OPERATOR_PATTERN = Pattern.compile("((?:and|or|not)[ ])(\\w+)");
+
+    // regex means the first character is a '@' followed by any word (i.e. an attribute)
+    private static final Pattern ATTRIBUTE_PATTERN = Pattern.compile("@(\\w*)");
+
+    private static final String[] OPERATORS = {"and", "or", "not"};
 
     private XPathFormatter() {}
 
@@ -31,6 +53,8 @@ public class XPathFormatter {
      * generic namespace in all our final code xpath expression - re-write filters based on attribute in order to be
      * case-insensitive on attribute name
      *
+     * <p>The result only depends on the given xpath, so it is memoized.
+     *
      * @param xpath xpath to format
      * @return the generic xpath
      */
@@ -39,43 +63,117 @@ public class XPathFormatter {
             return null;
         }
 
-        var excludePrefixes = new StringBuilder();
-        for (var m = Pattern.compile("(\\w+)\\:").matcher(xpath); m.find(); ) {
-            excludePrefixes.append(m.group().replace(":", "|"));
+        String formatted = CACHE.get(xpath);
+        if (formatted == null) {
+            formatted = doFormat(xpath);
+            if (CACHE.size() < MAX_CACHED_XPATHS) {
+                CACHE.put(xpath, formatted);
+            }
         }
+        return formatted;
+    }
 
-        // regex means :
-        // - ((\A)|[/\[]) : the first character of the match is the beginning of input, a slash or an opening bracket
-        // - (?!and|or|not)(\w+) : any word, except the prefixes previously captured and operators 'and' and 'or'
-        var tagToAliasPattern = "((\\A)|[/\\[])(?!" + excludePrefixes + "and|or|not)(\\w+)";
+    private static String doFormat(String xpath) {
+        List<String> excludedPrefixes = extractPrefixes(xpath);
 
-        // regex means :
-        // - ((and|or|not)[ ]) : any combination of and/r/not with a subsequent whitespace
-        // - (?!and|or|not)(\w+) : any word, except the prefixes previously captured and operators 'and' and 'or'
-        var tagToAliasPattern2 = "((and|or|not)[ ])(?!" + excludePrefixes + "and|or|not)(\\w+)";
+        // Words are prefixed unless they start with one of the prefixes previously captured, an operator ('and', 'or',
+        // 'not') or a digit (positional index)
+        String xpathPrefixed = prefixTags(xpath, TAG_PATTERN, excludedPrefixes, true);
+        String xpathPrefixed2 = prefixTags(xpathPrefixed, TAG_AFTER_OPERATOR_PATTERN, excludedPrefixes, false);
 
-        String xpathPrefixed = Pattern.compile(tagToAliasPattern).matcher(xpath).replaceAll(m -> {
+        return ATTRIBUTE_PATTERN.matcher(xpathPrefixed2).replaceAll(m -> {
             String match = m.group();
-            return match.substring(0, 1).matches("[/\\[]")
-                    ? match.charAt(0) + AvroXmlMapperConstants.NO_PREFIX_NS + ":" + match.substring(1)
-                    : AvroXmlMapperConstants.NO_PREFIX_NS + ":" + match;
+            return "@*[translate(local-name(), 'ABCDEFGHIJKLMNOPQRSTUVWXYZ', 'abcdefghijklmnopqrstuvwxyz') = '"
+                    + match.toLowerCase().substring(1) + "']";
         });
+    }
 
-        String xpathPrefixed2 = Pattern.compile(tagToAliasPattern2)
-                .matcher(xpathPrefixed)
-                .replaceAll(m -> {
-                    String subMatch1 = m.group(1);
-                    String subMatch3 = m.group(3);
+    /**
+     * Extract the namespace prefixes used in the xpath, i.e. every word directly followed by ':'.
+     *
+     * @param xpath The xpath to scan
+     * @return The prefixes
+     */
+    private static List<String> extractPrefixes(String xpath) {
+        List<String> prefixes = new ArrayList<>();
 
-                    return subMatch1 + AvroXmlMapperConstants.NO_PREFIX_NS + ":" + subMatch3;
-                });
+        for (int colon = xpath.indexOf(':'); colon != -1; colon = xpath.indexOf(':', colon + 1)) {
+            int start = colon;
+            while (start > 0 && isWordCharacter(xpath.charAt(start - 1))) {
+                start--;
+            }
 
-        // regex means the first character is a '@' followed by any word (i.e. an attribute)
+            if (start < colon) {
+                prefixes.add(xpath.substring(start, colon));
+            }
+        }
 
-        return Pattern.compile("@(\\w*)").matcher(xpathPrefixed2).replaceAll(m -> {
-            String match = m.group();
-            return "@*[translate(local-name(), 'ABCDEFGHIJKLMNOPQRSTUVWXYZ', 'abcdefghijklmnopqrstuvwxyz') = '"
-                    + match.toLowerCase().substring(1) + "']";
-        });
+        return prefixes;
+    }
+
+    /**
+     * Add the generic namespace prefix to the word (group 2) of each match of the pattern, unless the word is excluded.
+     * When a word is excluded, the search resumes right after the beginning of the match.
+     *
+     * @param xpath The xpath to update
+     * @param pattern The pattern matching the tags
+     * @param excludedPrefixes The prefixes already used in the xpath
+     * @param excludeDigits Whether words starting with a digit are excluded
+     * @return The updated xpath
+     */
+    private static String prefixTags(
+            String xpath, Pattern pattern, List<String> excludedPrefixes, boolean excludeDigits) {
+        Matcher matcher = pattern.matcher(xpath);
+        StringBuilder result = null;
+        int copied = 0;
+        int from = 0;
+
+        while (from <= xpath.length() && matcher.find(from)) {
+            String word = matcher.group(2);
+
+            if (isExcluded(word, excludedPrefixes, excludeDigits)) {
+                from = matcher.start() + 1;
+                continue;
+            }
+
+            if (result == null) {
+                result = new StringBuilder(xpath.length() + 32);
+            }
+            result.append(xpath, copied, matcher.start(2))
+                    .append(AvroXmlMapperConstants.NO_PREFIX_NS)
+                    .append(':')
+                    .append(word);
+            copied = matcher.end();
+            from = matcher.end();
+        }
+
+        if (result == null) {
+            return xpath;
+        }
+        return result.append(xpath, copied, xpath.length()).toString();
+    }
+
+    private static boolean isExcluded(String word, List<String> excludedPrefixes, boolean excludeDigits) {
+        if (excludeDigits && Character.isDigit(word.charAt(0))) {
+            return true;
+        }
+
+        for (String operator : OPERATORS) {
+            if (word.startsWith(operator)) {
+                return true;
+            }
+        }
+
+        for (String prefix : excludedPrefixes) {
+            if (word.startsWith(prefix)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean isWordCharacter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
     }
 }
@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.michelin.avroxmlmapper.utility;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.xml.namespace.NamespaceContext;
+import org.w3c.dom.Node;
+
+/**
+ * A set of {@link CompiledXPath} evaluated together against the same context node.
+ *
+ * <p>The paths are merged into a trie keyed by step, so that the children of each matched element are traversed once
+ * for all the paths going through it, instead of once per path.
+ */
+public final class XPathTrie {
+    private final TrieNode root = new TrieNode(null);
+    private final int size;
+
+    private XPathTrie(List<CompiledXPath> paths) {
+        this.size = paths.size();
+
+        for (int i = 0; i < paths.size(); i++) {
+            CompiledXPath path = paths.get(i);
+            if (path == null || path.isAbsolute()) {
+                continue;
+            }
+
+            TrieNode current = root;
+            for (CompiledXPath.Step step : path.steps()) {
+                if (!(step instanceof CompiledXPath.SelfStep)) {
+                    current = current.child(step);
+                }
+            }
+            current.paths.add(i);
+        }
+
+        root.index();
+    }
+
+    /**
+     * Build a trie from compiled xpaths.
+     *
+     * @param paths The compiled xpaths, null elements being allowed for the paths evaluated elsewhere. The absolute
+     *     paths are not relative to the context node, and are left to be evaluated one by one
+     * @return The trie
+     */
+    public static XPathTrie of(List<CompiledXPath> paths) {
+        return new XPathTrie(paths);
+    }
+
+    /**
+     * Evaluate all the xpaths of the trie against a context node.
+     *
+     * @param context The context node
+     * @param namespaceContext The namespace context used to resolve the prefixes
+     * @return The matched nodes of each xpath, by index of the xpath given at build time. An element is null when the
+     *     xpath was null or absolute, or when one of its prefixes cannot be resolved by the namespace context
+     */
+    public List<List<Node>> evaluate(Node context, NamespaceContext namespaceContext) {
+        List<Node>[] results = newResults();
+        root.evaluate(Collections.singletonList(context), namespaceContext, results);
+        return Arrays.asList(results);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private List<Node>[] newResults() {
+        return new List[size];
+    }
+
+    private static final class TrieNode {
+        private final CompiledXPath.Step step;
+        private final List<Integer> paths = new ArrayList<>();
+        private final List<TrieNode> children = new ArrayList<>();
+        private final Map<String, List<TrieNode>> childElementsByLocalName = new HashMap<>();
+        private final List<TrieNode> attributeChildren = new ArrayList<>();
+
+        TrieNode(CompiledXPath.Step step) {
+            this.step = step;
+        }
+
+        TrieNode child(CompiledXPath.Step childStep) {
+            for (TrieNode child : children) {
+                if (child.step.equals(childStep)) {
+                    return child;
+                }
+            }
+
+            TrieNode child = new TrieNode(childStep);
+            children.add(child);
+            return child;
+        }
+
+        void index() {
+            for (TrieNode child : children) {
+                if (child.step instanceof CompiledXPath.ChildStep childStep) {
+                    childElementsByLocalName
+                            .computeIfAbsent(childStep.localName(), k -> new ArrayList<>())
+                            .add(child);
+                } else {
+                    attributeChildren.add(child);
+                }
+                child.index();
+            }
+        }
+
+        void evaluate(List<Node> current, NamespaceContext namespaceContext, List<Node>[] results) {
+            for (int path : paths) {
+                results[path] = current;
+            }
+
+            for (TrieNode child : attributeChildren) {
+                child.evaluate(
+                        ((CompiledXPath.AttributeStep) child.step).apply(current, namespaceContext),
+                        namespaceContext,
+                        results);
+            }
+
+            if (childElementsByLocalName.isEmpty()) {
+                return;
+            }
+
+            Map<TrieNode, Match> matches = resolve(namespaceContext, results);
+
+            // A single traversal of the children of each element dispatches them to all the child steps
+            for (Node parent : current) {
+                for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+                    if (node.getNodeType() != Node.ELEMENT_NODE) {
+                        continue;
+                    }
+
+                    List<TrieNode> candidates = childElementsByLocalName.get(node.getLocalName());
+                    if (candidates == null) {
+                        continue;
+                    }
+
+                    for (TrieNode candidate : candidates) {
+                        Match match = matches.get(candidate);
+                        if (match != null
+                                && ((CompiledXPath.ChildStep) candidate.step).matches(node, match.namespaceURI)) {
+                            match.candidates.add(node);
+                        }
+                    }
+                }
+
+                for (Match match : matches.values()) {
+                    match.endOfParent(namespaceContext);
+                }
+            }
+
+            matches.forEach((child, match) -> child.evaluate(match.result, namespaceContext, results));
+        }
+
+        /** Resolve the namespace of each child step, leaving the paths below the unresolved ones to the caller. */
+        private Map<TrieNode, Match> resolve(NamespaceContext namespaceContext, List<Node>[] results) {
+            Map<TrieNode, Match> matches = new HashMap<>();
+
+            for (TrieNode child : children) {
+                if (child.step instanceof CompiledXPath.ChildStep childStep) {
+                    String namespaceURI = childStep.resolveNamespaceURI(namespaceContext);
+                    if (namespaceURI == null && childStep.prefix() != null) {
+                        child.unresolved(results);
+                    } else {
+                        matches.put(child, new Match(childStep, namespaceURI));
+                    }
+                }
+            }
+
+            return matches;
+        }
+
+        private void unresolved(List<Node>[] results) {
+            for (int path : paths) {
+                results[path] = null;
+            }
+            for (TrieNode child : children) {
+                child.unresolved(results);
+            }
+        }
+    }
+
+    /** The elements matched by a child step, accumulated over the context elements. */
+    private static final class Match {
+        private final CompiledXPath.ChildStep step;
+        private final String namespaceURI;
+        private final List<Node> candidates = new ArrayList<>();
+        private final List<Node> result = new ArrayList<>();
+
+        Match(CompiledXPath.ChildStep step, String namespaceURI) {
+            this.step = step;
+            this.namespaceURI = namespaceURI;
+        }
+
+        void endOfParent(NamespaceContext namespaceContext) {
+            if (candidates.isEmpty()) {
+                return;
+            }
+
+            // Predicates such as positions apply to the children of each context element separately
+            result.addAll(step.predicates().isEmpty() ? candidates : step.filter(candidates, namespaceContext));
+            candidates.clear();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.michelin.avroxmlmapper;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.michelin.avro.TestModelParentRecord;
+import com.michelin.avro.TestModelXMLDefaultXpath;
+import com.michelin.avro.TestModelXMLMultipleXpath;
+import com.michelin.avroxmlmapper.mapper.AvroXmlMapper;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.Properties;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Allocation regression tests. Each conversion is run a number of times to warm up the JIT, then the bytes allocated by
+ * the current thread are measured and averaged per message. The test fails when the average goes above the budget
+ * checked in {@code allocation-budget.properties}.
+ */
+class AllocationBudgetTest {
+    private static final int WARM_UP_ITERATIONS = 200;
+    private static final int MEASURED_ITERATIONS = 200;
+    private static final Properties BUDGETS = new Properties();
+
+    private static com.sun.management.ThreadMXBean threadMXBean;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        try (InputStream budgets = AllocationBudgetTest.class.getResourceAsStream("/allocation-budget.properties")) {
+            BUDGETS.load(Objects.requireNonNull(budgets));
+        }
+
+        threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    }
+
+    @Test
+    void shouldStayUnderBudgetWhenConvertingXmlToAvroWithDefaultXpath() throws Exception {
+        String input = readResource("/xmlDefaultXpath.xml");
+        assertUnderBudget(
+                "xmlToAvro.defaultXpath",
+                () -> AvroXmlMapper.convertXmlStringToAvro(input, TestModelXMLDefaultXpath.class));
+    }
+
+    @Test
+    void shouldStayUnderBudgetWhenConvertingXmlToAvroWithMultipleXpath() throws Exception {
+        String input = readResource("/xmlXpathCustom1.xml");
+        assertUnderBudget(
+                "xmlToAvro.multipleXpath",
+                () -> AvroXmlMapper.convertXmlStringToAvro(input, TestModelXMLMultipleXpath.class, "customXpath1"));
+    }
+
+    @Test
+    void shouldStayUnderBudgetWhenConvertingXmlToAvroWithEmbeddedRecord() throws Exception {
+        String input = readResource("/xmlWithEmbeddedRecord.xml");
+        assertUnderBudget(
+                "xmlToAvro.embeddedRecord",
+                () -> AvroXmlMapper.convertXmlStringToAvro(input, TestModelParentRecord.class));
+    }
+
+    @Test
+    void shouldStayUnderBudgetWhenConvertingAvroToXmlWithDefaultXpath() throws Exception {
+        SpecificRecordBase record = AvroXmlMapper.convertXmlStringToAvro(
+                readResource("/xmlDefaultXpath.xml"), TestModelXMLDefaultXpath.class);
+        assertUnderBudget("avroToXml.defaultXpath", () -> AvroXmlMapper.convertAvroToXmlString(record));
+    }
+
+    @Test
+    void shouldStayUnderBudgetWhenConvertingAvroToXmlWithMultipleXpath() throws Exception {
+        SpecificRecordBase record = AvroXmlMapper.convertXmlStringToAvro(
+                readResource("/xmlXpathCustom1.xml"), TestModelXMLMultipleXpath.class, "customXpath1");
+        assertUnderBudget(
+                "avroToXml.multipleXpath", () -> AvroXmlMapper.convertAvroToXmlString(record, "customXpath1"));
+    }
+
+    @Test
+    void shouldStayUnderBudgetWhenConvertingAvroToXmlWithEmbeddedRecord() throws Exception {
+        SpecificRecordBase record = AvroXmlMapper.convertXmlStringToAvro(
+                readResource("/xmlWithEmbeddedRecord.xml"), TestModelParentRecord.class);
+        assertUnderBudget("avroToXml.embeddedRecord", () -> AvroXmlMapper.convertAvroToXmlString(record));
+    }
+
+    private void assertUnderBudget(String budgetKey, Conversion conversion) throws Exception {
+        assumeTrue(threadMXBean.isThreadAllocatedMemorySupported(), "Thread allocation measurement not supported");
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        long budget = Long.parseLong(BUDGETS.getProperty(budgetKey));
+
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            conversion.run();
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            conversion.run();
+        }
+        long allocatedPerMessage = (threadMXBean.getThreadAllocatedBytes(threadId) - before) / MEASURED_ITERATIONS;
+
+        assertTrue(
+                allocatedPerMessage <= budget,
+                budgetKey + " allocated " + allocatedPerMessage + " bytes per message, budget is " + budget);
+    }
+
+    private static String readResource(String name) throws Exception {
+        return IOUtils.toString(
+                Objects.requireNonNull(AllocationBudgetTest.class.getResourceAsStream(name)), StandardCharsets.UTF_8);
+    }
+
+    @FunctionalInterface
+    private interface Conversion {
+        void run() throws Exception;
+    }
+}
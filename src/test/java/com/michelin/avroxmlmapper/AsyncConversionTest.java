@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.michelin.avroxmlmapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.michelin.avro.TestModelXMLDefaultXpath;
+import com.michelin.avroxmlmapper.exception.AvroXmlMapperException;
+import com.michelin.avroxmlmapper.mapper.AvroXmlMapper;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+/**
+ * Asynchronous conversions, run with a high number of conversions in flight at the same time. The benchmarks, tagged
+ * {@code benchmark}, run 10k concurrent conversions with the {@code benchmark} profile and publish the throughput as a
+ * test report entry.
+ */
+class AsyncConversionTest {
+    private static final int CONCURRENT_CONVERSIONS = 100;
+    private static final int BENCHMARK_CONVERSIONS = 10_000;
+
+    @Test
+    void shouldConvertXmlToAvroConcurrently(TestReporter reporter) throws Exception {
+        convertXmlToAvro(reporter, CONCURRENT_CONVERSIONS);
+    }
+
+    @Test
+    void shouldConvertAvroToXmlConcurrently(TestReporter reporter) throws Exception {
+        convertAvroToXml(reporter, CONCURRENT_CONVERSIONS);
+    }
+
+    @Test
+    void shouldCompleteExceptionallyOnFailure() {
+        CompletableFuture<TestModelXMLDefaultXpath> future =
+                AvroXmlMapper.convertXmlStringToAvroAsync("<root", TestModelXMLDefaultXpath.class);
+
+        CompletionException exception = assertThrows(CompletionException.class, future::join);
+        assertInstanceOf(AvroXmlMapperException.class, exception.getCause());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkXmlToAvro(TestReporter reporter) throws Exception {
+        convertXmlToAvro(reporter, BENCHMARK_CONVERSIONS);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkAvroToXml(TestReporter reporter) throws Exception {
+        convertAvroToXml(reporter, BENCHMARK_CONVERSIONS);
+    }
+
+    private static void convertXmlToAvro(TestReporter reporter, int conversions) throws Exception {
+        String input = IOUtils.toString(
+                Objects.requireNonNull(AsyncConversionTest.class.getResourceAsStream("/xmlDefaultXpath.xml")),
+                StandardCharsets.UTF_8);
+        TestModelXMLDefaultXpath expected = AvroXmlMapper.convertXmlStringToAvro(input, TestModelXMLDefaultXpath.class);
+
+        long start = System.nanoTime();
+        List<CompletableFuture<TestModelXMLDefaultXpath>> futures = new ArrayList<>(conversions);
+        for (int i = 0; i < conversions; i++) {
+            futures.add(AvroXmlMapper.convertXmlStringToAvroAsync(input, TestModelXMLDefaultXpath.class));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        report(reporter, "xmlToAvro", conversions, start);
+
+        for (CompletableFuture<TestModelXMLDefaultXpath> future : futures) {
+            assertEquals(expected, future.join());
+        }
+    }
+
+    private static void convertAvroToXml(TestReporter reporter, int conversions) throws Exception {
+        String input = IOUtils.toString(
+                Objects.requireNonNull(AsyncConversionTest.class.getResourceAsStream("/xmlDefaultXpath.xml")),
+                StandardCharsets.UTF_8);
+        TestModelXMLDefaultXpath message = AvroXmlMapper.convertXmlStringToAvro(input, TestModelXMLDefaultXpath.class);
+        String expected = AvroXmlMapper.convertAvroToXmlString(message);
+
+        ExecutorService executor =
+                Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            long start = System.nanoTime();
+            List<CompletableFuture<String>> futures = new ArrayList<>(conversions);
+            for (int i = 0; i < conversions; i++) {
+                futures.add(AvroXmlMapper.convertAvroToXmlStringAsync(message, executor));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+            report(reporter, "avroToXml", conversions, start);
+
+            for (CompletableFuture<String> future : futures) {
+                assertEquals(expected, future.join());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void report(TestReporter reporter, String direction, int conversions, long start) {
+        long elapsedNanos = System.nanoTime() - start;
+        reporter.publishEntry(
+                direction + ".conversionsPerSecond",
+                String.valueOf(conversions * 1_000_000_000L / Math.max(elapsedNanos, 1)));
+    }
+}
@@ -19,30 +19,42 @@
 package com.michelin.avroxmlmapper;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import com.michelin.avro.AltListItem;
 import com.michelin.avro.EmbeddedRecord;
+import com.michelin.avro.StatusEnum;
 import com.michelin.avro.SubXMLTestModel;
 import com.michelin.avro.SubXMLTestModelMultipleXpath;
 import com.michelin.avro.TestModelEmptyNamespace;
+import com.michelin.avro.TestModelEnum;
 import com.michelin.avro.TestModelParentRecord;
 import com.michelin.avro.TestModelXMLDefaultXpath;
 import com.michelin.avro.TestModelXMLMultipleXpath;
 import com.michelin.avroxmlmapper.exception.AvroXmlMapperException;
 import com.michelin.avroxmlmapper.mapper.AvroXmlMapper;
+import com.michelin.avroxmlmapper.mapper.ConversionDiagnostics;
 import com.michelin.avroxmlmapper.utility.GenericUtils;
+import com.michelin.avroxmlmapper.utility.SchemaNamespaceContext;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import javax.xml.namespace.NamespaceContext;
+import org.apache.avro.Schema;
 import org.apache.commons.io.IOUtils;
 import org.custommonkey.xmlunit.XMLUnit;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.w3c.dom.Document;
 
 class AvroXmlMapperTest {
@@ -82,6 +94,37 @@ class AvroXmlMapperTest {
         assertEquals(buildMultiXpathTestModel2(), result);
     }
 
+    @Test
+    void shouldConvertAfterWarmUp() throws Exception {
+        AvroXmlMapper.warmUp(
+                TestModelXMLDefaultXpath.class,
+                TestModelEmptyNamespace.class,
+                TestModelEnum.class,
+                TestModelParentRecord.class);
+        AvroXmlMapper.warmUp("customXpath2", "xmlNamespacesCustom2", TestModelXMLMultipleXpath.class);
+
+        String input = IOUtils.toString(
+                Objects.requireNonNull(AvroXmlMapperTest.class.getResourceAsStream("/xmlDefaultXpath.xml")),
+                StandardCharsets.UTF_8);
+        String customInput = IOUtils.toString(
+                Objects.requireNonNull(
+                        AvroXmlMapperTest.class.getResourceAsStream("/xmlXpathCustom2AndCustomXmlNamespaces.xml")),
+                StandardCharsets.UTF_8);
+
+        assertEquals(
+                buildDefaultXpathTestModel(),
+                AvroXmlMapper.convertXmlStringToAvro(input, TestModelXMLDefaultXpath.class));
+        assertEquals(
+                buildMultiXpathTestModel2(),
+                AvroXmlMapper.convertXmlStringToAvro(
+                        customInput, TestModelXMLMultipleXpath.class, "customXpath2", "xmlNamespacesCustom2"));
+    }
+
+    @Test
+    void shouldRejectWarmUpOfNonRecordClass() {
+        assertThrows(ClassCastException.class, () -> AvroXmlMapper.warmUp(String.class));
+    }
+
     @Test
     void shouldConvertAvroToXml() throws Exception {
         TestModelXMLDefaultXpath expectedModel = buildDefaultXpathTestModel();
@@ -227,6 +270,156 @@ class AvroXmlMapperTest {
                 result);
     }
 
+    @Test
+    void shouldShareSchemaNamespaceContextWithParsedDocuments() throws Exception {
+        Map<String, Schema> schemas = Map.of(
+                "/xmlDefaultXpath.xml", TestModelXMLDefaultXpath.getClassSchema(),
+                "/xmlXpathCustom2AndCustomXmlNamespaces.xml", TestModelXMLMultipleXpath.getClassSchema(),
+                "/xmlWithoutNamespace.xml", TestModelEmptyNamespace.getClassSchema());
+        Map<String, String> selectors = Map.of(
+                "/xmlDefaultXpath.xml", "xmlNamespaces",
+                "/xmlXpathCustom2AndCustomXmlNamespaces.xml", "xmlNamespacesCustom2",
+                "/xmlWithoutNamespace.xml", "specificXmlNamespaces");
+
+        for (Map.Entry<String, Schema> entry : schemas.entrySet()) {
+            String selector = selectors.get(entry.getKey());
+            Document document = GenericUtils.stringToDocument(
+                    IOUtils.toString(
+                            Objects.requireNonNull(AvroXmlMapperTest.class.getResourceAsStream(entry.getKey())),
+                            StandardCharsets.UTF_8),
+                    GenericUtils.xmlNamespaces(entry.getValue(), selector));
+
+            NamespaceContext expected = GenericUtils.getNamespaceContext(document);
+            NamespaceContext shared = GenericUtils.getNamespaceContext(entry.getValue(), selector);
+            for (String prefix : List.of("noprefixns", "ns1", "ns2", "null", "unknown")) {
+                assertEquals(expected.getNamespaceURI(prefix), shared.getNamespaceURI(prefix), entry.getKey());
+            }
+        }
+        assertSame(
+                SchemaNamespaceContext.of(TestModelXMLDefaultXpath.getClassSchema(), "xmlNamespaces"),
+                SchemaNamespaceContext.of(TestModelXMLDefaultXpath.getClassSchema(), "xmlNamespaces"));
+    }
+
+    @Test
+    void shouldConvertXmlBytesToAvroLikeXmlString() throws Exception {
+        for (String resource :
+                List.of("/xmlDefaultXpath.xml", "/xmlWithoutDefaultNamespace.xml", "/xmlWithoutNamespace.xml")) {
+            byte[] input =
+                    IOUtils.toByteArray(Objects.requireNonNull(AvroXmlMapperTest.class.getResourceAsStream(resource)));
+
+            if (resource.equals("/xmlDefaultXpath.xml")) {
+                assertEquals(
+                        AvroXmlMapper.convertXmlStringToAvro(
+                                new String(input, StandardCharsets.UTF_8), TestModelXMLDefaultXpath.class),
+                        AvroXmlMapper.convertXmlBytesToAvro(input, TestModelXMLDefaultXpath.class),
+                        resource);
+            } else {
+                assertEquals(
+                        AvroXmlMapper.convertXmlStringToAvro(
+                                new String(input, StandardCharsets.UTF_8),
+                                TestModelEmptyNamespace.class,
+                                "specificXpath",
+                                "specificXmlNamespaces"),
+                        AvroXmlMapper.convertXmlBytesToAvro(
+                                input, TestModelEmptyNamespace.class, "specificXpath", "specificXmlNamespaces"),
+                        resource);
+                assertEquals(
+                        AvroXmlMapper.convertXmlStringToAvro(
+                                new String(input, StandardCharsets.UTF_8), TestModelEmptyNamespace.class),
+                        AvroXmlMapper.convertXmlBytesToAvro(input, TestModelEmptyNamespace.class),
+                        resource);
+            }
+        }
+    }
+
+    @Test
+    void shouldConvertXmlFileToAvroLikeXmlString(@TempDir Path directory) throws Exception {
+        byte[] input = IOUtils.toByteArray(
+                Objects.requireNonNull(AvroXmlMapperTest.class.getResourceAsStream("/xmlDefaultXpath.xml")));
+        Path file = Files.write(directory.resolve("xmlDefaultXpath.xml"), input);
+
+        assertEquals(
+                AvroXmlMapper.convertXmlStringToAvro(
+                        new String(input, StandardCharsets.UTF_8), TestModelXMLDefaultXpath.class),
+                AvroXmlMapper.convertXmlFileToAvro(file, TestModelXMLDefaultXpath.class));
+    }
+
+    @Test
+    void shouldShareInternedValuesBetweenRecords() throws Exception {
+        String input = IOUtils.toString(
+                Objects.requireNonNull(AvroXmlMapperTest.class.getResourceAsStream("/xmlDefaultXpath.xml")),
+                StandardCharsets.UTF_8);
+
+        TestModelXMLDefaultXpath first = AvroXmlMapper.convertXmlStringToAvro(input, TestModelXMLDefaultXpath.class);
+        TestModelXMLDefaultXpath second = AvroXmlMapper.convertXmlStringToAvro(input, TestModelXMLDefaultXpath.class);
+
+        assertSame(first.getStringFieldWithDefault(), second.getStringFieldWithDefault());
+        for (int i = 0; i < first.getStringList().size(); i++) {
+            assertSame(first.getStringList().get(i), second.getStringList().get(i));
+        }
+        assertNotSame(first.getStringField(), second.getStringField());
+    }
+
+    @Test
+    void shouldCollectMalformedValues() throws Exception {
+        String input = IOUtils.toString(
+                        Objects.requireNonNull(AvroXmlMapperTest.class.getResourceAsStream("/xmlDefaultXpath.xml")),
+                        StandardCharsets.UTF_8)
+                .replace(">2</subIntField>", ">2x</subIntField>");
+
+        ConversionDiagnostics diagnostics = new ConversionDiagnostics();
+        TestModelXMLDefaultXpath result =
+                AvroXmlMapper.convertXmlStringToAvro(input, TestModelXMLDefaultXpath.class, diagnostics);
+
+        assertNull(result.getRecordListWithDefault().get(1).getSubIntField());
+        assertEquals(1, diagnostics.failureCount());
+        assertEquals(
+                List.of(new ConversionDiagnostics.Failure(
+                        "com.michelin.avro.SubXMLTestModel", "subIntField", "2x", "Not a valid int value")),
+                diagnostics.failures());
+    }
+
+    @Test
+    void shouldConvertIntoReusedRecord() throws Exception {
+        String input = IOUtils.toString(
+                Objects.requireNonNull(AvroXmlMapperTest.class.getResourceAsStream("/xmlDefaultXpath.xml")),
+                StandardCharsets.UTF_8);
+        String shorter = input.replaceAll("(?s)<listItem>\\s*<subStringField>item3.*?</listItem>", "")
+                .replaceAll("(?s)<ns2:stringField>.*?</ns2:stringField>", "")
+                .replaceAll("(?s)<stringMapScenario1>.*?</stringMapScenario1>", "");
+
+        TestModelXMLDefaultXpath reuse = AvroXmlMapper.convertXmlStringToAvro(input, TestModelXMLDefaultXpath.class);
+        List<SubXMLTestModel> records = reuse.getRecordListWithDefault();
+        SubXMLTestModel firstRecord = records.get(0);
+
+        TestModelXMLDefaultXpath result = AvroXmlMapper.convertXmlStringToAvro(shorter, reuse);
+
+        assertSame(reuse, result);
+        assertEquals(AvroXmlMapper.convertXmlStringToAvro(shorter, TestModelXMLDefaultXpath.class), result);
+        assertEquals(2, result.getRecordListWithDefault().size());
+        assertSame(records, result.getRecordListWithDefault());
+        assertSame(firstRecord, result.getRecordListWithDefault().get(0));
+
+        result = AvroXmlMapper.convertXmlBytesToAvro(input.getBytes(StandardCharsets.UTF_8), result);
+
+        assertEquals(buildDefaultXpathTestModel(), result);
+    }
+
+    @Test
+    void shouldConvertEmbeddedRecordIntoReusedRecord() throws Exception {
+        String input = IOUtils.toString(
+                Objects.requireNonNull(AvroXmlMapperTest.class.getResourceAsStream("/xmlWithEmbeddedRecord.xml")),
+                StandardCharsets.UTF_8);
+        TestModelParentRecord reuse = AvroXmlMapper.convertXmlStringToAvro(input, TestModelParentRecord.class);
+        EmbeddedRecord embeddedRecord = reuse.getEmbeddedRecord();
+        embeddedRecord.setStringField("stale");
+
+        TestModelParentRecord result = AvroXmlMapper.convertXmlStringToAvro(input, reuse);
+
+        assertSame(embeddedRecord, result.getEmbeddedRecord());
+        assertEquals(AvroXmlMapper.convertXmlStringToAvro(input, TestModelParentRecord.class), result);
+    }
+
     @Test
     void shouldConvertEmbeddedRecordXMLToAvro() throws Exception {
         TestModelParentRecord expectedModel = TestModelParentRecord.newBuilder()
@@ -262,6 +455,53 @@ class AvroXmlMapperTest {
         assertEquals(GenericUtils.documentToString(expectedDocument), GenericUtils.documentToString(result));
     }
 
+    @Test
+    void shouldNotShareMutableDefaultValuesBetweenRecords() throws Exception {
+        String input = "<root xmlns=\"http://namespace.uri/default\" xmlns:ns2=\"http://namespace.uri/2\"/>";
+
+        TestModelXMLDefaultXpath first = AvroXmlMapper.convertXmlStringToAvro(input, TestModelXMLDefaultXpath.class);
+        first.getStringListWithDefault().add("added");
+        first.getStringMapScenario1().put("added", "added");
+        TestModelXMLDefaultXpath second = AvroXmlMapper.convertXmlStringToAvro(input, TestModelXMLDefaultXpath.class);
+
+        assertEquals(List.of(), second.getStringListWithDefault());
+        assertEquals(Map.of(), second.getStringMapScenario1());
+        assertEquals(new BigDecimal("51.2000"), second.getQuantityFieldWithDefault());
+        assertEquals(Instant.EPOCH, second.getDateFieldWithDefault());
+    }
+
+    @Test
+    void shouldConvertEnumXmlToAvro() throws Exception {
+        TestModelEnum expectedModel = TestModelEnum.newBuilder()
+                .setStatus(StatusEnum.ACTIVE)
+                .setCaseInsensitiveStatus(StatusEnum.INACTIVE)
+                .setUnknownStatus(StatusEnum.UNKNOWN)
+                .setStatusWithDefault(StatusEnum.INACTIVE)
+                .build();
+
+        String input = IOUtils.toString(
+                Objects.requireNonNull(AvroXmlMapperTest.class.getResourceAsStream("/xmlWithEnum.xml")),
+                StandardCharsets.UTF_8);
+        TestModelEnum result = AvroXmlMapper.convertXmlStringToAvro(input, TestModelEnum.class);
+
+        assertEquals(expectedModel, result);
+    }
+
+    @Test
+    void shouldConvertEnumAvroToXml() throws Exception {
+        TestModelEnum inputModel = TestModelEnum.newBuilder()
+                .setStatus(StatusEnum.ACTIVE)
+                .setCaseInsensitiveStatus(StatusEnum.INACTIVE)
+                .setStatusWithDefault(StatusEnum.UNKNOWN)
+                .build();
+
+        Document result = AvroXmlMapper.convertAvroToXmlDocument(inputModel);
+        Document expectedDocument = XMLUnit.getWhitespaceStrippedDocument(XMLUnit.buildControlDocument(
+                "<root><status>ACTIVE</status><caseInsensitiveStatus>INACTIVE</caseInsensitiveStatus>"
+                        + "<statusWithDefault>UNKNOWN</statusWithDefault></root>"));
+        assertEquals(GenericUtils.documentToString(expectedDocument), GenericUtils.documentToString(result));
+    }
+
     private TestModelXMLDefaultXpath buildDefaultXpathTestModel() {
         Map<String, String> mapResult = new HashMap<>();
         mapResult.put("key1", "value1");
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.michelin.avroxmlmapper;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.michelin.avro.TestModelXMLDefaultXpath;
+import com.michelin.avro.TestModelXMLMultipleXpath;
+import com.michelin.avroxmlmapper.kafka.AvroXmlDeserializer;
+import com.michelin.avroxmlmapper.kafka.AvroXmlSerde;
+import com.michelin.avroxmlmapper.kafka.AvroXmlSerdeConfig;
+import com.michelin.avroxmlmapper.mapper.AvroXmlMapper;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Objects;
+import org.apache.commons.io.IOUtils;
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serde;
+import org.junit.jupiter.api.Test;
+
+class AvroXmlSerdeTest {
+
+    @Test
+    void shouldSerializeAndDeserializeWithConfiguredSerde() throws Exception {
+        String input = IOUtils.toString(
+                Objects.requireNonNull(AvroXmlSerdeTest.class.getResourceAsStream("/xmlXpathCustom1.xml")),
+                StandardCharsets.UTF_8);
+        TestModelXMLMultipleXpath message =
+                AvroXmlMapper.convertXmlStringToAvro(input, TestModelXMLMultipleXpath.class, "customXpath1");
+
+        try (Serde<TestModelXMLMultipleXpath> serde = new AvroXmlSerde<>()) {
+            serde.configure(
+                    Map.of(
+                            AvroXmlSerdeConfig.VALUE_RECORD_CLASS_CONFIG,
+                            TestModelXMLMultipleXpath.class.getName(),
+                            AvroXmlSerdeConfig.XPATH_SELECTOR_CONFIG,
+                            "customXpath1"),
+                    false);
+
+            byte[] payload = serde.serializer().serialize("topic", message);
+
+            assertArrayEquals(
+                    AvroXmlMapper.convertAvroToXmlString(message, "customXpath1")
+                            .getBytes(StandardCharsets.UTF_8),
+                    payload);
+            assertEquals(
+                    AvroXmlMapper.convertXmlStringToAvro(
+                            new String(payload, StandardCharsets.UTF_8),
+                            TestModelXMLMultipleXpath.class,
+                            "customXpath1"),
+                    serde.deserializer().deserialize("topic", payload));
+        }
+    }
+
+    @Test
+    void shouldDeserializeLikeStringConversion() throws Exception {
+        byte[] payload = IOUtils.toByteArray(
+                Objects.requireNonNull(AvroXmlSerdeTest.class.getResourceAsStream("/xmlDefaultXpath.xml")));
+
+        try (AvroXmlDeserializer<TestModelXMLDefaultXpath> deserializer =
+                new AvroXmlDeserializer<>(TestModelXMLDefaultXpath.class)) {
+            assertEquals(
+                    AvroXmlMapper.convertXmlStringToAvro(
+                            new String(payload, StandardCharsets.UTF_8), TestModelXMLDefaultXpath.class),
+                    deserializer.deserialize("topic", payload));
+            assertNull(deserializer.deserialize("topic", null));
+            assertThrows(
+                    SerializationException.class,
+                    () -> deserializer.deserialize("topic", "<root".getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    @Test
+    void shouldRejectMissingRecordClass() {
+        try (Serde<TestModelXMLDefaultXpath> serde = new AvroXmlSerde<>()) {
+            Map<String, Object> configs = Map.of(AvroXmlSerdeConfig.VALUE_RECORD_CLASS_CONFIG, String.class);
+
+            assertThrows(ConfigException.class, () -> serde.configure(configs, false));
+            assertThrows(ConfigException.class, () -> serde.configure(configs, true));
+        }
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.michelin.avroxmlmapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.michelin.avro.TestModelEnum;
+import com.michelin.avro.TestModelXMLDefaultXpath;
+import com.michelin.avroxmlmapper.cli.BulkConversion;
+import com.michelin.avroxmlmapper.mapper.AvroXmlMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BulkConversionTest {
+    private static final String RECORD_CLASS = TestModelXMLDefaultXpath.class.getName();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldConvertXmlFilesToAvroAndBack() throws Exception {
+        Path input = Files.createDirectory(tempDir.resolve("input"));
+        for (int i = 1; i <= 3; i++) {
+            try (InputStream xml = BulkConversionTest.class.getResourceAsStream("/xmlDefaultXpath.xml")) {
+                Files.copy(Objects.requireNonNull(xml), input.resolve("record-" + i + ".xml"));
+            }
+        }
+        TestModelXMLDefaultXpath expected = AvroXmlMapper.convertXmlBytesToAvro(
+                Files.readAllBytes(input.resolve("record-1.xml")), TestModelXMLDefaultXpath.class);
+        Path avro = tempDir.resolve("records.avro");
+        Path output = tempDir.resolve("output");
+        ByteArrayOutputStream statistics = new ByteArrayOutputStream();
+
+        assertEquals(
+                0,
+                BulkConversion.run(
+                        new String[] {
+                            "xml-to-avro",
+                            "--class",
+                            RECORD_CLASS,
+                            "--output",
+                            avro.toString(),
+                            "--threads",
+                            "2",
+                            "--in-flight",
+                            "1",
+                            input.toString()
+                        },
+                        new PrintStream(statistics, true, StandardCharsets.UTF_8),
+                        System.err));
+
+        List<TestModelXMLDefaultXpath> records = new ArrayList<>();
+        try (DataFileReader<TestModelXMLDefaultXpath> reader =
+                new DataFileReader<>(avro.toFile(), new SpecificDatumReader<>(TestModelXMLDefaultXpath.class))) {
+            reader.forEach(records::add);
+        }
+        assertEquals(List.of(expected, expected, expected), records);
+        assertTrue(statistics.toString(StandardCharsets.UTF_8).contains("Converted 3 records"));
+        assertTrue(statistics.toString(StandardCharsets.UTF_8).contains("records/s"));
+
+        assertEquals(
+                0,
+                BulkConversion.run(
+                        new String[] {
+                            "avro-to-xml", "--class", RECORD_CLASS, "--output", output.toString(), avro.toString()
+                        },
+                        new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8),
+                        System.err));
+
+        try (Stream<Path> files = Files.list(output)) {
+            List<Path> xmlFiles = files.sorted().toList();
+            assertEquals(3, xmlFiles.size());
+            for (Path xmlFile : xmlFiles) {
+                assertEquals(
+                        expected,
+                        AvroXmlMapper.convertXmlBytesToAvro(
+                                Files.readAllBytes(xmlFile), TestModelXMLDefaultXpath.class));
+            }
+        }
+    }
+
+    @Test
+    void shouldConvertRecordsOfAnotherJar() throws Exception {
+        Path input = Files.createDirectory(tempDir.resolve("input"));
+        try (InputStream xml = BulkConversionTest.class.getResourceAsStream("/xmlWithEnum.xml")) {
+            Files.copy(Objects.requireNonNull(xml), input.resolve("record.xml"));
+        }
+        Path jar = modelJar(tempDir.resolve("models.jar"));
+        Path avro = tempDir.resolve("records.avro");
+        Path output = tempDir.resolve("output");
+
+        // The tool and the mapper are loaded apart from the generated classes, which are only found in the jar
+        Path mapperClasses = Path.of(AvroXmlMapper.class
+                .getProtectionDomain()
+                .getCodeSource()
+                .getLocation()
+                .toURI());
+        try (URLClassLoader toolLoader = new URLClassLoader(
+                new URL[] {mapperClasses.toUri().toURL()},
+                new HidingClassLoader(getClass().getClassLoader()))) {
+            Method run = toolLoader
+                    .loadClass(BulkConversion.class.getName())
+                    .getMethod("run", String[].class, PrintStream.class, PrintStream.class);
+            PrintStream out = new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8);
+
+            assertEquals(
+                    0,
+                    run.invoke(
+                            null,
+                            new String[] {
+                                "xml-to-avro",
+                                "--jar",
+                                jar.toString(),
+                                "--class",
+                                TestModelEnum.class.getName(),
+                                "--output",
+                                avro.toString(),
+                                input.toString()
+                            },
+                            out,
+                            System.err));
+            assertEquals(
+                    0,
+                    run.invoke(
+                            null,
+                            new String[] {
+                                "avro-to-xml",
+                                "--jar",
+                                jar.toString(),
+                                "--class",
+                                TestModelEnum.class.getName(),
+                                "--output",
+                                output.toString(),
+                                avro.toString()
+                            },
+                            out,
+                            System.err));
+        }
+
+        TestModelEnum expected = AvroXmlMapper.convertXmlBytesToAvro(
+                Files.readAllBytes(input.resolve("record.xml")), TestModelEnum.class);
+        try (DataFileReader<TestModelEnum> reader =
+                new DataFileReader<>(avro.toFile(), new SpecificDatumReader<>(TestModelEnum.class))) {
+            assertEquals(expected, reader.next());
+        }
+        assertEquals(
+                expected,
+                AvroXmlMapper.convertXmlBytesToAvro(
+                        Files.readAllBytes(output.resolve("records-1.xml")), TestModelEnum.class));
+    }
+
+    @Test
+    void shouldRejectInvalidArguments() {
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+        assertEquals(
+                2,
+                BulkConversion.run(
+                        new String[] {"xml-to-avro", "--threads", "0"},
+                        System.out,
+                        new PrintStream(err, true, StandardCharsets.UTF_8)));
+        assertTrue(err.toString(StandardCharsets.UTF_8).contains("Usage"));
+    }
+
+    /**
+     * Write the generated test classes to a jar.
+     *
+     * @param jar The jar to write
+     * @return The jar
+     */
+    private static Path modelJar(Path jar) throws Exception {
+        Path classes = Path.of(TestModelEnum.class
+                .getProtectionDomain()
+                .getCodeSource()
+                .getLocation()
+                .toURI());
+        Path models = classes.resolve(TestModelEnum.class.getPackageName().replace('.', '/'));
+
+        try (JarOutputStream output = new JarOutputStream(Files.newOutputStream(jar));
+                Stream<Path> files = Files.list(models)) {
+            for (Path file :
+                    files.filter(path -> path.toString().endsWith(".class")).toList()) {
+                output.putNextEntry(
+                        new JarEntry(classes.relativize(file).toString().replace('\\', '/')));
+                output.write(Files.readAllBytes(file));
+                output.closeEntry();
+            }
+        }
+        return jar;
+    }
+
+    /** A class loader hiding the classes of the mapper and of the generated test models of its parent. */
+    private static final class HidingClassLoader extends ClassLoader {
+        HidingClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (name.startsWith("com.michelin.")) {
+                throw new ClassNotFoundException(name);
+            }
+            return super.loadClass(name, resolve);
+        }
+    }
+}
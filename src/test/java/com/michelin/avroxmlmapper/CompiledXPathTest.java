@@ -0,0 +1,268 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.michelin.avroxmlmapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.michelin.avroxmlmapper.utility.CompiledXPath;
+import com.michelin.avroxmlmapper.utility.GenericUtils;
+import com.michelin.avroxmlmapper.utility.SchemaNamespaceContext;
+import com.michelin.avroxmlmapper.utility.XPathFormatter;
+import com.michelin.avroxmlmapper.utility.XPathTrie;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+class CompiledXPathTest {
+    private static final String XML = """
+            <root xmlns="http://namespace.uri/default" xmlns:ns9="http://namespace.uri/2">
+                <ns9:header Type="ORDER" id="1">
+                    <number>42</number>
+                </ns9:header>
+                <recordList>
+                    <listItem TYPE="A"><value>a1</value></listItem>
+                    <listItem type="B"><value>b1</value><value>b2</value></listItem>
+                    <listItem type="A"><value>a2</value></listItem>
+                </recordList>
+            </root>""";
+
+    private Document document;
+    private NamespaceContext namespaceContext;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, String> namespaces = new HashMap<>();
+        namespaces.put("null", "http://namespace.uri/default");
+        namespaces.put("ns2", "http://namespace.uri/2");
+        document = GenericUtils.stringToDocument(XML, namespaces);
+        namespaceContext = GenericUtils.getNamespaceContext(document);
+    }
+
+    @Test
+    void shouldEvaluateLikeTheJdkEngine() throws Exception {
+        for (String xpath : List.of(
+                ".",
+                "ns2:header",
+                "ns2:header/@type",
+                "ns2:header/@ID",
+                "ns2:header/number",
+                "recordList/listItem",
+                "recordList/listItem/value",
+                "recordList/listItem[@type='A']/value",
+                "recordList/listItem[@type = \"B\"]/value[2]",
+                "recordList/listItem[2]",
+                "recordList/listItem[@type='A'][2]/value",
+                "recordList/listItem[4]",
+                "unknown/element",
+                "./recordList/listItem/@type")) {
+            String formatted = XPathFormatter.format(xpath);
+            CompiledXPath compiled = CompiledXPath.compile(formatted).orElseThrow();
+            Node context = document.getDocumentElement();
+
+            assertEquals(evaluateWithJdk(context, formatted), compiled.evaluate(context, namespaceContext), xpath);
+            assertEquals(
+                    evaluateStringWithJdk(context, formatted),
+                    compiled.evaluateString(context, namespaceContext),
+                    xpath);
+        }
+    }
+
+    @Test
+    void shouldNotCompileExpressionsOutsideTheSubset() {
+        for (String xpath : List.of(
+                "recordList//value",
+                "//listItem//value",
+                "//@type",
+                "///listItem",
+                "/root/recordList",
+                "recordList/listItem[value='a1']",
+                "recordList/listItem[@type='A' and value='a1']",
+                "recordList/listItem/text()",
+                "count(recordList/listItem)",
+                "recordList/*",
+                "recordList/..")) {
+            assertFalse(CompiledXPath.compile(XPathFormatter.format(xpath)).isPresent(), xpath);
+        }
+    }
+
+    @Test
+    void shouldEvaluateDescendantPathsLikeTheJdkEngine() throws Exception {
+        String nested = """
+                <root xmlns="http://namespace.uri/default" xmlns:ns9="http://namespace.uri/2">
+                    <party id="P1"><name>first</name><party id="P2"><name>nested</name></party></party>
+                    <ns9:party id="P3"><name>other namespace</name></ns9:party>
+                    <orders>
+                        <order party="P2"><line>1</line><line>2</line></order>
+                        <order party="P1"><line>3</line></order>
+                    </orders>
+                    <party ID="P4" id="P4"><name>last</name></party>
+                    <party id="P1"><name>duplicate</name></party>
+                </root>""";
+        Map<String, String> namespaces = new HashMap<>();
+        namespaces.put("null", "http://namespace.uri/default");
+        namespaces.put("ns2", "http://namespace.uri/2");
+        document = GenericUtils.stringToDocument(nested, namespaces);
+        Node context = document.getElementsByTagNameNS("*", "order").item(1);
+
+        for (NamespaceContext evaluationContext : List.of(
+                GenericUtils.getNamespaceContext(document),
+                SchemaNamespaceContext.of(
+                        Map.of("noprefixns", "http://namespace.uri/default", "ns2", "http://namespace.uri/2")))) {
+            namespaceContext = evaluationContext;
+
+            for (String xpath : List.of(
+                    "//party",
+                    "//party/name",
+                    "//ns2:party/name",
+                    "//party[@id='P2']/name",
+                    "//party[1]",
+                    "//party[2]/name",
+                    "//party[@id='P4'][1]/@id",
+                    "//party[@ID='P1']/name",
+                    "//party[@id='P9']",
+                    "//ns2:party[@id='P3']/name",
+                    "//order[@party='P1']/line",
+                    "//order[@party = \"P2\"]/line[2]",
+                    "//line[@party='P1']",
+                    "//line",
+                    "//line[2]",
+                    "//root",
+                    "//unknown",
+                    "//orders/order/@party")) {
+                String formatted = XPathFormatter.format(xpath);
+                CompiledXPath compiled = CompiledXPath.compile(formatted).orElseThrow();
+                assertTrue(compiled.isAbsolute(), xpath);
+
+                // Evaluated twice so that the second evaluation goes through the index built by the first one
+                for (int i = 0; i < 2; i++) {
+                    assertEquals(
+                            evaluateWithJdk(context, formatted), compiled.evaluate(context, namespaceContext), xpath);
+                    assertEquals(
+                            evaluateStringWithJdk(context, formatted),
+                            compiled.evaluateString(context, namespaceContext),
+                            xpath);
+                }
+            }
+        }
+    }
+
+    @Test
+    void shouldFallbackOnUnknownPrefix() {
+        CompiledXPath compiled = CompiledXPath.compile("unknown:element").orElseThrow();
+
+        assertEquals(null, compiled.evaluate(document.getDocumentElement(), namespaceContext));
+        assertTrue(CompiledXPath.compile("noprefixns:recordList").isPresent());
+    }
+
+    @Test
+    void shouldMatchAttributesOfWideElementsLikeTheJdkEngine() throws Exception {
+        StringBuilder wide = new StringBuilder("<root xmlns=\"http://namespace.uri/default\"><item");
+        for (int i = 0; i < 24; i++) {
+            wide.append(i % 2 == 0 ? " Attr" : " aTTR")
+                    .append(i)
+                    .append("=\"v")
+                    .append(i)
+                    .append('"');
+        }
+        wide.append(" TYPE=\"A\"/><item");
+        for (int i = 0; i < 24; i++) {
+            wide.append(" attr").append(i).append("=\"w").append(i).append('"');
+        }
+        // Same lower-cased name twice: the element is not indexed and the first attribute in document order wins
+        wide.append(" Type=\"B\" tYPE=\"C\"/></root>");
+
+        Map<String, String> namespaces = new HashMap<>();
+        namespaces.put("null", "http://namespace.uri/default");
+        document = GenericUtils.stringToDocument(wide.toString(), namespaces);
+        namespaceContext = GenericUtils.getNamespaceContext(document);
+
+        for (String xpath : List.of(
+                "item/@attr3",
+                "item/@ATTR10",
+                "item/@type",
+                "item/@unknown",
+                "item[@type='A']/@attr5",
+                "item[@type='B']/@attr5",
+                "item[@type='C']/@attr5",
+                "item[@attr23='w23']/@type")) {
+            String formatted = XPathFormatter.format(xpath);
+            CompiledXPath compiled = CompiledXPath.compile(formatted).orElseThrow();
+            Node context = document.getDocumentElement();
+
+            // Evaluated twice so that the second evaluation goes through the indexes built by the first one
+            for (int i = 0; i < 2; i++) {
+                assertEquals(evaluateWithJdk(context, formatted), compiled.evaluate(context, namespaceContext), xpath);
+                assertEquals(
+                        evaluateStringWithJdk(context, formatted),
+                        compiled.evaluateString(context, namespaceContext),
+                        xpath);
+            }
+        }
+    }
+
+    @Test
+    void shouldEvaluateTrieLikeEachXPath() {
+        List<String> xpaths = List.of(
+                ".",
+                "ns2:header/@type",
+                "ns2:header/number",
+                "recordList/listItem",
+                "recordList/listItem/value",
+                "recordList/listItem[@type='A']/value",
+                "recordList/listItem[@type='A'][2]/value",
+                "recordList/listItem[2]/value[2]",
+                "recordList/listItem/@type",
+                "unknown:element/value",
+                "unknown/element");
+        List<CompiledXPath> compiled = xpaths.stream()
+                .map(xpath ->
+                        CompiledXPath.compile(XPathFormatter.format(xpath)).orElseThrow())
+                .toList();
+        Node context = document.getDocumentElement();
+
+        List<List<Node>> results = XPathTrie.of(compiled).evaluate(context, namespaceContext);
+
+        for (int i = 0; i < xpaths.size(); i++) {
+            assertEquals(compiled.get(i).evaluate(context, namespaceContext), results.get(i), xpaths.get(i));
+        }
+        assertEquals(null, results.get(xpaths.indexOf("unknown:element/value")));
+    }
+
+    private List<Node> evaluateWithJdk(Node context, String xpath) throws XPathExpressionException {
+        var xPath = GenericUtils.getXpath();
+        xPath.setNamespaceContext(namespaceContext);
+        return GenericUtils.asList((NodeList) xPath.evaluate(xpath, context, XPathConstants.NODESET));
+    }
+
+    private String evaluateStringWithJdk(Node context, String xpath) throws XPathExpressionException {
+        var xPath = GenericUtils.getXpath();
+        xPath.setNamespaceContext(namespaceContext);
+        return (String) xPath.evaluate(xpath, context, XPathConstants.STRING);
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.michelin.avroxmlmapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.michelin.avro.TestModelXMLDefaultXpath;
+import com.michelin.avroxmlmapper.jfr.ConversionEvent;
+import com.michelin.avroxmlmapper.jfr.SlowFieldEvent;
+import com.michelin.avroxmlmapper.mapper.AvroXmlMapper;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.apache.avro.Schema;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JfrEventTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldEmitConversionAndSlowFieldEvents() throws Exception {
+        String input = IOUtils.toString(
+                Objects.requireNonNull(JfrEventTest.class.getResourceAsStream("/xmlDefaultXpath.xml")),
+                StandardCharsets.UTF_8);
+        // Characters encoded on 2, 3 and 4 bytes, so that the input size differs from the string length
+        input = input + "<!-- \u00e9\u20ac\ud83d\ude00 -->";
+
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(ConversionEvent.class);
+            recording.enable(SlowFieldEvent.class).withThreshold(Duration.ZERO);
+            recording.start();
+
+            TestModelXMLDefaultXpath result =
+                    AvroXmlMapper.convertXmlStringToAvro(input, TestModelXMLDefaultXpath.class);
+            AvroXmlMapper.convertAvroToXmlString(result);
+
+            recording.stop();
+            Path file = tempDir.resolve("recording.jfr");
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        }
+
+        List<RecordedEvent> conversions = events.stream()
+                .filter(e -> e.getEventType().getName().equals(ConversionEvent.NAME))
+                .toList();
+
+        assertEquals(2, conversions.size());
+        assertEquals(ConversionEvent.XML_TO_AVRO, conversions.get(0).getString("direction"));
+        assertEquals(
+                "com.michelin.avro.TestModelXMLDefaultXpath", conversions.get(0).getString("recordType"));
+        assertEquals(
+                input.getBytes(StandardCharsets.UTF_8).length,
+                conversions.get(0).getLong("inputSize"));
+        assertEquals(
+                TestModelXMLDefaultXpath.getClassSchema().getFields().size(),
+                conversions.get(0).getInt("fieldCount"));
+        assertEquals(ConversionEvent.AVRO_TO_XML, conversions.get(1).getString("direction"));
+
+        List<RecordedEvent> slowFields = events.stream()
+                .filter(e -> e.getEventType().getName().equals(SlowFieldEvent.NAME))
+                .toList();
+
+        assertFalse(slowFields.isEmpty());
+        assertTrue(slowFields.stream()
+                .anyMatch(e -> "stringField".equals(e.getString("fieldName"))
+                        && "ns2:stringField".equals(e.getString("xpath"))));
+    }
+
+    @Test
+    void shouldEmitConversionEventForLazyConversion() throws Exception {
+        String input = IOUtils.toString(
+                Objects.requireNonNull(JfrEventTest.class.getResourceAsStream("/xmlDefaultXpath.xml")),
+                StandardCharsets.UTF_8);
+
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(ConversionEvent.class);
+            recording.start();
+
+            AvroXmlMapper.convertXmlStringToLazyAvro(input, TestModelXMLDefaultXpath.class);
+
+            recording.stop();
+            Path file = tempDir.resolve("recording.jfr");
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        }
+
+        List<RecordedEvent> conversions = events.stream()
+                .filter(e -> e.getEventType().getName().equals(ConversionEvent.NAME))
+                .toList();
+
+        assertEquals(1, conversions.size());
+        assertEquals(ConversionEvent.XML_TO_AVRO, conversions.get(0).getString("direction"));
+        assertEquals(
+                "com.michelin.avro.TestModelXMLDefaultXpath", conversions.get(0).getString("recordType"));
+        assertEquals(
+                input.getBytes(StandardCharsets.UTF_8).length,
+                conversions.get(0).getLong("inputSize"));
+    }
+
+    @Test
+    void shouldEmitSlowFieldEventsForFieldsMatchedInASingleTraversal() throws Exception {
+        String input = IOUtils.toString(
+                Objects.requireNonNull(JfrEventTest.class.getResourceAsStream("/xmlDefaultXpath.xml")),
+                StandardCharsets.UTF_8);
+
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(SlowFieldEvent.class).withThreshold(Duration.ZERO);
+            recording.start();
+
+            AvroXmlMapper.convertXmlStringToAvro(input, TestModelXMLDefaultXpath.class);
+
+            recording.stop();
+            Path file = tempDir.resolve("recording.jfr");
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        }
+
+        // The xpaths of the fields are matched together by the record plan before the fields are converted
+        Set<String> fieldNames = events.stream()
+                .filter(e -> e.getEventType().getName().equals(SlowFieldEvent.NAME))
+                .filter(e -> "com.michelin.avro.TestModelXMLDefaultXpath".equals(e.getString("recordType")))
+                .map(e -> e.getString("fieldName"))
+                .collect(Collectors.toSet());
+
+        assertEquals(
+                TestModelXMLDefaultXpath.getClassSchema().getFields().stream()
+                        .map(Schema.Field::name)
+                        .collect(Collectors.toSet()),
+                fieldNames);
+    }
+}
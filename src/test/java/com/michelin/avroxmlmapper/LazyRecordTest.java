@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.michelin.avroxmlmapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.michelin.avro.TestModelParentRecord;
+import com.michelin.avro.TestModelXMLDefaultXpath;
+import com.michelin.avroxmlmapper.mapper.AvroXmlMapper;
+import com.michelin.avroxmlmapper.mapper.LazyRecord;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+import org.apache.avro.Schema;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+
+class LazyRecordTest {
+
+    @Test
+    void shouldReadFieldsLikeEagerConversion() throws Exception {
+        String input = readResource("/xmlDefaultXpath.xml");
+        TestModelXMLDefaultXpath expected = AvroXmlMapper.convertXmlStringToAvro(input, TestModelXMLDefaultXpath.class);
+
+        LazyRecord<TestModelXMLDefaultXpath> lazy =
+                AvroXmlMapper.convertXmlStringToLazyAvro(input, TestModelXMLDefaultXpath.class);
+
+        for (Schema.Field field : expected.getSchema().getFields()) {
+            if (!(lazy.get(field.pos()) instanceof List<?>)) {
+                assertEquals(expected.get(field.pos()), lazy.get(field.pos()), field.name());
+            }
+        }
+        assertSame(lazy.get("stringMapScenario1"), lazy.get("stringMapScenario1"));
+
+        List<?> recordList = (List<?>) lazy.get("recordListWithDefault");
+        assertEquals(expected.getRecordListWithDefault().size(), recordList.size());
+        LazyRecord<?> firstItem = assertInstanceOf(LazyRecord.class, recordList.get(0));
+        assertEquals(expected.getRecordListWithDefault().get(0).getSubStringField(), firstItem.get("subStringField"));
+
+        assertEquals(expected, lazy.toRecord());
+    }
+
+    @Test
+    void shouldReadAFewFieldsInAnyOrder() throws Exception {
+        String input = readResource("/xmlDefaultXpath.xml");
+        TestModelXMLDefaultXpath expected = AvroXmlMapper.convertXmlStringToAvro(input, TestModelXMLDefaultXpath.class);
+
+        LazyRecord<TestModelXMLDefaultXpath> lazy =
+                AvroXmlMapper.convertXmlStringToLazyAvro(input, TestModelXMLDefaultXpath.class);
+
+        // The first fields read are evaluated alone, the following ones in a single traversal
+        List<Schema.Field> fields = expected.getSchema().getFields();
+        for (int i = fields.size() - 1; i >= 0; i--) {
+            if (!(lazy.get(i) instanceof List<?>)) {
+                assertEquals(expected.get(i), lazy.get(i), fields.get(i).name());
+            }
+        }
+        assertEquals(expected, lazy.toRecord());
+    }
+
+    @Test
+    void shouldResolveNestedRecordsLazily() throws Exception {
+        String input = readResource("/xmlWithEmbeddedRecord.xml");
+        TestModelParentRecord expected = AvroXmlMapper.convertXmlStringToAvro(input, TestModelParentRecord.class);
+
+        LazyRecord<TestModelParentRecord> lazy =
+                AvroXmlMapper.convertXmlStringToLazyAvro(input, TestModelParentRecord.class);
+
+        LazyRecord<?> embedded = assertInstanceOf(LazyRecord.class, lazy.get("embeddedRecord"));
+        assertEquals(expected.getEmbeddedRecord().getStringField(), embedded.get("stringField"));
+        assertEquals(expected, lazy.toRecord());
+    }
+
+    @Test
+    void shouldBeReadOnly() throws Exception {
+        LazyRecord<TestModelXMLDefaultXpath> lazy = AvroXmlMapper.convertXmlStringToLazyAvro(
+                readResource("/xmlDefaultXpath.xml"), TestModelXMLDefaultXpath.class);
+
+        assertThrows(UnsupportedOperationException.class, () -> lazy.put("stringField", "value"));
+    }
+
+    private static String readResource(String name) throws Exception {
+        return IOUtils.toString(
+                Objects.requireNonNull(LazyRecordTest.class.getResourceAsStream(name)), StandardCharsets.UTF_8);
+    }
+}
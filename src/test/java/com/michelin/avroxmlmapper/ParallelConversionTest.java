@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.michelin.avroxmlmapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.michelin.avro.SubXMLTestModel;
+import com.michelin.avro.TestModelSplitReference;
+import com.michelin.avro.TestModelXMLDefaultXpath;
+import com.michelin.avroxmlmapper.mapper.AvroXmlMapper;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Conversions parallelized over the elements of large arrays, compared to the sequential conversions. */
+class ParallelConversionTest {
+    private static final int ITEMS = 5_000;
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void startPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void stopPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void shouldConvertSplitFileLikeSequentialConversion(@TempDir Path directory) throws Exception {
+        Path file = Files.writeString(directory.resolve("large.xml"), largeDocument(), StandardCharsets.UTF_8);
+
+        TestModelXMLDefaultXpath expected = AvroXmlMapper.convertXmlFileToAvro(file, TestModelXMLDefaultXpath.class);
+        TestModelXMLDefaultXpath result = AvroXmlMapper.convertXmlFileToAvroInParallel(
+                file, TestModelXMLDefaultXpath.class, "recordListWithDefault", pool);
+
+        assertEquals(ITEMS + 5, result.getRecordListWithDefault().size());
+        assertEquals(expected, result);
+        assertEquals(
+                expected,
+                AvroXmlMapper.convertXmlFileToAvroInParallel(file, TestModelXMLDefaultXpath.class, "altList", pool));
+    }
+
+    @Test
+    void shouldConvertLargeRecordArrayInParallelInOrder() throws Exception {
+        // recordListWithDefault is converted in parallel from 1000 elements
+        TestModelXMLDefaultXpath result =
+                AvroXmlMapper.convertXmlStringToAvro(largeDocument(), TestModelXMLDefaultXpath.class);
+
+        List<SubXMLTestModel> records = result.getRecordListWithDefault();
+        assertEquals(ITEMS + 5, records.size());
+        for (int i = 0; i < ITEMS; i++) {
+            assertEquals("<item" + i + ">", records.get(i).getSubStringField());
+            assertEquals(i, records.get(i).getSubIntField());
+            assertEquals("a/>" + i, records.get(i).getSubStringFieldFromAttribute());
+        }
+        assertNull(records.get(ITEMS).getSubStringField());
+    }
+
+    @Test
+    void shouldBuildLargeRecordArrayInParallelInOrder() throws Exception {
+        TestModelXMLDefaultXpath model =
+                AvroXmlMapper.convertXmlStringToAvro(largeDocument(), TestModelXMLDefaultXpath.class);
+
+        // recordListWithDefault is built in parallel from 1000 records
+        String xml = AvroXmlMapper.convertAvroToXmlString(model);
+        TestModelXMLDefaultXpath result = AvroXmlMapper.convertXmlStringToAvro(xml, TestModelXMLDefaultXpath.class);
+
+        assertEquals(model.getRecordListWithDefault(), result.getRecordListWithDefault());
+    }
+
+    @Test
+    void shouldRejectFieldsWhichCannotBeSplit(@TempDir Path directory) throws Exception {
+        Path file = Files.writeString(directory.resolve("large.xml"), largeDocument(), StandardCharsets.UTF_8);
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> AvroXmlMapper.convertXmlFileToAvroInParallel(
+                        file, TestModelXMLDefaultXpath.class, "stringList", pool));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> AvroXmlMapper.convertXmlFileToAvroInParallel(
+                        file, TestModelXMLDefaultXpath.class, "unknownField", pool));
+    }
+
+    @Test
+    void shouldConvertReferencesOfLargeRecordArrayInParallel() throws Exception {
+        StringBuilder xml = new StringBuilder("<root><categories>");
+        xml.append("<category id='c0' label='zero'/><category id='c1' label='one'/></categories><items>");
+        for (int i = 0; i < ITEMS; i++) {
+            xml.append("<item><name>item").append(i).append("</name></item>");
+        }
+        xml.append("</items></root>");
+
+        // The items are converted in parallel from 16 elements, each one looking up the referenced category
+        TestModelSplitReference result =
+                AvroXmlMapper.convertXmlStringToAvro(xml.toString(), TestModelSplitReference.class);
+
+        assertEquals(ITEMS, result.getItems().size());
+        for (int i = 0; i < ITEMS; i++) {
+            assertEquals("item" + i, result.getItems().get(i).getName());
+            assertEquals("one", result.getItems().get(i).getCategory());
+        }
+    }
+
+    @Test
+    void shouldRejectFieldsReadingAcrossTheSplit(@TempDir Path directory) throws Exception {
+        Path file = Files.writeString(directory.resolve("reference.xml"), "<root/>", StandardCharsets.UTF_8);
+
+        // An element of the array reads the rest of the document
+        IllegalArgumentException itemException = assertThrows(
+                IllegalArgumentException.class,
+                () -> AvroXmlMapper.convertXmlFileToAvroInParallel(file, TestModelSplitReference.class, "items", pool));
+        assertTrue(itemException.getMessage().contains("category"));
+
+        // The rest of the document reads the elements of the array
+        IllegalArgumentException rootException = assertThrows(
+                IllegalArgumentException.class,
+                () -> AvroXmlMapper.convertXmlFileToAvroInParallel(
+                        file, TestModelSplitReference.class, "others", pool));
+        assertTrue(rootException.getMessage().contains("lastOtherName"));
+    }
+
+    /**
+     * Build a document with a large record list, whose items contain the constructs skipped by the byte-level scanner:
+     * comments, CDATA sections, self-closing elements and attribute values holding markup.
+     */
+    private static String largeDocument() throws Exception {
+        String input = IOUtils.toString(
+                Objects.requireNonNull(ParallelConversionTest.class.getResourceAsStream("/xmlDefaultXpath.xml")),
+                StandardCharsets.UTF_8);
+
+        StringBuilder items = new StringBuilder("<recordList>\n");
+        for (int i = 0; i < ITEMS; i++) {
+            items.append("<listItem><!-- <listItem> --><subStringField><![CDATA[<item")
+                    .append(i)
+                    .append(">]]></subStringField><subIntField attribute=\"a/>")
+                    .append(i)
+                    .append("\">")
+                    .append(i)
+                    .append("</subIntField></listItem>\n");
+        }
+        items.append("<listItem/>\n<listItem attribute='/>'/>\n");
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<!-- generated -->\n"
+                + input.replaceFirst("<recordList>", items.toString());
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.michelin.avroxmlmapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.michelin.avroxmlmapper.utility.PrimitiveParser;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+
+class PrimitiveParserTest {
+    private static final List<String> TEXTS = List.of(
+            "",
+            " ",
+            "0",
+            "-0",
+            "+0",
+            "42",
+            "-42",
+            "+42",
+            "007",
+            "-",
+            "+",
+            "12a",
+            "1 2",
+            " 12",
+            "12 ",
+            "١٢",
+            "2147483647",
+            "2147483648",
+            "-2147483648",
+            "-2147483649",
+            "9223372036854775807",
+            "9223372036854775808",
+            "-9223372036854775808",
+            "-9223372036854775809",
+            "99999999999999999999",
+            "1.5",
+            "-1.5",
+            ".5",
+            "5.",
+            ".",
+            "1e3",
+            "1E-3",
+            "1e+3",
+            "1e",
+            "1e+",
+            "1.5f",
+            "1.5D",
+            "1.5fd",
+            "0.1",
+            "0.3",
+            "3.4028235e38",
+            "3.4028236e38",
+            "1e400",
+            "1e-400",
+            "4.9e-324",
+            "123456789012345678901234567890",
+            "0.000000000000000000000000000001",
+            "9007199254740993",
+            "16777217",
+            "NaN",
+            "-NaN",
+            "Infinity",
+            "-Infinity",
+            "infinity",
+            "0x1p3",
+            "-0x1.8p1",
+            "0x1.8",
+            "0xp1",
+            "0x",
+            "true",
+            "TRUE",
+            "True",
+            "false",
+            "yes",
+            "1");
+
+    @Test
+    void shouldParseLikeTheJdk() {
+        for (String text : TEXTS) {
+            assertEquals(jdk(text, Integer::valueOf), PrimitiveParser.parseInt(text, 0, text.length()), text);
+            assertEquals(jdk(text, Long::valueOf), PrimitiveParser.parseLong(text, 0, text.length()), text);
+            assertEquals(jdk(text, Float::valueOf), PrimitiveParser.parseFloat(text, 0, text.length()), text);
+            assertEquals(jdk(text, Double::valueOf), PrimitiveParser.parseDouble(text, 0, text.length()), text);
+            assertEquals(Boolean.valueOf(text), PrimitiveParser.parseBoolean(text, 0, text.length()), text);
+        }
+    }
+
+    @Test
+    void shouldParseRandomDecimalsLikeTheJdk() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            String text = randomDecimal(random);
+            assertEquals(Double.valueOf(text), PrimitiveParser.parseDouble(text, 0, text.length()), text);
+            assertEquals(Float.valueOf(text), PrimitiveParser.parseFloat(text, 0, text.length()), text);
+        }
+    }
+
+    @Test
+    void shouldParseARangeOfCharacters() {
+        String text = "<value>-123</value>";
+
+        assertEquals(-123, PrimitiveParser.parseInt(text, 7, 11));
+        assertEquals(-123L, PrimitiveParser.parseLong(text, 7, 11));
+        assertEquals(-123.0, PrimitiveParser.parseDouble(text, 7, 11));
+        assertNull(PrimitiveParser.parseInt(text, 6, 11));
+    }
+
+    private static <T> T jdk(String text, Function<String, T> parser) {
+        try {
+            return parser.apply(text);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /** Build a random decimal text, with a mantissa and an exponent around the limits of the fast path. */
+    private static String randomDecimal(Random random) {
+        StringBuilder text = new StringBuilder(Long.toString(random.nextLong(1L << (1 + random.nextInt(60)))));
+        if (random.nextBoolean()) {
+            text.insert(random.nextInt(text.length() + 1), '.');
+        }
+        if (random.nextBoolean()) {
+            text.append('e').append(random.nextInt(61) - 30);
+        }
+        if (random.nextBoolean()) {
+            text.insert(0, '-');
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.michelin.avroxmlmapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.michelin.avro.SubXMLTestModel;
+import com.michelin.avro.TestModelXMLDefaultXpath;
+import com.michelin.avroxmlmapper.mapper.AvroXmlMapper;
+import com.michelin.avroxmlmapper.mapper.Projection;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+
+class ProjectionTest {
+
+    @Test
+    void shouldConvertOnlyProjectedFields() throws Exception {
+        String input = IOUtils.toString(
+                Objects.requireNonNull(ProjectionTest.class.getResourceAsStream("/xmlDefaultXpath.xml")),
+                StandardCharsets.UTF_8);
+        TestModelXMLDefaultXpath full = AvroXmlMapper.convertXmlStringToAvro(input, TestModelXMLDefaultXpath.class);
+        TestModelXMLDefaultXpath defaults =
+                TestModelXMLDefaultXpath.newBuilder().build();
+
+        TestModelXMLDefaultXpath projected = AvroXmlMapper.convertXmlStringToAvro(
+                input,
+                TestModelXMLDefaultXpath.class,
+                Projection.of("stringField", "recordListWithDefault[].subStringField", "altList"));
+
+        assertEquals(full.getStringField(), projected.getStringField());
+        assertEquals(full.getAltList(), projected.getAltList());
+        assertEquals(
+                full.getRecordListWithDefault().size(),
+                projected.getRecordListWithDefault().size());
+        for (int i = 0; i < full.getRecordListWithDefault().size(); i++) {
+            SubXMLTestModel item = projected.getRecordListWithDefault().get(i);
+            assertEquals(full.getRecordListWithDefault().get(i).getSubStringField(), item.getSubStringField());
+            assertNull(item.getSubIntField());
+            assertNull(item.getSubStringFieldFromAttribute());
+        }
+
+        assertEquals(defaults.getStringFieldWithDefault(), projected.getStringFieldWithDefault());
+        assertEquals(defaults.getBooleanField(), projected.getBooleanField());
+        assertEquals(defaults.getQuantityFieldWithDefault(), projected.getQuantityFieldWithDefault());
+        assertEquals(defaults.getDateFieldWithDefault(), projected.getDateFieldWithDefault());
+        assertEquals(defaults.getStringMapScenario1(), projected.getStringMapScenario1());
+        assertEquals(defaults.getStringListWithDefault(), projected.getStringListWithDefault());
+        assertNull(projected.getStringList());
+        assertNull(projected.getDateField());
+    }
+
+    @Test
+    void shouldConvertAllFieldsOfProjectedRecords() throws Exception {
+        String input = IOUtils.toString(
+                Objects.requireNonNull(ProjectionTest.class.getResourceAsStream("/xmlDefaultXpath.xml")),
+                StandardCharsets.UTF_8);
+        TestModelXMLDefaultXpath full = AvroXmlMapper.convertXmlStringToAvro(input, TestModelXMLDefaultXpath.class);
+
+        TestModelXMLDefaultXpath projected = AvroXmlMapper.convertXmlStringToAvro(
+                input,
+                TestModelXMLDefaultXpath.class,
+                Projection.of("recordListWithDefault[].subStringField", "recordListWithDefault"));
+
+        assertEquals(full.getRecordListWithDefault(), projected.getRecordListWithDefault());
+    }
+
+    @Test
+    void shouldCompareProjectionsByFields() {
+        assertEquals(
+                Projection.of("stringField", "recordListWithDefault[].subStringField"),
+                Projection.of("recordListWithDefault[].subStringField", "stringField"));
+        assertEquals(
+                Projection.of("stringField").hashCode(),
+                Projection.of("stringField").hashCode());
+        assertNotEquals(Projection.of("stringField"), Projection.of("stringField.subField"));
+    }
+
+    @Test
+    void shouldRejectInvalidPaths() {
+        assertThrows(IllegalArgumentException.class, () -> Projection.of(""));
+        assertThrows(IllegalArgumentException.class, () -> Projection.of("header..orderId"));
+        assertThrows(IllegalArgumentException.class, () -> Projection.of("lines[]."));
+    }
+
+    @Test
+    void shouldRejectPathsUnknownToTheSchema() {
+        String input = "<root/>";
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> AvroXmlMapper.convertXmlStringToAvro(
+                        input, TestModelXMLDefaultXpath.class, Projection.of("unknownField")));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> AvroXmlMapper.convertXmlStringToAvro(
+                        input, TestModelXMLDefaultXpath.class, Projection.of("recordListWithDefault[].unknownField")));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> AvroXmlMapper.convertXmlStringToAvro(
+                        input, TestModelXMLDefaultXpath.class, Projection.of("stringField[]")));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> AvroXmlMapper.convertXmlStringToAvro(
+                        input, TestModelXMLDefaultXpath.class, Projection.of("stringField.subField")));
+    }
+}
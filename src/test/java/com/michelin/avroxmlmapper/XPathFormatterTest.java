@@ -19,6 +19,7 @@
 package com.michelin.avroxmlmapper;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import com.michelin.avroxmlmapper.utility.XPathFormatter;
 import org.junit.jupiter.api.Test;
@@ -54,4 +55,21 @@ class XPathFormatterTest {
                 "noprefixns:ProcessShipment/noprefixns:DataArea/ns1:Shipment/ns1:ShipmentItem/noprefixns:Classification/noprefixns:Codes/noprefixns:Code[@*[translate(local-name(), 'ABCDEFGHIJKLMNOPQRSTUVWXYZ', 'abcdefghijklmnopqrstuvwxyz') = 'name']='Commodity']",
                 XPathFormatter.format(sourceXPath));
     }
+
+    @Test
+    void shouldNotPrefixPositionalIndex() {
+        assertEquals(
+                "noprefixns:recordList/noprefixns:listItem[2]/ns1:value",
+                XPathFormatter.format("recordList/listItem[2]/ns1:value"));
+    }
+
+    @Test
+    void shouldConvertXpathWithOperatorsAndReturnMemoizedResult() {
+        String sourceXPath = "Order/Line[Type='A' and not(ns1:Flag)]/@Code";
+        String expected =
+                "noprefixns:Order/noprefixns:Line[noprefixns:Type='A' and not(ns1:Flag)]/@*[translate(local-name(), 'ABCDEFGHIJKLMNOPQRSTUVWXYZ', 'abcdefghijklmnopqrstuvwxyz') = 'code']";
+
+        assertEquals(expected, XPathFormatter.format(sourceXPath));
+        assertSame(XPathFormatter.format(sourceXPath), XPathFormatter.format(sourceXPath));
+    }
 }
@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.michelin.avroxmlmapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.michelin.avro.TestModelXMLDefaultXpath;
+import com.michelin.avroxmlmapper.constants.AvroXmlMapperConstants;
+import com.michelin.avroxmlmapper.exception.AvroXmlMapperException;
+import com.michelin.avroxmlmapper.flow.XmlToAvroProcessor;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class XmlToAvroProcessorTest {
+    private static final int PARALLELISM = 4;
+    private static final int BUFFER_SIZE = 16;
+
+    private ExecutorService executor;
+    private String xml;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        executor = Executors.newFixedThreadPool(PARALLELISM);
+        xml = IOUtils.toString(
+                Objects.requireNonNull(XmlToAvroProcessorTest.class.getResourceAsStream("/xmlDefaultXpath.xml")),
+                StandardCharsets.UTF_8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldPublishRecordsInOrderWithBoundedBuffering() throws Exception {
+        List<byte[]> payloads = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            payloads.add(xml.replace("lorem ipsum", "item-" + i).getBytes(StandardCharsets.UTF_8));
+        }
+
+        ListPublisher publisher = new ListPublisher(payloads);
+        XmlToAvroProcessor<TestModelXMLDefaultXpath> processor = newProcessor();
+        SlowSubscriber subscriber = new SlowSubscriber(publisher);
+        publisher.subscribe(processor);
+        processor.subscribe(subscriber);
+
+        subscriber.done.get(30, TimeUnit.SECONDS);
+
+        assertEquals(payloads.size(), subscriber.records.size());
+        for (int i = 0; i < payloads.size(); i++) {
+            assertEquals("item-" + i, subscriber.records.get(i).getStringField());
+        }
+        assertTrue(subscriber.maxOutstanding <= BUFFER_SIZE, "Outstanding payloads: " + subscriber.maxOutstanding);
+    }
+
+    @Test
+    void shouldFailAndCancelUpstreamOnConversionError() throws Exception {
+        ListPublisher publisher = new ListPublisher(List.of(
+                xml.getBytes(StandardCharsets.UTF_8),
+                "<root".getBytes(StandardCharsets.UTF_8),
+                xml.getBytes(StandardCharsets.UTF_8)));
+        XmlToAvroProcessor<TestModelXMLDefaultXpath> processor = newProcessor();
+        SlowSubscriber subscriber = new SlowSubscriber(publisher);
+        publisher.subscribe(processor);
+        processor.subscribe(subscriber);
+
+        CompletableFuture<Throwable> failure = subscriber.done.handle((result, throwable) -> throwable);
+
+        assertInstanceOf(AvroXmlMapperException.class, failure.get(30, TimeUnit.SECONDS));
+        assertEquals(1, subscriber.records.size());
+        assertTrue(publisher.cancelled);
+    }
+
+    @Test
+    void shouldRejectBufferSmallerThanParallelism() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new XmlToAvroProcessor<>(
+                        TestModelXMLDefaultXpath.class,
+                        AvroXmlMapperConstants.XPATH_DEFAULT,
+                        AvroXmlMapperConstants.XML_NAMESPACE_SELECTOR_DEFAULT,
+                        executor,
+                        8,
+                        4));
+    }
+
+    private XmlToAvroProcessor<TestModelXMLDefaultXpath> newProcessor() {
+        return new XmlToAvroProcessor<>(
+                TestModelXMLDefaultXpath.class,
+                AvroXmlMapperConstants.XPATH_DEFAULT,
+                AvroXmlMapperConstants.XML_NAMESPACE_SELECTOR_DEFAULT,
+                executor,
+                PARALLELISM,
+                BUFFER_SIZE);
+    }
+
+    /** Publishes a list of payloads synchronously, as fast as it is requested. */
+    private static final class ListPublisher implements Flow.Publisher<byte[]> {
+        private final List<byte[]> payloads;
+        private final AtomicInteger delivered = new AtomicInteger();
+        private volatile boolean cancelled;
+
+        ListPublisher(List<byte[]> payloads) {
+            this.payloads = payloads;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super byte[]> subscriber) {
+            AtomicInteger requested = new AtomicInteger();
+
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    // Only the first caller emits, the reentrant calls from onNext add to its demand
+                    if (requested.getAndAdd((int) n) != 0) {
+                        return;
+                    }
+
+                    do {
+                        if (cancelled) {
+                            return;
+                        }
+                        int index = delivered.getAndIncrement();
+                        if (index >= payloads.size()) {
+                            subscriber.onComplete();
+                            return;
+                        }
+                        subscriber.onNext(payloads.get(index));
+                    } while (requested.decrementAndGet() != 0);
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled = true;
+                }
+            });
+        }
+    }
+
+    /** Requests the records one by one, slower than the conversions. */
+    private static final class SlowSubscriber implements Flow.Subscriber<TestModelXMLDefaultXpath> {
+        private final ListPublisher publisher;
+        private final List<TestModelXMLDefaultXpath> records = new ArrayList<>();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private Flow.Subscription subscription;
+        private int maxOutstanding;
+
+        SlowSubscriber(ListPublisher publisher) {
+            this.publisher = publisher;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(TestModelXMLDefaultXpath item) {
+            records.add(item);
+            maxOutstanding = Math.max(maxOutstanding, publisher.delivered.get() - records.size());
+
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            done.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            done.complete(null);
+        }
+    }
+}